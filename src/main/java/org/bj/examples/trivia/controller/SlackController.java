@@ -1,7 +1,7 @@
 package org.bj.examples.trivia.controller;
 
 import org.bj.examples.trivia.dto.SlackRequestDoc;
-import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponse;
 import org.bj.examples.trivia.service.slack.SlackSlashCommandService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -19,7 +19,7 @@ public class SlackController {
     }
 
     @RequestMapping(value = "/slash", method = RequestMethod.POST)
-    public SlackResponseDoc slackSlashCommand(final SlackRequestDoc requestDoc) {
+    public SlackResponse slackSlashCommand(final SlackRequestDoc requestDoc) {
         return slackSlashCommandService.processSlashCommand(requestDoc);
     }
 }
@@ -0,0 +1,111 @@
+package org.bj.examples.trivia.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.bj.examples.trivia.dto.SlackRequestDoc;
+import org.bj.examples.trivia.util.HighResolutionClock;
+import org.bj.examples.trivia.util.SlackFormParser;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Binds {@link SlackRequestDoc} arguments with {@link SlackFormParser}
+ * rather than reflective data binding. The form body is read straight
+ * from the request; if something upstream already made the container
+ * parse it, the request parameters are used instead. The time the request
+ * arrived comes from {@link SlackRequestTimeFilter}.
+ */
+public class SlackRequestDocArgumentResolver implements HandlerMethodArgumentResolver {
+    /**
+     * Slash command payloads are a few hundred bytes; anything much larger
+     * isn't from Slack
+     */
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    @Override
+    public boolean supportsParameter(final MethodParameter parameter) {
+        return parameter.getParameterType() == SlackRequestDoc.class;
+    }
+
+    @Override
+    public Object resolveArgument(
+            final MethodParameter parameter,
+            final ModelAndViewContainer mavContainer,
+            final NativeWebRequest webRequest,
+            final WebDataBinderFactory binderFactory
+    ) throws IOException {
+        final HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        SlackRequestDoc requestDoc = null;
+
+        if (request != null && isForm(request)) {
+            final byte[] body = read(request.getInputStream(), request.getContentLength());
+
+            if (body.length > 0) {
+                requestDoc = SlackFormParser.parse(body, body.length);
+            }
+        }
+
+        if (requestDoc == null) {
+            //The body has already been consumed into parameters, or there wasn't one
+            requestDoc = SlackFormParser.fromParameters(webRequest.getParameterMap());
+        }
+
+        final Object requestTime = request == null ? null : request.getAttribute(SlackRequestTimeFilter.REQUEST_TIME_ATTRIBUTE);
+
+        if (requestTime instanceof Long) {
+            requestDoc.setRequestTime(HighResolutionClock.toUtcDateTime((Long) requestTime));
+        }
+
+        return requestDoc;
+    }
+
+    private static boolean isForm(final HttpServletRequest request) {
+        return request.getContentType() != null
+                && request.getContentType().startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+    }
+
+    /**
+     * @param contentLength the declared length, or -1 if the request is
+     *                      chunked
+     */
+    private static byte[] read(final InputStream in, final int contentLength) throws IOException {
+        if (contentLength > MAX_BODY_BYTES) {
+            throw new IOException("Slash command payload is larger than " + MAX_BODY_BYTES + " bytes.");
+        }
+
+        byte[] body = new byte[contentLength >= 0 ? contentLength : 1024];
+        int length = 0;
+
+        while (true) {
+            if (length == body.length) {
+                if (contentLength >= 0) {
+                    break;
+                }
+
+                if (body.length >= MAX_BODY_BYTES) {
+                    throw new IOException("Slash command payload is larger than " + MAX_BODY_BYTES + " bytes.");
+                }
+
+                body = Arrays.copyOf(body, Math.min(body.length * 2, MAX_BODY_BYTES));
+            }
+
+            final int read = in.read(body, length, body.length - length);
+
+            if (read < 0) {
+                break;
+            }
+
+            length += read;
+        }
+
+        return length == body.length ? body : Arrays.copyOf(body, length);
+    }
+}
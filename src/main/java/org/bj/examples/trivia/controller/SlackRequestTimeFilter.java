@@ -0,0 +1,35 @@
+package org.bj.examples.trivia.controller;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.bj.examples.trivia.util.HighResolutionClock;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Stamps each Slack request with the time it arrived, before any other
+ * filter, the dispatcher or the binding of the form body gets to it, so
+ * that answers are ordered by when they reached the app rather than by when
+ * a thread got round to them. {@link SlackRequestDocArgumentResolver}
+ * carries the stamp over to the request.
+ */
+public class SlackRequestTimeFilter extends OncePerRequestFilter {
+    /**
+     * The request attribute holding the time, in nanoseconds since the epoch
+     */
+    public static final String REQUEST_TIME_ATTRIBUTE = SlackRequestTimeFilter.class.getName() + ".requestTime";
+
+    @Override
+    protected void doFilterInternal(
+            final HttpServletRequest request,
+            final HttpServletResponse response,
+            final FilterChain filterChain
+    ) throws ServletException, IOException {
+        request.setAttribute(REQUEST_TIME_ATTRIBUTE, HighResolutionClock.nowNanos());
+        filterChain.doFilter(request, response);
+    }
+}
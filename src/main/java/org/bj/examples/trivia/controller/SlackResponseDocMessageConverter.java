@@ -0,0 +1,60 @@
+package org.bj.examples.trivia.controller;
+
+import java.io.IOException;
+
+import org.bj.examples.trivia.dto.PreSerializedResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponse;
+import org.bj.examples.trivia.util.SlackResponseWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes slash command responses with {@link SlackResponseWriter} instead
+ * of the general-purpose Jackson converter. Spring Boot puts converter
+ * beans ahead of its defaults, so this one wins for
+ * {@link SlackResponse}s.
+ */
+@Component
+public class SlackResponseDocMessageConverter extends AbstractHttpMessageConverter<SlackResponse> {
+    private final SlackResponseWriter responseWriter;
+
+    @Autowired
+    public SlackResponseDocMessageConverter(final SlackResponseWriter responseWriter) {
+        super(MediaType.APPLICATION_JSON_UTF8, MediaType.APPLICATION_JSON);
+        this.responseWriter = responseWriter;
+    }
+
+    @Override
+    protected boolean supports(final Class<?> clazz) {
+        return SlackResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(final Class<?> clazz, final MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected SlackResponse readInternal(final Class<? extends SlackResponse> clazz, final HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Slack responses are write-only.");
+    }
+
+    @Override
+    protected Long getContentLength(final SlackResponse responseDoc, final MediaType contentType) {
+        if (responseDoc instanceof PreSerializedResponseDoc) {
+            return (long)((PreSerializedResponseDoc)responseDoc).serialized(responseWriter).length;
+        }
+
+        return null;
+    }
+
+    @Override
+    protected void writeInternal(final SlackResponse responseDoc, final HttpOutputMessage outputMessage) throws IOException {
+        responseWriter.write(responseDoc, outputMessage.getBody());
+    }
+}
@@ -0,0 +1,46 @@
+package org.bj.examples.trivia.controller;
+
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.filter.OrderedHiddenHttpMethodFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class SlackWebMvcConfigurer implements WebMvcConfigurer {
+    @Override
+    public void addArgumentResolvers(final List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new SlackRequestDocArgumentResolver());
+    }
+
+    @Bean
+    public FilterRegistrationBean<SlackRequestTimeFilter> slackRequestTimeFilter() {
+        final FilterRegistrationBean<SlackRequestTimeFilter> registration = new FilterRegistrationBean<>(new SlackRequestTimeFilter());
+        registration.addUrlPatterns("/slack/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+
+        return registration;
+    }
+
+    /**
+     * Replaces Spring Boot's filter, which looks up <code>_method</code> on
+     * every POST and so makes the container parse the whole form body into
+     * parameters before {@link SlackRequestDocArgumentResolver} gets to it.
+     * Slack never sends <code>_method</code>.
+     */
+    @Bean
+    public OrderedHiddenHttpMethodFilter hiddenHttpMethodFilter() {
+        return new OrderedHiddenHttpMethodFilter() {
+            @Override
+            protected boolean shouldNotFilter(final HttpServletRequest request) {
+                return request.getRequestURI().startsWith(request.getContextPath() + "/slack/");
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package org.bj.examples.trivia.controller;
+
+import org.bj.examples.trivia.dto.AdmissionStats;
+import org.bj.examples.trivia.dto.DeliveryStats;
+import org.bj.examples.trivia.service.slack.DelayedSlackService;
+import org.bj.examples.trivia.service.slack.SlackSlashCommandService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(value = "/stats")
+public class StatsController {
+    private final DelayedSlackService delayedSlackService;
+    private final SlackSlashCommandService slackSlashCommandService;
+
+    @Autowired
+    public StatsController(
+            final DelayedSlackService delayedSlackService,
+            final SlackSlashCommandService slackSlashCommandService
+    ) {
+        this.delayedSlackService = delayedSlackService;
+        this.slackSlashCommandService = slackSlashCommandService;
+    }
+
+    @RequestMapping(value = "/delivery", method = RequestMethod.GET)
+    public DeliveryStats deliveryStats() {
+        return delayedSlackService.getDeliveryStats();
+    }
+
+    @RequestMapping(value = "/admission", method = RequestMethod.GET)
+    public AdmissionStats admissionStats() {
+        return slackSlashCommandService.getAdmissionStats();
+    }
+}
@@ -0,0 +1,41 @@
+package org.bj.examples.trivia.controller;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.coyote.AbstractProtocol;
+import org.bj.examples.trivia.util.ThreadPerTaskExecutor;
+import org.bj.examples.trivia.util.VirtualThreads;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * With <code>trivia.threads.virtual</code>, Tomcat handles each request on
+ * a virtual thread of its own instead of on its pool of 200, so requests
+ * that are waiting on Mongo or Datastore no longer use up the pool. How
+ * many requests are in progress at once is still bounded by the
+ * connector's <code>server.tomcat.max-connections</code>.
+ */
+@ConditionalOnProperty(name = "trivia.threads.virtual", havingValue = "true")
+@Configuration
+public class VirtualThreadWebConfiguration {
+    private static final Log log = LogFactory.getLog(VirtualThreadWebConfiguration.class);
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer() {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            if (!VirtualThreads.isAvailable()) {
+                log.warn("Virtual threads need Java 21 or later; Tomcat will use its own thread pool.");
+                return;
+            }
+
+            if (connector.getProtocolHandler() instanceof AbstractProtocol) {
+                ((AbstractProtocol<?>) connector.getProtocolHandler()).setExecutor(
+                        new ThreadPerTaskExecutor(VirtualThreads.factory("http-virtual-"), Integer.MAX_VALUE)
+                );
+            }
+        });
+    }
+}
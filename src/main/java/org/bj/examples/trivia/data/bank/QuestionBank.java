@@ -0,0 +1,184 @@
+package org.bj.examples.trivia.data.bank;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A read-only bank of questions and their answers, memory-mapped from a
+ * file written by {@link QuestionBankWriter}. The questions stay in the
+ * file, outside the heap, and are read one at a time as they are asked;
+ * only the small table of topics is loaded.
+ * <p>
+ * The questions on each topic are stored next to each other, so a topic is
+ * just a range of question numbers, and any question can be found in
+ * constant time through the table of offsets.
+ * <p>
+ * The file, all big-endian:
+ * <pre>
+ * int    magic, "TQB1"
+ * int    number of questions
+ * int    number of topics
+ * topics, each: int first question, int number of questions,
+ *               short length, UTF-8 name
+ * int[]  offset of each question in the data, and the end of the data
+ * data   each question: short length, UTF-8 question,
+ *                       short length, UTF-8 answer
+ * </pre>
+ * A single mapping covers at most 2GB, which is tens of millions of
+ * questions.
+ */
+public final class QuestionBank {
+    static final int MAGIC = 0x54514231;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int offsetsStart;
+    private final int dataStart;
+    private final Map<String, Topic> topicsByName;
+    private final Topic allTopics;
+
+    private QuestionBank(final ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a question bank.");
+        }
+
+        this.size = buffer.getInt(4);
+
+        final int topicCount = buffer.getInt(8);
+        final Map<String, Topic> topics = new HashMap<>();
+        int position = 12;
+
+        for (int i = 0; i < topicCount; i++) {
+            final int first = buffer.getInt(position);
+            final int count = buffer.getInt(position + 4);
+            final String name = readString(position + 8);
+            topics.put(normalize(name), new Topic(name, first, count));
+            position += 10 + (buffer.getShort(position + 8) & 0xFFFF);
+        }
+
+        this.topicsByName = Collections.unmodifiableMap(topics);
+        this.allTopics = new Topic(null, 0, size);
+        this.offsetsStart = position;
+        this.dataStart = offsetsStart + (size + 1) * 4;
+
+        if (dataStart + buffer.getInt(offsetsStart + size * 4) != buffer.limit()) {
+            throw new IOException("The question bank is truncated or corrupt.");
+        }
+    }
+
+    /**
+     * Maps the file into memory. The mapping outlives the file being closed.
+     */
+    public static QuestionBank open(final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The question bank is larger than 2GB.");
+            }
+
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new QuestionBank(buffer);
+        }
+    }
+
+    /**
+     * @param name matched ignoring case, or null for every question in the
+     *             bank
+     * @return the topic, or null if the bank has no questions on it
+     */
+    public Topic getTopic(final String name) {
+        return name == null ? allTopics : topicsByName.get(normalize(name));
+    }
+
+    public List<String> getTopicNames() {
+        final List<String> names = new ArrayList<>(topicsByName.size());
+
+        for (final Topic topic : topicsByName.values()) {
+            names.add(topic.getName());
+        }
+
+        Collections.sort(names);
+        return names;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getQuestion(final int index) {
+        return readString(dataStart + offsetOf(index));
+    }
+
+    public String getAnswer(final int index) {
+        final int questionPosition = dataStart + offsetOf(index);
+        return readString(questionPosition + 2 + (buffer.getShort(questionPosition) & 0xFFFF));
+    }
+
+    private int offsetOf(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No question " + index + " in a bank of " + size + ".");
+        }
+
+        return buffer.getInt(offsetsStart + index * 4);
+    }
+
+    /**
+     * Copies the string out of a duplicate of the mapping, so that threads
+     * reading at the same time do not move each other's position
+     */
+    private String readString(final int position) {
+        final byte[] bytes = new byte[buffer.getShort(position) & 0xFFFF];
+        final ByteBuffer view = buffer.duplicate();
+        view.position(position + 2);
+        view.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static String normalize(final String topic) {
+        return topic.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The questions on a topic, numbered <code>first</code> to
+     * <code>first + size - 1</code>
+     */
+    public static final class Topic {
+        private final String name;
+        private final int first;
+        private final int size;
+
+        private Topic(final String name, final int first, final int size) {
+            this.name = name;
+            this.first = first;
+            this.size = size;
+        }
+
+        /**
+         * @return the name, or null for every question in the bank
+         */
+        public String getName() {
+            return name;
+        }
+
+        public int getFirst() {
+            return first;
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.bj.examples.trivia.data.bank;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the file a {@link QuestionBank} is read from, grouping the
+ * questions by topic.
+ * <p>
+ * Run on its own, it turns a tab-separated file of
+ * <code>topic, question, answer</code> lines into a bank:
+ * <pre>
+ * QuestionBankWriter questions.tsv questions.bank
+ * </pre>
+ */
+public class QuestionBankWriter {
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private final Map<String, TopicQuestions> topics = new LinkedHashMap<>();
+    private int size;
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: QuestionBankWriter <questions.tsv> <questions.bank>");
+            System.exit(1);
+        }
+
+        final QuestionBankWriter writer = new QuestionBankWriter();
+
+        try (final BufferedReader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                final String[] fields = line.split("\t");
+
+                if (fields.length != 3) {
+                    throw new IOException("Line " + lineNumber + " does not have a topic, question and answer.");
+                }
+
+                writer.add(fields[0], fields[1], fields[2]);
+            }
+        }
+
+        writer.write(Paths.get(args[1]));
+        System.out.println("Wrote " + writer.size + " question(s) on " + writer.topics.size() + " topic(s).");
+    }
+
+    /**
+     * @param topic matched ignoring case, so topics that differ only in
+     *              case are one topic, named as it was first given
+     */
+    public void add(final String topic, final String question, final String answer) {
+        final byte[] topicBytes = encode(topic.trim());
+        final byte[] questionBytes = encode(question);
+        final byte[] answerBytes = encode(answer);
+
+        topics.computeIfAbsent(QuestionBank.normalize(topic), key -> new TopicQuestions(topicBytes))
+                .entries.add(new byte[][] { questionBytes, answerBytes });
+        size++;
+    }
+
+    public void write(final Path path) throws IOException {
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(QuestionBank.MAGIC);
+            out.writeInt(size);
+            out.writeInt(topics.size());
+
+            int first = 0;
+
+            for (final TopicQuestions topic : topics.values()) {
+                out.writeInt(first);
+                out.writeInt(topic.entries.size());
+                writeString(out, topic.name);
+                first += topic.entries.size();
+            }
+
+            long offset = 0;
+
+            for (final TopicQuestions topic : topics.values()) {
+                for (final byte[][] entry : topic.entries) {
+                    out.writeInt((int) offset);
+                    offset += 4 + entry[0].length + entry[1].length;
+
+                    if (offset > Integer.MAX_VALUE) {
+                        throw new IOException("The questions do not fit in a 2GB bank.");
+                    }
+                }
+            }
+
+            out.writeInt((int) offset);
+
+            for (final TopicQuestions topic : topics.values()) {
+                for (final byte[][] entry : topic.entries) {
+                    writeString(out, entry[0]);
+                    writeString(out, entry[1]);
+                }
+            }
+        }
+    }
+
+    private static byte[] encode(final String text) {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("\"" + text.substring(0, 20) + "...\" is longer than " + MAX_STRING_BYTES + " bytes.");
+        }
+
+        return bytes;
+    }
+
+    private static void writeString(final DataOutputStream out, final byte[] bytes) throws IOException {
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static final class TopicQuestions {
+        private final byte[] name;
+        private final List<byte[][]> entries = new ArrayList<>();
+
+        private TopicQuestions(final byte[] name) {
+            this.name = name;
+        }
+    }
+}
@@ -71,6 +71,10 @@ public class ScoreInfoDao extends BaseDao {
         return entityToScoreInfo(scoreInfoEntity);
     }
 
+    public Key keyOf(final ScoreInfo scoreInfo) {
+        return keyFactory.newKey(scoreInfo.getId().toHexString());
+    }
+
     public void deleteAllByChannelId(final String channelId) {
         final Query<Entity> query = Query.newEntityQueryBuilder()
                 .setKind(kind)
@@ -1,5 +1,6 @@
 package org.bj.examples.trivia.data.workflow;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,6 +16,9 @@ public class Workflow {
     public static final String QUESTION_KEY = "question";
     public static final String ANSWERS_KEY = "answers";
     public static final String STAGE_KEY = "stage";
+    public static final String QUESTION_DATE_KEY = "questionDate";
+    public static final String RESPONSE_URL_KEY = "responseUrl";
+    public static final String ROUND_TIMEOUT_SECONDS_KEY = "roundTimeoutSeconds";
 
     @Id
     private ObjectId id;
@@ -27,6 +31,9 @@ public class Workflow {
     private String question;
     private List<Answer> answers = new ArrayList<>();
     private WorkflowStage stage;
+    private LocalDateTime questionDate;
+    private String responseUrl;
+    private Integer roundTimeoutSeconds;
 
     public ObjectId getId() {
         return id;
@@ -83,4 +90,28 @@ public class Workflow {
     public void setStage(WorkflowStage stage) {
         this.stage = stage;
     }
+
+    public LocalDateTime getQuestionDate() {
+        return questionDate;
+    }
+
+    public void setQuestionDate(LocalDateTime questionDate) {
+        this.questionDate = questionDate;
+    }
+
+    public String getResponseUrl() {
+        return responseUrl;
+    }
+
+    public void setResponseUrl(String responseUrl) {
+        this.responseUrl = responseUrl;
+    }
+
+    public Integer getRoundTimeoutSeconds() {
+        return roundTimeoutSeconds;
+    }
+
+    public void setRoundTimeoutSeconds(Integer roundTimeoutSeconds) {
+        this.roundTimeoutSeconds = roundTimeoutSeconds;
+    }
 }
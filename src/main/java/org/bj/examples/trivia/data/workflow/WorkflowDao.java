@@ -1,5 +1,8 @@
 package org.bj.examples.trivia.data.workflow;
 
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -9,17 +12,22 @@ import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.google.cloud.Timestamp;
 import com.google.cloud.datastore.Entity;
 import com.google.cloud.datastore.EntityValue;
 import com.google.cloud.datastore.FullEntity;
 import com.google.cloud.datastore.IncompleteKey;
 import com.google.cloud.datastore.Key;
 import com.google.cloud.datastore.ListValue;
+import com.google.cloud.datastore.LongValue;
 import com.google.cloud.datastore.NullValue;
 import com.google.cloud.datastore.Query;
 import com.google.cloud.datastore.QueryResults;
 import com.google.cloud.datastore.StringValue;
+import com.google.cloud.datastore.TimestampValue;
 import com.google.cloud.datastore.StructuredQuery.PropertyFilter;
+import com.google.cloud.datastore.Transaction;
+import com.google.cloud.datastore.Value;
 
 @Service
 public class WorkflowDao extends BaseDao {
@@ -47,6 +55,17 @@ public class WorkflowDao extends BaseDao {
         }
     }
 
+    public List<Workflow> findAllByStage(final WorkflowStage stage) {
+        final Query<Entity> query = Query.newEntityQueryBuilder()
+                .setKind(kind)
+                .setFilter(PropertyFilter.eq(Workflow.STAGE_KEY, stage.toString()))
+                .build();
+
+        return asStream(datastore.run(query))
+                .map(this::entityToWorkflow)
+                .collect(Collectors.toList());
+    }
+
     public Workflow save(final Workflow workflow) {
         if (workflow == null) {
             return null;
@@ -65,6 +84,56 @@ public class WorkflowDao extends BaseDao {
         return entityToWorkflow(workflowEntity);
     }
 
+    /**
+     * Saves the workflow for the next round and adds a point to a score, in
+     * one transaction, as long as the stored workflow still has
+     * <code>hostUserId</code> as its host and a question open. Both are read
+     * inside the transaction, so the score that comes back is the one that
+     * was committed.
+     *
+     * @param scoreKey the winner's score, or null to give no point
+     * @return the winner's score with the point added, 0 if no point was
+     * given, or null if the stored workflow or score has changed, in which
+     * case nothing was saved
+     */
+    public Long saveRound(final Workflow workflow, final String hostUserId, final Key scoreKey) {
+        final Key key = keyFactory.newKey(workflow.getId().toHexString());
+        final Transaction transaction = datastore.newTransaction();
+
+        try {
+            final List<Entity> current = scoreKey == null ? transaction.fetch(key) : transaction.fetch(key, scoreKey);
+            final Entity currentWorkflow = current.get(0);
+
+            if (currentWorkflow == null
+                    || !hostUserId.equals(currentWorkflow.getString(Workflow.CONTROLLING_USER_ID_KEY))
+                    || !WorkflowStage.QUESTION_ASKED.toString().equals(currentWorkflow.getString(Workflow.STAGE_KEY))) {
+                return null;
+            }
+
+            transaction.put(workflowToEntity(key, workflow));
+
+            long score = 0;
+
+            if (scoreKey != null) {
+                final Entity currentScore = current.get(1);
+
+                if (currentScore == null) {
+                    return null;
+                }
+
+                score = currentScore.getLong(ScoreInfo.SCORE_KEY) + 1;
+                transaction.put(Entity.newBuilder(currentScore).set(ScoreInfo.SCORE_KEY, score).build());
+            }
+
+            transaction.commit();
+            return score;
+        } finally {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+        }
+    }
+
     public void delete(final String keyName) {
         datastore.delete(keyFactory.newKey(keyName));
     }
@@ -81,6 +150,9 @@ public class WorkflowDao extends BaseDao {
                 .set(Workflow.QUESTION_KEY, workflow.getQuestion() == null ? NullValue.of() : StringValue.of(workflow.getQuestion()))
                 .set(Workflow.ANSWERS_KEY, ListValue.of(answerValues))
                 .set(Workflow.STAGE_KEY, workflow.getStage().toString())
+                .set(Workflow.QUESTION_DATE_KEY, toTimestampValue(workflow.getQuestionDate()))
+                .set(Workflow.RESPONSE_URL_KEY, workflow.getResponseUrl() == null ? NullValue.of() : StringValue.of(workflow.getResponseUrl()))
+                .set(Workflow.ROUND_TIMEOUT_SECONDS_KEY, workflow.getRoundTimeoutSeconds() == null ? NullValue.of() : LongValue.of(workflow.getRoundTimeoutSeconds()))
                 .build();
     }
 
@@ -96,6 +168,9 @@ public class WorkflowDao extends BaseDao {
                 .set(Workflow.QUESTION_KEY, workflow.getQuestion() == null ? NullValue.of() : StringValue.of(workflow.getQuestion()))
                 .set(Workflow.ANSWERS_KEY, ListValue.of(answerValues))
                 .set(Workflow.STAGE_KEY, workflow.getStage().toString())
+                .set(Workflow.QUESTION_DATE_KEY, toTimestampValue(workflow.getQuestionDate()))
+                .set(Workflow.RESPONSE_URL_KEY, workflow.getResponseUrl() == null ? NullValue.of() : StringValue.of(workflow.getResponseUrl()))
+                .set(Workflow.ROUND_TIMEOUT_SECONDS_KEY, workflow.getRoundTimeoutSeconds() == null ? NullValue.of() : LongValue.of(workflow.getRoundTimeoutSeconds()))
                 .build();
     }
 
@@ -118,6 +193,27 @@ public class WorkflowDao extends BaseDao {
 
         workflow.setStage(WorkflowStage.valueOf(entity.getString(Workflow.STAGE_KEY)));
 
+        //Workflows saved before rounds were timed have none of these
+        if (entity.contains(Workflow.QUESTION_DATE_KEY) && !entity.isNull(Workflow.QUESTION_DATE_KEY)) {
+            workflow.setQuestionDate(entity.getTimestamp(Workflow.QUESTION_DATE_KEY).toDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
+        }
+
+        if (entity.contains(Workflow.RESPONSE_URL_KEY) && !entity.isNull(Workflow.RESPONSE_URL_KEY)) {
+            workflow.setResponseUrl(entity.getString(Workflow.RESPONSE_URL_KEY));
+        }
+
+        if (entity.contains(Workflow.ROUND_TIMEOUT_SECONDS_KEY) && !entity.isNull(Workflow.ROUND_TIMEOUT_SECONDS_KEY)) {
+            workflow.setRoundTimeoutSeconds((int) entity.getLong(Workflow.ROUND_TIMEOUT_SECONDS_KEY));
+        }
+
         return workflow;
     }
+
+    private static Value<?> toTimestampValue(final LocalDateTime date) {
+        if (date == null) {
+            return NullValue.of();
+        }
+
+        return TimestampValue.of(Timestamp.of(Date.from(date.atZone(ZoneId.systemDefault()).toInstant())));
+    }
 }
@@ -1,8 +1,11 @@
 package org.bj.examples.trivia.data.workflow;
 
+import java.util.List;
+
 import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 public interface WorkflowRepo extends MongoRepository<Workflow, ObjectId> {
     Workflow findByChannelId(final String channelId);
+    List<Workflow> findByStage(final WorkflowStage stage);
 }
@@ -0,0 +1,57 @@
+package org.bj.examples.trivia.dto;
+
+public final class AdmissionStats {
+    private final int inFlight;
+    private final int maxInFlight;
+    private final int maxInFlightPerChannel;
+    private final int activeChannels;
+    private final long admittedCount;
+    private final long shedCount;
+    private final long shedReadOnlyCount;
+
+    public AdmissionStats(
+            final int inFlight,
+            final int maxInFlight,
+            final int maxInFlightPerChannel,
+            final int activeChannels,
+            final long admittedCount,
+            final long shedCount,
+            final long shedReadOnlyCount
+    ) {
+        this.inFlight = inFlight;
+        this.maxInFlight = maxInFlight;
+        this.maxInFlightPerChannel = maxInFlightPerChannel;
+        this.activeChannels = activeChannels;
+        this.admittedCount = admittedCount;
+        this.shedCount = shedCount;
+        this.shedReadOnlyCount = shedReadOnlyCount;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getMaxInFlightPerChannel() {
+        return maxInFlightPerChannel;
+    }
+
+    public int getActiveChannels() {
+        return activeChannels;
+    }
+
+    public long getAdmittedCount() {
+        return admittedCount;
+    }
+
+    public long getShedCount() {
+        return shedCount;
+    }
+
+    public long getShedReadOnlyCount() {
+        return shedReadOnlyCount;
+    }
+}
@@ -0,0 +1,99 @@
+package org.bj.examples.trivia.dto;
+
+public final class DeliveryStats {
+    private final int poolSize;
+    private final int activeWorkers;
+    private final int activeChannels;
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final long completedCount;
+    private final long retriedCount;
+    private final long failedCount;
+    private final long rejectedCount;
+    private final long throttledCount;
+    private final long coalescedCount;
+    private final boolean journalHealthy;
+    private final long journalFailureCount;
+
+    public DeliveryStats(
+            final int poolSize,
+            final int activeWorkers,
+            final int activeChannels,
+            final int queueDepth,
+            final int queueCapacity,
+            final long completedCount,
+            final long retriedCount,
+            final long failedCount,
+            final long rejectedCount,
+            final long throttledCount,
+            final long coalescedCount,
+            final boolean journalHealthy,
+            final long journalFailureCount
+    ) {
+        this.poolSize = poolSize;
+        this.activeWorkers = activeWorkers;
+        this.activeChannels = activeChannels;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.completedCount = completedCount;
+        this.retriedCount = retriedCount;
+        this.failedCount = failedCount;
+        this.rejectedCount = rejectedCount;
+        this.throttledCount = throttledCount;
+        this.coalescedCount = coalescedCount;
+        this.journalHealthy = journalHealthy;
+        this.journalFailureCount = journalFailureCount;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getActiveWorkers() {
+        return activeWorkers;
+    }
+
+    public int getActiveChannels() {
+        return activeChannels;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public long getRetriedCount() {
+        return retriedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public long getThrottledCount() {
+        return throttledCount;
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    public boolean isJournalHealthy() {
+        return journalHealthy;
+    }
+
+    public long getJournalFailureCount() {
+        return journalFailureCount;
+    }
+}
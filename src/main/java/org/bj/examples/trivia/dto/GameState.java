@@ -8,6 +8,7 @@ public final class GameState {
     private String topic;
     private String question;
     private List<Answer> answers;
+    private LocalDateTime questionDate;
 
     public String getControllingUserId() {
         return controllingUserId;
@@ -41,6 +42,14 @@ public final class GameState {
         this.answers = answers;
     }
 
+    public LocalDateTime getQuestionDate() {
+        return questionDate;
+    }
+
+    public void setQuestionDate(LocalDateTime questionDate) {
+        this.questionDate = questionDate;
+    }
+
     public static final class Answer {
         private final String userId;
         private final String username;
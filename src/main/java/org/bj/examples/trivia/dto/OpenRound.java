@@ -0,0 +1,57 @@
+package org.bj.examples.trivia.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A question that has been asked and not yet answered, as much of it as is
+ * needed to close it once its time is up
+ */
+public final class OpenRound {
+    private final String channelId;
+    private final String hostUserId;
+    private final String responseUrl;
+    private final LocalDateTime questionDate;
+    private final Integer timeoutSeconds;
+
+    public OpenRound(
+            final String channelId,
+            final String hostUserId,
+            final String responseUrl,
+            final LocalDateTime questionDate,
+            final Integer timeoutSeconds
+    ) {
+        this.channelId = channelId;
+        this.hostUserId = hostUserId;
+        this.responseUrl = responseUrl;
+        this.questionDate = questionDate;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    public String getChannelId() {
+        return channelId;
+    }
+
+    public String getHostUserId() {
+        return hostUserId;
+    }
+
+    /**
+     * @return the <code>response_url</code> of the question, where the round
+     * is closed
+     */
+    public String getResponseUrl() {
+        return responseUrl;
+    }
+
+    public LocalDateTime getQuestionDate() {
+        return questionDate;
+    }
+
+    /**
+     * @return how long the channel gives each question, or null if the
+     * channel has not chosen
+     */
+    public Integer getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+}
@@ -0,0 +1,86 @@
+package org.bj.examples.trivia.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bj.examples.trivia.util.SlackResponseWriter;
+
+/**
+ * An immutable response whose JSON is rendered once and then reused.
+ * Constant responses are built as these and shared, so writing one out is
+ * a plain byte copy rather than a walk over the object with Jackson.
+ */
+public final class PreSerializedResponseDoc implements SlackResponse {
+    private final SlackResponseType responseType;
+    private final String text;
+    private final List<SlackAttachment> attachments;
+
+    private volatile Rendering rendering;
+
+    private PreSerializedResponseDoc(final SlackResponseType responseType, final String text, final List<SlackAttachment> attachments) {
+        this.responseType = responseType;
+        this.text = text;
+        this.attachments = attachments;
+    }
+
+    public static PreSerializedResponseDoc of(final SlackResponse response) {
+        if (response instanceof PreSerializedResponseDoc) {
+            return (PreSerializedResponseDoc)response;
+        }
+
+        final List<SlackAttachment> attachments = response.getAttachments() == null
+                ? null
+                : Collections.unmodifiableList(new ArrayList<>(response.getAttachments()));
+
+        return new PreSerializedResponseDoc(response.getResponseType(), response.getText(), attachments);
+    }
+
+    public static PreSerializedResponseDoc of(final SlackResponseType responseType, final String text) {
+        return new PreSerializedResponseDoc(responseType, text, null);
+    }
+
+    @Override
+    public SlackResponseType getResponseType() {
+        return responseType;
+    }
+
+    @Override
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public List<SlackAttachment> getAttachments() {
+        return attachments;
+    }
+
+    /**
+     * Renders the response the first time it is written, since the
+     * constants are created before the app's writer exists.
+     *
+     * @return the rendered JSON; callers must not modify it
+     */
+    public byte[] serialized(final SlackResponseWriter writer) {
+        final Rendering current = rendering;
+
+        if (current != null && current.writer == writer) {
+            return current.json;
+        }
+
+        final byte[] json = writer.render(this);
+        rendering = new Rendering(writer, json);
+
+        return json;
+    }
+
+    private static final class Rendering {
+        private final SlackResponseWriter writer;
+        private final byte[] json;
+
+        private Rendering(final SlackResponseWriter writer, final byte[] json) {
+            this.writer = writer;
+            this.json = json;
+        }
+    }
+}
@@ -4,20 +4,59 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public final class SlackAttachment {
+    @JsonInclude(Include.NON_NULL)
+    private final String pretext;
+
     private final String text;
     private final List<String> mrkdwn_in;
 
     public SlackAttachment(final String text) {
+        this.pretext = null;
         this.text = text;
         this.mrkdwn_in = Arrays.asList("text");
     }
 
     public SlackAttachment(final String text, final boolean allowMarkdown) {
+        this.pretext = null;
         this.text = text;
         this.mrkdwn_in = allowMarkdown ? Arrays.asList("text") : new ArrayList<>();
     }
 
+    @JsonCreator
+    private SlackAttachment(
+            @JsonProperty("pretext") final String pretext,
+            @JsonProperty("text") final String text,
+            @JsonProperty("mrkdwn_in") final List<String> mrkdwn_in
+    ) {
+        this.pretext = pretext;
+        this.text = text;
+        this.mrkdwn_in = mrkdwn_in == null ? new ArrayList<>() : mrkdwn_in;
+    }
+
+    /**
+     * @return a copy of this attachment with the given text shown above
+     * it, formatted as markdown
+     */
+    public SlackAttachment withPretext(final String pretext) {
+        final List<String> mrkdwn_in = new ArrayList<>(this.mrkdwn_in);
+
+        if (!mrkdwn_in.contains("pretext")) {
+            mrkdwn_in.add("pretext");
+        }
+
+        return new SlackAttachment(pretext, text, mrkdwn_in);
+    }
+
+    public String getPretext() {
+        return pretext;
+    }
+
     public String getText() {
         return text;
     }
@@ -0,0 +1,24 @@
+package org.bj.examples.trivia.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * A response to a slash command. Responses built for one request are
+ * {@link SlackResponseDoc}s; responses that never change are shared,
+ * read-only {@link PreSerializedResponseDoc}s.
+ */
+@JsonInclude(Include.NON_EMPTY)
+@JsonPropertyOrder({"response_type", "text", "attachments"})
+public interface SlackResponse {
+    @JsonProperty(value = "response_type")
+    SlackResponseType getResponseType();
+
+    String getText();
+
+    List<SlackAttachment> getAttachments();
+}
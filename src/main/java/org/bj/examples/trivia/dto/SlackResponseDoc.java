@@ -7,7 +7,7 @@ import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @JsonInclude(Include.NON_EMPTY)
-public class SlackResponseDoc {
+public class SlackResponseDoc implements SlackResponse {
     @JsonProperty(value = "response_type")
     private SlackResponseType responseType;
 
@@ -21,6 +21,7 @@ public class SlackResponseDoc {
         return responseDoc;
     }
 
+    @Override
     public SlackResponseType getResponseType() {
         return responseType;
     }
@@ -29,6 +30,7 @@ public class SlackResponseDoc {
         this.responseType = responseType;
     }
 
+    @Override
     public String getText() {
         return text;
     }
@@ -37,6 +39,7 @@ public class SlackResponseDoc {
         this.text = text;
     }
 
+    @Override
     public List<SlackAttachment> getAttachments() {
         return attachments;
     }
@@ -0,0 +1,83 @@
+package org.bj.examples.trivia.service.auto;
+
+import java.time.LocalDateTime;
+
+import org.bj.examples.trivia.dto.GameState;
+import org.bj.examples.trivia.dto.OpenRound;
+import org.bj.examples.trivia.exception.WorkflowException;
+
+/**
+ * Hosts games itself, asking questions from the question bank rather than
+ * waiting for a player to ask them, and recognizing the right answer when
+ * someone gives it
+ */
+public interface AutoHostService {
+    /**
+     * The host of a game the app is hosting itself, which Slack shows as
+     * Slackbot
+     */
+    String AUTO_HOST_USER_ID = "USLACKBOT";
+
+    /**
+     * Starts a game in the channel and asks its first question
+     *
+     * @param topic matched against the bank's topics ignoring case, or null
+     *              for questions on any topic
+     * @return the round of the first question
+     * @throws WorkflowException if there is no question bank, the bank has
+     * no questions on the topic, or a game has already been started
+     */
+    OpenRound startGame(final String channelId, final String topic, final String responseUrl) throws WorkflowException;
+
+    /**
+     * Grades an answer to a question asked here. The first right answer, by
+     * when it reached the app, wins the round: once the round is settled the
+     * listener given with that answer is told, on whichever thread settled it.
+     *
+     * @param requestTime when the answer reached the app
+     * @return whether the answer is right, whether or not it was first
+     */
+    boolean submitAnswer(
+            final String channelId,
+            final String userId,
+            final String answer,
+            final LocalDateTime requestTime,
+            final String responseUrl,
+            final RoundWonListener listener
+    );
+
+    /**
+     * Asks the next question of the game the app is hosting in the channel,
+     * or stops the game once there are none left
+     *
+     * @param leadIn posted ahead of the question, or null
+     * @return the round of the question, or null if none was asked
+     */
+    OpenRound askNextQuestion(final String channelId, final String responseUrl, final String leadIn);
+
+    /**
+     * Closes a round no one answered correctly in time, gives its answer and
+     * asks the next question. The game is stopped once several questions in
+     * a row have gone unanswered. A round with a right answer waiting to be
+     * settled is won instead.
+     *
+     * @param gameState the state of the game when time ran out
+     * @return the round of the next question, or null if none was asked here
+     */
+    OpenRound onTimeUp(final OpenRound round, final GameState gameState);
+
+    /**
+     * @return whether the app is hosting the game in the channel
+     */
+    boolean isHosting(final String channelId);
+
+    void onGameStopped(final String channelId);
+
+    @FunctionalInterface
+    interface RoundWonListener {
+        /**
+         * @param answer the answer to the question, as the bank has it
+         */
+        void onRoundWon(final String channelId, final String userId, final String answer, final String responseUrl);
+    }
+}
@@ -0,0 +1,427 @@
+package org.bj.examples.trivia.service.auto.impl;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bj.examples.trivia.data.bank.QuestionBank;
+import org.bj.examples.trivia.dto.GameState;
+import org.bj.examples.trivia.dto.OpenRound;
+import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponseType;
+import org.bj.examples.trivia.exception.WorkflowException;
+import org.bj.examples.trivia.service.auto.AutoHostService;
+import org.bj.examples.trivia.service.slack.DelayedSlackService;
+import org.bj.examples.trivia.service.slack.impl.ChannelMailboxes;
+import org.bj.examples.trivia.service.workflow.WorkflowService;
+import org.bj.examples.trivia.util.AnswerGrader;
+import org.bj.examples.trivia.util.TimingWheel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Hosts games from the question bank. The game itself is kept in the store
+ * like any other, with {@link #AUTO_HOST_USER_ID} as its host, so scores,
+ * answers and the round timer all work as they do for players.
+ * <p>
+ * What the store does not know is kept here, in memory: which questions each
+ * channel has had and the answer to the open one. After a restart a game
+ * carries on with a fresh deck, and the question that was open when the app
+ * went down can no longer be answered; its timer closes it as usual.
+ * <p>
+ * Answers to a channel's question are graded one at a time, in the order
+ * they get through the channel's {@link ChannelMailboxes mailbox}, which
+ * is not always the order they reached the app. So the first right answer
+ * opens a short window for any right answer that reached the app earlier
+ * but was graded later; see {@link RoundRace}. The round is settled when
+ * the window closes, through the same mailbox, so that settling never runs
+ * alongside another command for the channel.
+ */
+@Service
+public class AutoHostServiceImpl implements AutoHostService {
+    private static final Log log = LogFactory.getLog(AutoHostServiceImpl.class);
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final int MAX_LISTED_TOPICS = 20;
+    private static final long TICK_MILLIS = 10;
+    private static final int TICKS_PER_WHEEL = 256;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final WorkflowService workflowService;
+    private final DelayedSlackService delayedSlackService;
+    private final ChannelMailboxes mailboxes;
+    private final QuestionBank questionBank;
+    private final int timeoutSeconds;
+    private final int maxIdleRounds;
+    private final long settleMillis;
+    private final TimingWheel wheel;
+    private final Random random = new Random();
+
+    private final ConcurrentMap<String, AutoGame> gamesByChannel = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AutoHostServiceImpl(
+            final WorkflowService workflowService,
+            final DelayedSlackService delayedSlackService,
+            final ChannelMailboxes mailboxes,
+            @Value("${trivia.question-bank.path:}") final String questionBankPath,
+            @Value("${trivia.auto.timeout-seconds:60}") final int timeoutSeconds,
+            @Value("${trivia.auto.max-idle-rounds:3}") final int maxIdleRounds,
+            @Value("${trivia.auto.settle-ms:250}") final long settleMillis
+    ) throws IOException {
+        this.workflowService = workflowService;
+        this.delayedSlackService = delayedSlackService;
+        this.mailboxes = mailboxes;
+        this.timeoutSeconds = timeoutSeconds;
+        this.maxIdleRounds = maxIdleRounds;
+        this.settleMillis = settleMillis;
+        this.wheel = new TimingWheel(
+                new ThreadFactoryBuilder().setNameFormat("auto-host-%d").setDaemon(true).build(),
+                TICK_MILLIS,
+                TICKS_PER_WHEEL
+        );
+
+        if (questionBankPath.isEmpty()) {
+            this.questionBank = null;
+            log.info("No question bank is set up, so games can only be hosted by players.");
+        } else {
+            this.questionBank = QuestionBank.open(Paths.get(questionBankPath));
+            log.info("Opened a question bank of " + questionBank.size() + " question(s) on "
+                    + questionBank.getTopicNames().size() + " topic(s).");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+    }
+
+    @Override
+    public OpenRound startGame(final String channelId, final String topic, final String responseUrl) throws WorkflowException {
+        if (questionBank == null) {
+            throw new WorkflowException("No question bank has been set up, so someone will have to ask the questions.");
+        }
+
+        final QuestionBank.Topic bankTopic = questionBank.getTopic(topic);
+
+        if (bankTopic == null || bankTopic.size() == 0) {
+            throw new WorkflowException(generateUnknownTopicText(topic));
+        }
+
+        workflowService.onGameStarted(channelId, AUTO_HOST_USER_ID, bankTopic.getName());
+        workflowService.onRoundTimeoutChanged(channelId, AUTO_HOST_USER_ID, timeoutSeconds);
+        gamesByChannel.put(channelId, new AutoGame(bankTopic));
+
+        return askNextQuestion(channelId, responseUrl, null);
+    }
+
+    @Override
+    public boolean submitAnswer(
+            final String channelId,
+            final String userId,
+            final String answer,
+            final LocalDateTime requestTime,
+            final String responseUrl,
+            final RoundWonListener listener
+    ) {
+        final AutoGame game = gamesByChannel.get(channelId);
+
+        if (game == null) {
+            return false;
+        }
+
+        game.responseUrl = responseUrl;
+
+        final RoundRace race = game.race;
+
+        if (race == null || !race.getGrader().isCorrect(answer)) {
+            return false;
+        }
+
+        if (race.enter(new RoundRace.Entry(userId, requestTime, responseUrl, listener))) {
+            settleLater(channelId, race);
+        }
+
+        return true;
+    }
+
+    @Override
+    public OpenRound askNextQuestion(final String channelId, final String responseUrl, final String leadIn) {
+        final AutoGame game = getGame(channelId);
+
+        if (game == null) {
+            return null;
+        }
+
+        final int index = game.deal(random);
+
+        if (index < 0) {
+            stopGame(channelId, responseUrl, prefix(leadIn) + "That was my last question"
+                    + (game.topic.getName() == null ? "" : " about " + game.topic.getName())
+                    + ", so the game is over. Thanks for playing!");
+            return null;
+        }
+
+        final String question = questionBank.getQuestion(index);
+        final OpenRound round;
+
+        try {
+            round = workflowService.onQuestionSubmitted(channelId, AUTO_HOST_USER_ID, question, responseUrl, LocalDateTime.now(UTC));
+        } catch (WorkflowException e) {
+            //The game was stopped in the meantime
+            return null;
+        }
+
+        game.race = new RoundRace(new AnswerGrader(questionBank.getAnswer(index)));
+        send(channelId, responseUrl, prefix(leadIn) + "*Question:*\n\n" + question);
+
+        return round;
+    }
+
+    @Override
+    public OpenRound onTimeUp(final OpenRound round, final GameState gameState) {
+        final String channelId = round.getChannelId();
+        final RoundRace race = getRace(channelId);
+
+        if (race != null) {
+            final RoundRace.Standing standing = race.close();
+
+            //A right answer came in just before time ran out, or the round was already won
+            if (standing == null || standing.getLeader() != null) {
+                if (standing != null) {
+                    onRoundWon(channelId, race, standing.getLeader());
+                }
+
+                return null;
+            }
+        }
+
+        try {
+            workflowService.onTurnChanged(channelId, AUTO_HOST_USER_ID, AUTO_HOST_USER_ID);
+        } catch (WorkflowException e) {
+            //The game moved on, or was stopped, between reading and writing it
+            return null;
+        }
+
+        final AutoGame game = getGame(channelId);
+
+        if (game == null) {
+            return null;
+        }
+
+        final String responseUrl = game.responseUrl == null ? round.getResponseUrl() : game.responseUrl;
+        final String answer = game.takeAnswer();
+        final String leadIn = answer == null ? "Time's up!" : "Time's up! The answer was \"" + answer + "\".";
+        final boolean answered = gameState.getAnswers() != null && !gameState.getAnswers().isEmpty();
+
+        if (game.onRoundTimedOut(answered) >= maxIdleRounds) {
+            stopGame(channelId, responseUrl, leadIn + "\n\nNo one has answered the last " + maxIdleRounds
+                    + " questions, so I've stopped the game.");
+            return null;
+        }
+
+        return askNextQuestion(channelId, responseUrl, leadIn);
+    }
+
+    @Override
+    public boolean isHosting(final String channelId) {
+        return getGame(channelId) != null;
+    }
+
+    @Override
+    public void onGameStopped(final String channelId) {
+        gamesByChannel.remove(channelId);
+    }
+
+    private RoundRace getRace(final String channelId) {
+        final AutoGame game = gamesByChannel.get(channelId);
+        return game == null ? null : game.race;
+    }
+
+    /**
+     * Closes the race once the window for earlier answers has passed. Closing
+     * writes to the store, so it goes through the channel's mailbox like any
+     * other command, and only the wheel's thread waits out the window.
+     */
+    private void settleLater(final String channelId, final RoundRace race) {
+        if (settleMillis <= 0) {
+            //Already in the channel's mailbox, with the answer that won
+            settle(channelId, race);
+            return;
+        }
+
+        scheduleSettle(channelId, race, settleMillis);
+    }
+
+    private void scheduleSettle(final String channelId, final RoundRace race, final long delayMillis) {
+        wheel.schedule(() -> {
+            try {
+                mailboxes.submit(channelId, () -> {
+                    settle(channelId, race);
+                    return null;
+                });
+            } catch (RejectedExecutionException e) {
+                //The race stays open meanwhile, so the round's time running out still settles it
+                log.warn("Command pool is full, settling the round in channel " + channelId + " a little later.");
+                scheduleSettle(channelId, race, RETRY_DELAY_MILLIS);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void settle(final String channelId, final RoundRace race) {
+        final RoundRace.Standing standing = race.close();
+
+        if (standing != null && standing.getLeader() != null) {
+            onRoundWon(channelId, race, standing.getLeader());
+        }
+    }
+
+    private void onRoundWon(final String channelId, final RoundRace race, final RoundRace.Entry winner) {
+        final AutoGame game = gamesByChannel.get(channelId);
+
+        if (game != null) {
+            game.onRoundWon(race);
+        }
+
+        try {
+            winner.getListener().onRoundWon(channelId, winner.getUserId(), race.getGrader().getAnswer(), winner.getResponseUrl());
+        } catch (RuntimeException e) {
+            log.error("Failed to end the round won in channel " + channelId + ".", e);
+        }
+    }
+
+    /**
+     * @return the game hosted here, picked up again from the store if it was
+     * started before a restart or on another instance of the app, or null
+     */
+    private AutoGame getGame(final String channelId) {
+        final AutoGame game = gamesByChannel.get(channelId);
+
+        if (game != null || questionBank == null) {
+            return game;
+        }
+
+        final GameState gameState = workflowService.getCurrentGameState(channelId);
+
+        if (gameState == null || !AUTO_HOST_USER_ID.equals(gameState.getControllingUserId())) {
+            return null;
+        }
+
+        final QuestionBank.Topic topic = questionBank.getTopic(gameState.getTopic());
+
+        if (topic == null) {
+            return null;
+        }
+
+        final AutoGame restored = new AutoGame(topic);
+        final AutoGame existing = gamesByChannel.putIfAbsent(channelId, restored);
+
+        return existing == null ? restored : existing;
+    }
+
+    private void stopGame(final String channelId, final String responseUrl, final String text) {
+        try {
+            workflowService.onGameStopped(channelId, AUTO_HOST_USER_ID);
+        } catch (WorkflowException e) {
+            //Already stopped
+        }
+
+        gamesByChannel.remove(channelId);
+        send(channelId, responseUrl, text);
+    }
+
+    private void send(final String channelId, final String responseUrl, final String text) {
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+        responseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
+        responseDoc.setText(text);
+        delayedSlackService.sendResponse(channelId, responseUrl, responseDoc);
+    }
+
+    private String generateUnknownTopicText(final String topic) {
+        final List<String> topicNames = questionBank.getTopicNames();
+
+        if (topicNames.isEmpty()) {
+            return "The question bank is empty.";
+        }
+
+        final StringBuilder text = new StringBuilder("I have no questions about \"").append(topic).append("\". Try one of: ");
+        final int listed = Math.min(topicNames.size(), MAX_LISTED_TOPICS);
+
+        for (int i = 0; i < listed; i++) {
+            text.append(i == 0 ? "" : ", ").append(topicNames.get(i));
+        }
+
+        return text.append(listed < topicNames.size() ? "..." : ".").toString();
+    }
+
+    private static String prefix(final String leadIn) {
+        return leadIn == null ? "" : leadIn + "\n\n";
+    }
+
+    /**
+     * A game hosted here. The deck and the count of idle rounds are guarded
+     * by the game's lock; the open round's race and the latest response URL
+     * are read on every answer, so they are only volatile.
+     */
+    private static final class AutoGame {
+        private final QuestionBank.Topic topic;
+        private final QuestionDeck deck;
+
+        private volatile RoundRace race;
+
+        /**
+         * Each slash command comes with a response URL that is good for half
+         * an hour, so the latest one is used for as long as players keep
+         * answering
+         */
+        private volatile String responseUrl;
+
+        private int idleRounds;
+
+        private AutoGame(final QuestionBank.Topic topic) {
+            this.topic = topic;
+            this.deck = new QuestionDeck(topic.getFirst(), topic.size());
+        }
+
+        private synchronized int deal(final Random random) {
+            return deck.deal(random);
+        }
+
+        private synchronized void onRoundWon(final RoundRace won) {
+            idleRounds = 0;
+
+            if (race == won) {
+                race = null;
+            }
+        }
+
+        private synchronized String takeAnswer() {
+            final RoundRace taken = race;
+            race = null;
+
+            return taken == null ? null : taken.getGrader().getAnswer();
+        }
+
+        /**
+         * @return how many rounds in a row have gone without an answer
+         */
+        private synchronized int onRoundTimedOut(final boolean answered) {
+            idleRounds = answered ? 0 : idleRounds + 1;
+            return idleRounds;
+        }
+    }
+}
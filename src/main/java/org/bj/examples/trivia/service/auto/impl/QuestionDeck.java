@@ -0,0 +1,61 @@
+package org.bj.examples.trivia.service.auto.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deals the questions on a topic in random order without repeats, one at a
+ * time, in constant time however many questions there are. It is a
+ * Fisher-Yates shuffle done lazily: only the positions that have been
+ * swapped are remembered, so a deck costs memory for the questions dealt
+ * from it rather than for every question on the topic.
+ */
+class QuestionDeck {
+    private final int first;
+
+    /**
+     * Position to question, for the positions a deal has swapped a question
+     * into. Every other position still holds its own question.
+     */
+    private final Map<Integer, Integer> swapped = new HashMap<>();
+
+    private int remaining;
+
+    /**
+     * @param first the number of the topic's first question
+     * @param size  how many questions the topic has
+     */
+    QuestionDeck(final int first, final int size) {
+        this.first = first;
+        this.remaining = size;
+    }
+
+    /**
+     * @return the number of a question not dealt before, or -1 once every
+     * question has been
+     */
+    int deal(final Random random) {
+        if (remaining == 0) {
+            return -1;
+        }
+
+        final int position = random.nextInt(remaining);
+        final int last = remaining - 1;
+        final int dealt = swapped.getOrDefault(position, position);
+
+        //The last undealt question takes the place of the one dealt, and the deck shrinks past it
+        final Integer lastQuestion = swapped.remove(last);
+
+        if (position != last) {
+            swapped.put(position, lastQuestion == null ? last : lastQuestion);
+        }
+
+        remaining--;
+        return first + dealt;
+    }
+
+    int remaining() {
+        return remaining;
+    }
+}
@@ -0,0 +1,122 @@
+package org.bj.examples.trivia.service.auto.impl;
+
+import java.time.LocalDateTime;
+
+import org.bj.examples.trivia.service.auto.AutoHostService;
+import org.bj.examples.trivia.util.AnswerGrader;
+
+/**
+ * Decides who answered a question right first, going by when each answer
+ * reached the app rather than by when it was graded. Answers that arrive
+ * together can be graded in any order, so the race stays open for a moment
+ * after the first right answer and is then closed, by whichever comes first
+ * of that moment passing and the question's time running out.
+ * <p>
+ * Entering answers, settling and the time running out all happen in the
+ * channel's mailbox, which runs them one at a time, so the race is plain
+ * fields with no lock or compare-and-set. Being serialized is also why
+ * the race needs its window at all: answers reach it in mailbox order, not
+ * in the order they reached the app.
+ */
+final class RoundRace {
+    private final AnswerGrader grader;
+
+    private Entry leader;
+    private boolean closed;
+
+    RoundRace(final AnswerGrader grader) {
+        this.grader = grader;
+    }
+
+    AnswerGrader getGrader() {
+        return grader;
+    }
+
+    /**
+     * Enters a right answer
+     *
+     * @return whether it is the first right answer, in which case the caller
+     * sees to closing the race
+     */
+    boolean enter(final Entry entry) {
+        if (closed || (leader != null && !entry.isBefore(leader))) {
+            return false;
+        }
+
+        final boolean first = leader == null;
+        leader = entry;
+
+        return first;
+    }
+
+    /**
+     * @return the final standing, or null if the race had already been
+     * closed, in which case whoever closed it deals with the outcome
+     */
+    Standing close() {
+        if (closed) {
+            return null;
+        }
+
+        closed = true;
+
+        return new Standing(leader);
+    }
+
+    static final class Standing {
+        private final Entry leader;
+
+        private Standing(final Entry leader) {
+            this.leader = leader;
+        }
+
+        /**
+         * @return the earliest right answer, or null if there was none
+         */
+        Entry getLeader() {
+            return leader;
+        }
+    }
+
+    static final class Entry {
+        private final String userId;
+        private final LocalDateTime requestTime;
+        private final String responseUrl;
+        private final AutoHostService.RoundWonListener listener;
+
+        Entry(
+                final String userId,
+                final LocalDateTime requestTime,
+                final String responseUrl,
+                final AutoHostService.RoundWonListener listener
+        ) {
+            this.userId = userId;
+            this.requestTime = requestTime;
+            this.responseUrl = responseUrl;
+            this.listener = listener;
+        }
+
+        String getUserId() {
+            return userId;
+        }
+
+        LocalDateTime getRequestTime() {
+            return requestTime;
+        }
+
+        String getResponseUrl() {
+            return responseUrl;
+        }
+
+        AutoHostService.RoundWonListener getListener() {
+            return listener;
+        }
+
+        /**
+         * An answer without a time is taken to have arrived last
+         */
+        private boolean isBefore(final Entry other) {
+            return requestTime != null && (other.requestTime == null || requestTime.isBefore(other.requestTime));
+        }
+    }
+}
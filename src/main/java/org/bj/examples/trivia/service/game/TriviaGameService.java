@@ -1,31 +1,47 @@
 package org.bj.examples.trivia.service.game;
 
 import org.bj.examples.trivia.dto.SlackRequestDoc;
-import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponse;
 
 public interface TriviaGameService {
-    SlackResponseDoc start(final SlackRequestDoc requestDoc, final String topic);
+    SlackResponse start(final SlackRequestDoc requestDoc, final String topic);
+
+    /**
+     * Starts a game the app hosts itself, asking questions from the
+     * question bank
+     *
+     * @param topic the topic of the questions, or null for any
+     */
+    SlackResponse startAuto(final SlackRequestDoc requestDoc, final String topic);
 
     /**
      * This method is used when a person is supposed to be
      * selecting a quote but they don't want to
      */
-    SlackResponseDoc stop(final SlackRequestDoc requestDoc);
+    SlackResponse stop(final SlackRequestDoc requestDoc);
 
     /**
      * This method allows users to participate in playing the
      * game. Note that a game does not have to be started to join
      */
-    SlackResponseDoc join(final SlackRequestDoc requestDoc);
+    SlackResponse join(final SlackRequestDoc requestDoc);
 
-    SlackResponseDoc pass(final SlackRequestDoc requestDoc, final String target);
+    SlackResponse pass(final SlackRequestDoc requestDoc, final String target);
 
-    SlackResponseDoc submitQuestion(final SlackRequestDoc requestDoc, final String question);
-    SlackResponseDoc submitAnswer(final SlackRequestDoc requestDoc, final String answer);
-    SlackResponseDoc markAnswerCorrect(final SlackRequestDoc requestDoc, final String target, final String answer);
+    SlackResponse submitQuestion(final SlackRequestDoc requestDoc, final String question);
+    SlackResponse submitAnswer(final SlackRequestDoc requestDoc, final String answer);
+    SlackResponse markAnswerCorrect(final SlackRequestDoc requestDoc, final String target, final String answer);
+
+    /**
+     * Sets how long the channel's questions stay open before the round
+     * closes by itself
+     *
+     * @param timeout a number of seconds, "off" or "default"
+     */
+    SlackResponse setRoundTimeout(final SlackRequestDoc requestDoc, final String timeout);
 
-    SlackResponseDoc getStatus(final SlackRequestDoc requestDoc);
+    SlackResponse getStatus(final SlackRequestDoc requestDoc);
 
-    SlackResponseDoc getScores(final SlackRequestDoc requestDoc);
-    SlackResponseDoc resetScores(final SlackRequestDoc requestDoc);
+    SlackResponse getScores(final SlackRequestDoc requestDoc);
+    SlackResponse resetScores(final SlackRequestDoc requestDoc);
 }
@@ -0,0 +1,159 @@
+package org.bj.examples.trivia.service.game.impl;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.bj.examples.trivia.dto.GameState;
+
+/**
+ * Renders the text of the <code>status</code> command for a game that has
+ * been started. The whole text is written into one builder sized up front,
+ * with the answer columns padded by hand, since in a busy channel this
+ * runs over hundreds of answers every time someone checks the status.
+ * <p>
+ * Answers are stored in the order they were submitted, which is nearly
+ * always the order of their timestamps, so they are only copied and sorted
+ * when that turns out not to be the case. Formatted timestamps are kept in
+ * a small cache, as the same answers are rendered again on every status
+ * check.
+ */
+class GameStatusRenderer {
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm:ss a").withZone(ZoneId.of("US/Central"));
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    private static final String WAITING = " Waiting...";
+    private static final String CODE_BLOCK = "```";
+    private static final String COLUMN_GAP = "   ";
+    private static final int TIMESTAMP_WIDTH = 22;
+
+    /**
+     * A power of two, so that a timestamp's slot is a mask of its second
+     */
+    private static final int TIMESTAMP_CACHE_SIZE = 1024;
+
+    private static final Comparator<GameState.Answer> BY_CREATED_DATE = Comparator.comparing(GameState.Answer::getCreatedDate);
+
+    /**
+     * Direct-mapped by second. A slot holds a single immutable entry, so a
+     * racing thread sees either the old entry or the new one, never a mix.
+     */
+    private final FormattedTimestamp[] timestamps = new FormattedTimestamp[TIMESTAMP_CACHE_SIZE];
+
+    /**
+     * @param userId the user asking, who sees "Yours" if it is their turn
+     */
+    String render(final GameState gameState, final String userId) {
+        final String topic = gameState.getTopic() == null ? "None" : gameState.getTopic();
+        final String question = gameState.getQuestion();
+        final List<GameState.Answer> answers = question == null || gameState.getAnswers() == null
+                ? Collections.emptyList()
+                : sortedByCreatedDate(gameState.getAnswers());
+
+        int maxUsernameLength = 0;
+        int textLength = 0;
+
+        for (final GameState.Answer answer : answers) {
+            maxUsernameLength = Math.max(maxUsernameLength, answer.getUsername().length());
+            textLength += answer.getText() == null ? 4 : answer.getText().length();
+        }
+
+        final int usernameWidth = maxUsernameLength + 1;
+        final int lineLength = TIMESTAMP_WIDTH + COLUMN_GAP.length() + 1 + usernameWidth + COLUMN_GAP.length() + 1;
+
+        final StringBuilder statusText = new StringBuilder(
+                64 + topic.length() + gameState.getControllingUserId().length() + (question == null ? 0 : question.length())
+                        + answers.size() * lineLength + textLength
+        );
+
+        statusText.append("*Topic:* ").append(topic).append("\n*Turn:* ");
+
+        if (gameState.getControllingUserId().equals(userId)) {
+            statusText.append("Yours");
+        } else {
+            statusText.append("<@").append(gameState.getControllingUserId()).append('>');
+        }
+
+        statusText.append("\n*Question:*");
+
+        if (question == null) {
+            return statusText.append(WAITING).toString();
+        }
+
+        statusText.append("\n\n").append(question).append("\n\n*Answers:*");
+
+        if (answers.isEmpty()) {
+            return statusText.append(WAITING).toString();
+        }
+
+        statusText.append("\n\n").append(CODE_BLOCK);
+
+        for (int i = 0; i < answers.size(); i++) {
+            final GameState.Answer answer = answers.get(i);
+
+            if (i > 0) {
+                statusText.append('\n');
+            }
+
+            final String timestamp = formatTimestamp(answer.getCreatedDate());
+            pad(statusText, TIMESTAMP_WIDTH - timestamp.length()).append(timestamp);
+
+            statusText.append(COLUMN_GAP).append('@').append(answer.getUsername());
+            pad(statusText, usernameWidth - answer.getUsername().length());
+
+            statusText.append(COLUMN_GAP).append(answer.getText());
+        }
+
+        return statusText.append(CODE_BLOCK).toString();
+    }
+
+    private String formatTimestamp(final LocalDateTime createdDate) {
+        final long second = createdDate.toEpochSecond(ZoneOffset.UTC);
+        final int slot = (int) second & (TIMESTAMP_CACHE_SIZE - 1);
+        final FormattedTimestamp cached = timestamps[slot];
+
+        if (cached != null && cached.second == second) {
+            return cached.text;
+        }
+
+        final String text = DATE_FORMATTER.format(createdDate.atZone(UTC));
+        timestamps[slot] = new FormattedTimestamp(second, text);
+
+        return text;
+    }
+
+    private static List<GameState.Answer> sortedByCreatedDate(final List<GameState.Answer> answers) {
+        for (int i = 1; i < answers.size(); i++) {
+            if (BY_CREATED_DATE.compare(answers.get(i - 1), answers.get(i)) > 0) {
+                final List<GameState.Answer> sorted = new ArrayList<>(answers);
+                sorted.sort(BY_CREATED_DATE);
+                return sorted;
+            }
+        }
+
+        return answers;
+    }
+
+    private static StringBuilder pad(final StringBuilder builder, final int spaces) {
+        for (int i = 0; i < spaces; i++) {
+            builder.append(' ');
+        }
+
+        return builder;
+    }
+
+    private static final class FormattedTimestamp {
+        private final long second;
+        private final String text;
+
+        private FormattedTimestamp(final long second, final String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.bj.examples.trivia.service.game.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Who is playing in each channel, as far as the score store has told us,
+ * including who is known not to be, so that checking a player who answers
+ * or is passed the turn does not need a query every time. Players only
+ * come and go through {@link TriviaGameServiceImpl}, which updates this as
+ * it adds them and forgets a channel when its scores are reset. The expiry
+ * bounds how long a player added by another instance of the app can go
+ * unseen.
+ */
+class PlayerCache {
+    private final Cache<String, ConcurrentMap<String, Boolean>> playersByChannel;
+
+    PlayerCache(final long maximumChannels, final long expireAfterMillis) {
+        this.playersByChannel = CacheBuilder.newBuilder()
+                .maximumSize(maximumChannels)
+                .expireAfterWrite(expireAfterMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * @return whether the user is playing in the channel, or null if that
+     * is not known
+     */
+    Boolean isPlaying(final String channelId, final String userId) {
+        if (channelId == null || userId == null) {
+            return null;
+        }
+
+        final ConcurrentMap<String, Boolean> players = playersByChannel.getIfPresent(channelId);
+        return players == null ? null : players.get(userId);
+    }
+
+    void put(final String channelId, final String userId, final boolean playing) {
+        if (channelId == null || userId == null) {
+            return;
+        }
+
+        playersByChannel.asMap().computeIfAbsent(channelId, key -> new ConcurrentHashMap<>()).put(userId, playing);
+    }
+
+    void forgetChannel(final String channelId) {
+        if (channelId != null) {
+            playersByChannel.invalidate(channelId);
+        }
+    }
+}
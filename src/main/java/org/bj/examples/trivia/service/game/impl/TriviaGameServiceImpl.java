@@ -1,66 +1,122 @@
 package org.bj.examples.trivia.service.game.impl;
 
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
-import org.apache.commons.collections.CollectionUtils;
+import org.bj.examples.trivia.data.score.ScoreInfo;
 import org.bj.examples.trivia.dto.GameState;
+import org.bj.examples.trivia.dto.OpenRound;
+import org.bj.examples.trivia.dto.PreSerializedResponseDoc;
 import org.bj.examples.trivia.dto.SlackAttachment;
 import org.bj.examples.trivia.dto.SlackRequestDoc;
+import org.bj.examples.trivia.dto.SlackResponse;
 import org.bj.examples.trivia.dto.SlackResponseDoc;
 import org.bj.examples.trivia.dto.SlackResponseType;
 import org.bj.examples.trivia.dto.SlackUser;
 import org.bj.examples.trivia.exception.GameNotStartedException;
 import org.bj.examples.trivia.exception.ScoreException;
 import org.bj.examples.trivia.exception.WorkflowException;
+import org.bj.examples.trivia.service.auto.AutoHostService;
 import org.bj.examples.trivia.service.game.TriviaGameService;
+import org.bj.examples.trivia.service.round.RoundService;
+import org.bj.examples.trivia.service.round.RoundTimerService;
 import org.bj.examples.trivia.service.score.ScoreService;
 import org.bj.examples.trivia.service.slack.DelayedSlackService;
+import org.bj.examples.trivia.service.slack.JoinAnnouncementService;
 import org.bj.examples.trivia.service.workflow.WorkflowService;
+import org.bj.examples.trivia.util.CommandResponseCache;
 import org.bj.examples.trivia.util.SlackUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 @Service
 public class TriviaGameServiceImpl implements TriviaGameService {
     private static final String GAME_NOT_STARTED_FORMAT = "A game has not yet been started. If you'd like to start a game, try `%s start`";
 
-    private static final String BASE_STATUS_FORMAT = "*Topic:* %s\n*Turn:* %s\n*Question:*%s";
-    private static final String ANSWERS_FORMAT = "\n\n*Answers:*%s";
-    private static final String SINGLE_ANSWER_FORMAT = "%22s   %s   %s";
-
     private static final String NO_CORRECT_ANSWER_TARGET = "none";
     private static final String SCORES_FORMAT = "```Scores:\n\n%s```";
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm:ss a").withZone(ZoneId.of("US/Central"));
+    private static final String TIMER_OFF = "off";
+    private static final String TIMER_DEFAULT = "default";
+    private static final int MIN_ROUND_TIMEOUT_SECONDS = 5;
+    private static final int MAX_ROUND_TIMEOUT_SECONDS = 24 * 60 * 60;
+
+    private static final SlackResponse JOINING_GAME = PreSerializedResponseDoc.of(SlackResponseType.EPHEMERAL, "Joining game.");
+    private static final SlackResponse ALREADY_JOINED = PreSerializedResponseDoc.of(SlackResponseType.EPHEMERAL, "You're already in the game.");
+    private static final SlackResponse QUESTION_POSTED = PreSerializedResponseDoc.of(SlackResponseType.EPHEMERAL, "Question posted.");
+    private static final SlackResponse ANSWER_SUBMITTED = PreSerializedResponseDoc.of(SlackResponseType.EPHEMERAL, "Answer submitted.");
+    private static final SlackResponse SCORE_UPDATED = PreSerializedResponseDoc.of(SlackResponseType.EPHEMERAL, "Score updated.");
 
     private final ScoreService scoreService;
     private final WorkflowService workflowService;
+    private final RoundService roundService;
+    private final RoundTimerService roundTimerService;
+    private final AutoHostService autoHostService;
     private final DelayedSlackService delayedSlackService;
+    private final JoinAnnouncementService joinAnnouncementService;
+
+    private final GameStatusRenderer statusRenderer = new GameStatusRenderer();
+
+    private final CommandResponseCache gameNotStartedResponses = new CommandResponseCache(
+            command -> SlackResponseDoc.failure(String.format(GAME_NOT_STARTED_FORMAT, command))
+    );
+
+    /**
+     * The leaderboard for each channel, with the scores it was rendered
+     * from. Scores only change through this service, which drops a
+     * channel's leaderboard whenever it changes one of its scores, or adds
+     * the winner's point to it when a round ends, so the scores are read
+     * again only after they have changed some other way. The expiry bounds
+     * how long a change made by another instance of the app can go unseen.
+     */
+    private final Cache<String, Leaderboard> leaderboardsByChannel;
+
+    private final PlayerCache players;
 
     @Autowired
     public TriviaGameServiceImpl(
             final ScoreService scoreService,
             final WorkflowService workflowService,
-            final DelayedSlackService delayedSlackService
+            final RoundService roundService,
+            final RoundTimerService roundTimerService,
+            final AutoHostService autoHostService,
+            final DelayedSlackService delayedSlackService,
+            final JoinAnnouncementService joinAnnouncementService,
+            @Value("${trivia.scores.cache.max-size:10000}") final long scoreCacheMaxSize,
+            @Value("${trivia.scores.cache.expire-after-ms:300000}") final long scoreCacheExpireAfterMillis,
+            @Value("${trivia.players.cache.max-size:10000}") final long playerCacheMaxSize,
+            @Value("${trivia.players.cache.expire-after-ms:300000}") final long playerCacheExpireAfterMillis
     ) {
         this.scoreService = scoreService;
         this.workflowService = workflowService;
+        this.roundService = roundService;
+        this.roundTimerService = roundTimerService;
+        this.autoHostService = autoHostService;
         this.delayedSlackService = delayedSlackService;
+        this.joinAnnouncementService = joinAnnouncementService;
+        this.leaderboardsByChannel = CacheBuilder.newBuilder()
+                .maximumSize(scoreCacheMaxSize)
+                .expireAfterWrite(scoreCacheExpireAfterMillis, TimeUnit.MILLISECONDS)
+                .build();
+        this.players = new PlayerCache(playerCacheMaxSize, playerCacheExpireAfterMillis);
     }
 
-    public SlackResponseDoc start(final SlackRequestDoc requestDoc, final String topic) {
+    public SlackResponse start(final SlackRequestDoc requestDoc, final String topic) {
         final String channelId = requestDoc.getChannelId();
         final String userId = requestDoc.getUserId();
 
         try {
             workflowService.onGameStarted(channelId, userId, topic);
         } catch (GameNotStartedException e) {
-            return SlackResponseDoc.failure(String.format(GAME_NOT_STARTED_FORMAT, requestDoc.getCommand()));
+            return gameNotStartedResponses.get(requestDoc.getCommand());
         } catch (WorkflowException e) {
             return SlackResponseDoc.failure(e.getMessage());
         }
@@ -72,48 +128,57 @@ public class TriviaGameServiceImpl implements TriviaGameService {
         return responseDoc;
     }
 
-    public SlackResponseDoc stop(final SlackRequestDoc requestDoc) {
+    public SlackResponse startAuto(final SlackRequestDoc requestDoc, final String topic) {
+        final OpenRound round;
+
         try {
-            workflowService.onGameStopped(requestDoc.getChannelId(), requestDoc.getUserId());
-        } catch (GameNotStartedException e) {
-            return SlackResponseDoc.failure(String.format(GAME_NOT_STARTED_FORMAT, requestDoc.getCommand()));
+            round = autoHostService.startGame(requestDoc.getChannelId(), topic, requestDoc.getResponseUrl());
         } catch (WorkflowException e) {
             return SlackResponseDoc.failure(e.getMessage());
         }
 
+        roundTimerService.onQuestionAsked(round);
+
         final SlackResponseDoc responseDoc = new SlackResponseDoc();
         responseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
-        responseDoc.setText("The game has been stopped but scores have not been cleared. If you'd like to start a new game, try `" + requestDoc.getCommand() + " start`.");
+        responseDoc.setText("OK, I'll ask the questions" + (topic == null ? "" : " about " + topic)
+                + ". The first to answer correctly with `" + requestDoc.getCommand() + " answer` scores the point!");
 
         return responseDoc;
     }
 
-    public SlackResponseDoc join(final SlackRequestDoc requestDoc) {
-        final SlackUser user = new SlackUser(requestDoc.getUserId(), requestDoc.getUsername());
-        final boolean userCreated = scoreService.createUserIfNotExists(requestDoc.getChannelId(), user);
+    public SlackResponse stop(final SlackRequestDoc requestDoc) {
+        try {
+            stopGame(requestDoc.getChannelId(), requestDoc.getUserId());
+        } catch (GameNotStartedException e) {
+            return gameNotStartedResponses.get(requestDoc.getCommand());
+        } catch (WorkflowException e) {
+            return SlackResponseDoc.failure(e.getMessage());
+        }
 
         final SlackResponseDoc responseDoc = new SlackResponseDoc();
-        responseDoc.setResponseType(SlackResponseType.EPHEMERAL);
+        responseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
+        responseDoc.setText("The game has been stopped but scores have not been cleared. If you'd like to start a new game, try `" + requestDoc.getCommand() + " start`.");
+
+        return responseDoc;
+    }
 
-        if (userCreated) {
-            responseDoc.setText("Joining game.");
+    public SlackResponse join(final SlackRequestDoc requestDoc) {
+        final SlackUser user = new SlackUser(requestDoc.getUserId(), requestDoc.getUsername());
 
-            final SlackResponseDoc delayedResponseDoc = new SlackResponseDoc();
-            delayedResponseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
-            delayedResponseDoc.setText("<@" + requestDoc.getUserId() + "> has joined the game!");
-            delayedSlackService.sendResponse(requestDoc.getResponseUrl(), delayedResponseDoc);
-        } else {
-            responseDoc.setText("You're already in the game.");
+        if (!addPlayer(requestDoc.getChannelId(), user)) {
+            return ALREADY_JOINED;
         }
 
-        return responseDoc;
+        joinAnnouncementService.announceJoin(requestDoc.getChannelId(), requestDoc.getResponseUrl(), requestDoc.getUserId());
+        return JOINING_GAME;
     }
 
-    public SlackResponseDoc pass(final SlackRequestDoc requestDoc, final String target) {
+    public SlackResponse pass(final SlackRequestDoc requestDoc, final String target) {
         final String userId = SlackUtils.normalizeId(target);
 
         try {
-            final boolean userExists = scoreService.doesUserExist(requestDoc.getChannelId(), userId);
+            final boolean userExists = isPlaying(requestDoc.getChannelId(), userId);
 
             if (!userExists) {
                 final SlackResponseDoc responseDoc = SlackResponseDoc.failure("User " + target + " does not exist. Please choose a valid user.");
@@ -122,8 +187,9 @@ public class TriviaGameServiceImpl implements TriviaGameService {
             }
 
             workflowService.onTurnChanged(requestDoc.getChannelId(), requestDoc.getUserId(), userId);
+            roundTimerService.onRoundEnded(requestDoc.getChannelId());
         } catch (GameNotStartedException e) {
-            return SlackResponseDoc.failure(String.format(GAME_NOT_STARTED_FORMAT, requestDoc.getCommand()));
+            return gameNotStartedResponses.get(requestDoc.getCommand());
         } catch (WorkflowException e) {
             return SlackResponseDoc.failure(e.getMessage());
         }
@@ -131,7 +197,7 @@ public class TriviaGameServiceImpl implements TriviaGameService {
         final SlackResponseDoc delayedResponseDoc = new SlackResponseDoc();
         delayedResponseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
         delayedResponseDoc.setText("<@" + requestDoc.getUserId() + "> has decided to pass his/her turn to <@" + userId + ">.\n\nOK, <@" + userId + ">, it's your turn to ask a question!");
-        delayedSlackService.sendResponse(requestDoc.getResponseUrl(), delayedResponseDoc);
+        delayedSlackService.sendResponse(requestDoc.getChannelId(), requestDoc.getResponseUrl(), delayedResponseDoc);
 
         final SlackResponseDoc responseDoc = new SlackResponseDoc();
         responseDoc.setResponseType(SlackResponseType.EPHEMERAL);
@@ -139,11 +205,18 @@ public class TriviaGameServiceImpl implements TriviaGameService {
         return responseDoc;
     }
 
-    public SlackResponseDoc submitQuestion(final SlackRequestDoc requestDoc, final String question) {
+    public SlackResponse submitQuestion(final SlackRequestDoc requestDoc, final String question) {
         try {
-            workflowService.onQuestionSubmitted(requestDoc.getChannelId(), requestDoc.getUserId(), question);
+            final OpenRound round = workflowService.onQuestionSubmitted(
+                    requestDoc.getChannelId(),
+                    requestDoc.getUserId(),
+                    question,
+                    requestDoc.getResponseUrl(),
+                    requestDoc.getRequestTime()
+            );
+            roundTimerService.onQuestionAsked(round);
         } catch (GameNotStartedException e) {
-            return SlackResponseDoc.failure(String.format(GAME_NOT_STARTED_FORMAT, requestDoc.getCommand()));
+            return gameNotStartedResponses.get(requestDoc.getCommand());
         } catch (WorkflowException e) {
             return SlackResponseDoc.failure(e.getMessage());
         }
@@ -151,16 +224,12 @@ public class TriviaGameServiceImpl implements TriviaGameService {
         final SlackResponseDoc delayedResponseDoc = new SlackResponseDoc();
         delayedResponseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
         delayedResponseDoc.setText("<@" + requestDoc.getUserId() + "> asked the following question:\n\n" + question);
-        delayedSlackService.sendResponse(requestDoc.getResponseUrl(), delayedResponseDoc);
-
-        final SlackResponseDoc responseDoc = new SlackResponseDoc();
-        responseDoc.setResponseType(SlackResponseType.EPHEMERAL);
-        responseDoc.setText("Question posted.");
+        delayedSlackService.sendResponse(requestDoc.getChannelId(), requestDoc.getResponseUrl(), delayedResponseDoc);
 
-        return responseDoc;
+        return QUESTION_POSTED;
     }
 
-    public SlackResponseDoc submitAnswer(final SlackRequestDoc requestDoc, final String answer) {
+    public SlackResponse submitAnswer(final SlackRequestDoc requestDoc, final String answer) {
         try {
             workflowService.onAnswerSubmitted(
                     requestDoc.getChannelId(),
@@ -170,36 +239,41 @@ public class TriviaGameServiceImpl implements TriviaGameService {
                     requestDoc.getRequestTime()
             );
         } catch (GameNotStartedException e) {
-            return SlackResponseDoc.failure(String.format(GAME_NOT_STARTED_FORMAT, requestDoc.getCommand()));
+            return gameNotStartedResponses.get(requestDoc.getCommand());
         } catch (WorkflowException e) {
             return SlackResponseDoc.failure(e.getMessage());
         }
 
-        final SlackUser user = new SlackUser(requestDoc.getUserId(), requestDoc.getUsername());
-        scoreService.createUserIfNotExists(requestDoc.getChannelId(), user);
+        addPlayer(requestDoc.getChannelId(), new SlackUser(requestDoc.getUserId(), requestDoc.getUsername()));
 
         final SlackResponseDoc delayedResponseDoc = new SlackResponseDoc();
         delayedResponseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
         delayedResponseDoc.setText("<@" + requestDoc.getUserId() + "> answers:");
         delayedResponseDoc.setAttachments(Arrays.asList(new SlackAttachment(answer, false)));
-        delayedSlackService.sendResponse(requestDoc.getResponseUrl(), delayedResponseDoc);
-
-        final SlackResponseDoc responseDoc = new SlackResponseDoc();
-        responseDoc.setResponseType(SlackResponseType.EPHEMERAL);
-        responseDoc.setText("Answer submitted.");
-
-        return responseDoc;
+        delayedSlackService.sendResponse(requestDoc.getChannelId(), requestDoc.getResponseUrl(), delayedResponseDoc);
+
+        autoHostService.submitAnswer(
+                requestDoc.getChannelId(),
+                requestDoc.getUserId(),
+                answer,
+                requestDoc.getRequestTime(),
+                requestDoc.getResponseUrl(),
+                this::onAutoRoundWon
+        );
+
+        return ANSWER_SUBMITTED;
     }
 
-    public SlackResponseDoc markAnswerCorrect(final SlackRequestDoc requestDoc, final String target, final String answer) {
+    public SlackResponse markAnswerCorrect(final SlackRequestDoc requestDoc, final String target, final String answer) {
         String text;
 
         try {
-            workflowService.onCorrectAnswerSelected(requestDoc.getChannelId(), requestDoc.getUserId());
-
             if (target.equalsIgnoreCase(NO_CORRECT_ANSWER_TARGET)) {
-                //"Change" back to the original host to reset the workflow state
-                workflowService.onTurnChanged(requestDoc.getChannelId(), requestDoc.getUserId(), requestDoc.getUserId());
+                //No point, and the turn stays with the host
+                final String scoreText = onRoundEnded(
+                        requestDoc.getChannelId(),
+                        roundService.awardAndRotate(requestDoc.getChannelId(), requestDoc.getUserId(), null)
+                );
 
                 text = "It looks like no one was able to answer that one!";
 
@@ -207,13 +281,20 @@ public class TriviaGameServiceImpl implements TriviaGameService {
                     text += " The correct answer was \"" + answer + "\".";
                 }
 
-                text += "\n\n" + generateScoreText(requestDoc);
+                text += "\n\n" + scoreText;
                 text += "\n\nOK, <@" + requestDoc.getUserId() + ">, let's try another one!";
             } else {
                 final String userId = SlackUtils.normalizeId(target);
 
-                scoreService.incrementScore(requestDoc.getChannelId(), userId);
-                workflowService.onTurnChanged(requestDoc.getChannelId(), requestDoc.getUserId(), userId);
+                //Checked up front, as not every store can tell before the round has ended
+                if (!isPlaying(requestDoc.getChannelId(), userId)) {
+                    throw new ScoreException();
+                }
+
+                final String scoreText = onRoundEnded(
+                        requestDoc.getChannelId(),
+                        roundService.awardAndRotate(requestDoc.getChannelId(), requestDoc.getUserId(), userId)
+                );
 
                 text = "<@" + userId + "> is correct";
 
@@ -222,11 +303,11 @@ public class TriviaGameServiceImpl implements TriviaGameService {
                 }
 
                 text += "!\n\n";
-                text += generateScoreText(requestDoc);
+                text += scoreText;
                 text += "\n\nOK, <@" + userId + ">, you're up!";
             }
         } catch (GameNotStartedException e) {
-            return SlackResponseDoc.failure(String.format(GAME_NOT_STARTED_FORMAT, requestDoc.getCommand()));
+            return gameNotStartedResponses.get(requestDoc.getCommand());
         } catch (WorkflowException e) {
             return SlackResponseDoc.failure(e.getMessage());
         } catch (ScoreException e) {
@@ -238,15 +319,45 @@ public class TriviaGameServiceImpl implements TriviaGameService {
         final SlackResponseDoc delayedResponseDoc = new SlackResponseDoc();
         delayedResponseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
         delayedResponseDoc.setText(text);
-        delayedSlackService.sendResponse(requestDoc.getResponseUrl(), delayedResponseDoc);
+        delayedSlackService.sendResponse(requestDoc.getChannelId(), requestDoc.getResponseUrl(), delayedResponseDoc);
+
+        return SCORE_UPDATED;
+    }
+
+    public SlackResponse setRoundTimeout(final SlackRequestDoc requestDoc, final String timeout) {
+        final Integer timeoutSeconds = parseRoundTimeout(timeout);
+
+        if (timeoutSeconds != null && timeoutSeconds < 0) {
+            final SlackResponseDoc responseDoc = SlackResponseDoc.failure(
+                    "The timer must be between " + MIN_ROUND_TIMEOUT_SECONDS + " and " + MAX_ROUND_TIMEOUT_SECONDS + " seconds."
+            );
+            responseDoc.setAttachments(Arrays.asList(new SlackAttachment("Usage: `" + requestDoc.getCommand() + " timer 60`")));
+            return responseDoc;
+        }
+
+        try {
+            workflowService.onRoundTimeoutChanged(requestDoc.getChannelId(), requestDoc.getUserId(), timeoutSeconds);
+        } catch (GameNotStartedException e) {
+            return gameNotStartedResponses.get(requestDoc.getCommand());
+        } catch (WorkflowException e) {
+            return SlackResponseDoc.failure(e.getMessage());
+        }
 
         final SlackResponseDoc responseDoc = new SlackResponseDoc();
-        responseDoc.setResponseType(SlackResponseType.EPHEMERAL);
-        responseDoc.setText("Score updated.");
+        responseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
+
+        if (timeoutSeconds == null) {
+            responseDoc.setText("Questions will be timed as they are by default, starting with the next one.");
+        } else if (timeoutSeconds == 0) {
+            responseDoc.setText("Questions will stay open until an answer is marked correct, starting with the next one.");
+        } else {
+            responseDoc.setText("Questions will close after " + timeoutSeconds + " seconds, starting with the next one.");
+        }
+
         return responseDoc;
     }
 
-    public SlackResponseDoc getStatus(final SlackRequestDoc requestDoc) {
+    public SlackResponse getStatus(final SlackRequestDoc requestDoc) {
         final GameState gameState = workflowService.getCurrentGameState(requestDoc.getChannelId());
 
         final SlackResponseDoc responseDoc = new SlackResponseDoc();
@@ -256,21 +367,23 @@ public class TriviaGameServiceImpl implements TriviaGameService {
         return responseDoc;
     }
 
-    public SlackResponseDoc getScores(final SlackRequestDoc requestDoc) {
+    public SlackResponse getScores(final SlackRequestDoc requestDoc) {
         final SlackResponseDoc responseDoc = new SlackResponseDoc();
         responseDoc.setResponseType(SlackResponseType.EPHEMERAL);
-        responseDoc.setText(generateScoreText(requestDoc));
+        responseDoc.setText(generateScoreText(requestDoc.getChannelId()));
 
         return responseDoc;
     }
 
-    public SlackResponseDoc resetScores(final SlackRequestDoc requestDoc) {
+    public SlackResponse resetScores(final SlackRequestDoc requestDoc) {
         scoreService.resetScores(requestDoc.getChannelId());
+        players.forgetChannel(requestDoc.getChannelId());
+        onScoresChanged(requestDoc.getChannelId());
 
         final SlackResponseDoc responseDoc = new SlackResponseDoc();
         responseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
         responseDoc.setText("Scores have been reset!");
-        responseDoc.setAttachments(Arrays.asList(new SlackAttachment(generateScoreText(requestDoc))));
+        responseDoc.setAttachments(Arrays.asList(new SlackAttachment(generateScoreText(requestDoc.getChannelId()))));
 
         return responseDoc;
     }
@@ -280,48 +393,158 @@ public class TriviaGameServiceImpl implements TriviaGameService {
             return String.format(GAME_NOT_STARTED_FORMAT, requestDoc.getCommand());
         }
 
-        final boolean isControllingUser = gameState.getControllingUserId().equals(requestDoc.getUserId());
+        return statusRenderer.render(gameState, requestDoc.getUserId());
+    }
 
-        final String topic = gameState.getTopic() == null ? "None" : gameState.getTopic();
-        final String turn = isControllingUser ? "Yours" : "<@" + gameState.getControllingUserId() + ">";
-        final String question = gameState.getQuestion() == null ? " Waiting..." : ("\n\n" + gameState.getQuestion());
+    /**
+     * Anyone may stop a game the app is hosting, since there is no host to
+     * ask
+     */
+    private void stopGame(final String channelId, final String userId) throws GameNotStartedException, WorkflowException {
+        try {
+            workflowService.onGameStopped(channelId, userId);
+        } catch (GameNotStartedException e) {
+            throw e;
+        } catch (WorkflowException e) {
+            if (!autoHostService.isHosting(channelId)) {
+                throw e;
+            }
 
-        String statusText = String.format(BASE_STATUS_FORMAT, topic, turn, question);
+            workflowService.onGameStopped(channelId, AutoHostService.AUTO_HOST_USER_ID);
+        }
 
-        if (gameState.getQuestion() != null) {
-            String answerText;
+        autoHostService.onGameStopped(channelId);
+        roundTimerService.onRoundEnded(channelId);
+    }
 
-            if (CollectionUtils.isEmpty(gameState.getAnswers())) {
-                answerText = " Waiting...";
-            } else {
-                int maxUsernameLength = 1 + gameState.getAnswers().stream()
-                        .map(GameState.Answer::getUsername)
-                        .map(String::length)
-                        .max(Comparator.comparing(Integer::valueOf))
-                        .orElse(0);
-
-                answerText = "\n\n```" + gameState.getAnswers().stream()
-                        .sorted(Comparator.comparing(GameState.Answer::getCreatedDate))
-                        .map(answer ->
-                            String.format(
-                                    SINGLE_ANSWER_FORMAT,
-                                    DATE_FORMATTER.format(answer.getCreatedDate().atZone(ZoneId.of("UTC"))),
-                                    String.format("@%-" + maxUsernameLength + "s", answer.getUsername()),
-                                    answer.getText()
-                            )
-                        )
-                        .collect(Collectors.joining("\n")) + "```";
-            }
+    /**
+     * Scores the first right answer to a question the app asked, and asks
+     * the next one straight away
+     */
+    private void onAutoRoundWon(final String channelId, final String userId, final String answer, final String responseUrl) {
+        final String scoreText;
 
-            statusText += String.format(ANSWERS_FORMAT, answerText);
+        try {
+            scoreText = onRoundEnded(channelId, roundService.awardAndRotate(
+                    channelId,
+                    AutoHostService.AUTO_HOST_USER_ID,
+                    userId,
+                    AutoHostService.AUTO_HOST_USER_ID
+            ));
+        } catch (WorkflowException | ScoreException e) {
+            //The round timed out, or the game was stopped, in the meantime
+            return;
+        }
+
+        final String leadIn = "<@" + userId + "> got it! The answer was \"" + answer + "\".\n\n" + scoreText;
+        roundTimerService.onQuestionAsked(autoHostService.askNextQuestion(channelId, responseUrl, leadIn));
+    }
+
+    /**
+     * Adds the winner's point to the channel's cached leaderboard, rather
+     * than reading the scores again
+     *
+     * @param winner the winner's score with the point added, or null if no
+     *               point was given
+     * @return the rendered scores
+     */
+    private String onRoundEnded(final String channelId, final ScoreInfo winner) {
+        roundTimerService.onRoundEnded(channelId);
+
+        if (winner == null) {
+            return generateScoreText(channelId);
+        }
+
+        players.put(channelId, winner.getUserId(), true);
+
+        final Leaderboard cached = channelId == null ? null : leaderboardsByChannel.getIfPresent(channelId);
+
+        if (cached == null) {
+            return generateScoreText(channelId);
         }
 
-        return statusText;
+        final Map<SlackUser, Long> scoresByUser = new HashMap<>(cached.scoresByUser);
+        scoresByUser.put(new SlackUser(winner.getUserId(), winner.getUsername()), winner.getScore());
+
+        final Leaderboard leaderboard = new Leaderboard(scoresByUser, renderScoreText(scoresByUser));
+        leaderboardsByChannel.put(channelId, leaderboard);
+
+        return leaderboard.text;
     }
 
-    private String generateScoreText(final SlackRequestDoc requestDoc) {
-        final Map<SlackUser, Long> scoresByUser = scoreService.getAllScoresByUser(requestDoc.getChannelId());
+    /**
+     * @return the number of seconds, 0 for "off", null for "default", or -1
+     * if the timeout is not one of those
+     */
+    private static Integer parseRoundTimeout(final String timeout) {
+        final String trimmed = timeout == null ? "" : timeout.trim();
+
+        if (trimmed.equalsIgnoreCase(TIMER_OFF)) {
+            return 0;
+        } else if (trimmed.equalsIgnoreCase(TIMER_DEFAULT)) {
+            return null;
+        }
 
+        try {
+            final int seconds = Integer.parseInt(trimmed);
+            return seconds < MIN_ROUND_TIMEOUT_SECONDS || seconds > MAX_ROUND_TIMEOUT_SECONDS ? -1 : seconds;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return true if the user was not playing before
+     */
+    private boolean addPlayer(final String channelId, final SlackUser user) {
+        if (Boolean.TRUE.equals(players.isPlaying(channelId, user.getUserId()))) {
+            return false;
+        }
+
+        final boolean created = scoreService.createUserIfNotExists(channelId, user);
+        players.put(channelId, user.getUserId(), true);
+
+        if (created) {
+            onScoresChanged(channelId);
+        }
+
+        return created;
+    }
+
+    private boolean isPlaying(final String channelId, final String userId) {
+        Boolean playing = players.isPlaying(channelId, userId);
+
+        if (playing == null) {
+            playing = scoreService.doesUserExist(channelId, userId);
+            players.put(channelId, userId, playing);
+        }
+
+        return playing;
+    }
+
+    private void onScoresChanged(final String channelId) {
+        if (channelId != null) {
+            leaderboardsByChannel.invalidate(channelId);
+        }
+    }
+
+    private String generateScoreText(final String channelId) {
+        if (channelId == null) {
+            return renderScoreText(scoreService.getAllScoresByUser(null));
+        }
+
+        Leaderboard leaderboard = leaderboardsByChannel.getIfPresent(channelId);
+
+        if (leaderboard == null) {
+            final Map<SlackUser, Long> scoresByUser = scoreService.getAllScoresByUser(channelId);
+            leaderboard = new Leaderboard(scoresByUser, renderScoreText(scoresByUser));
+            leaderboardsByChannel.put(channelId, leaderboard);
+        }
+
+        return leaderboard.text;
+    }
+
+    private String renderScoreText(final Map<SlackUser, Long> scoresByUser) {
         final String scoreText;
 
         if (scoresByUser.isEmpty()) {
@@ -345,4 +568,14 @@ public class TriviaGameServiceImpl implements TriviaGameService {
 
         return String.format(SCORES_FORMAT, scoreText);
     }
+
+    private static final class Leaderboard {
+        private final Map<SlackUser, Long> scoresByUser;
+        private final String text;
+
+        private Leaderboard(final Map<SlackUser, Long> scoresByUser, final String text) {
+            this.scoresByUser = scoresByUser;
+            this.text = text;
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package org.bj.examples.trivia.service.round;
+
+import org.bj.examples.trivia.data.score.ScoreInfo;
+import org.bj.examples.trivia.exception.GameNotStartedException;
+import org.bj.examples.trivia.exception.ScoreException;
+import org.bj.examples.trivia.exception.WorkflowException;
+
+public interface RoundService {
+    /**
+     * Ends the round: checks that the user is the host and a question is
+     * open, gives the winner a point, clears the question and its answers,
+     * and hands the turn to the winner. How close that comes to a single
+     * step depends on the store; an implementation that cannot do it
+     * atomically says what another writer may see part way through.
+     * <p>
+     * Only the winner's score comes back, not the whole leaderboard, so
+     * that no implementation has to read the channel's scores again.
+     *
+     * @param winnerUserId null if no one got it, in which case no point is
+     *                     given and the host keeps the turn; otherwise
+     *                     someone the caller has checked is playing
+     * @return the winner's score with the point added, or null if no point
+     * was given
+     * @throws ScoreException if the winner turns out not to be playing in
+     *                        the channel, for implementations that can tell
+     *                        before ending the round
+     */
+    default ScoreInfo awardAndRotate(final String channelId, final String hostUserId, final String winnerUserId)
+            throws GameNotStartedException, WorkflowException, ScoreException {
+        return awardAndRotate(channelId, hostUserId, winnerUserId, winnerUserId == null ? hostUserId : winnerUserId);
+    }
+
+    /**
+     * Ends the round as {@link #awardAndRotate(String, String, String)}
+     * does, but hands the turn to <code>nextHostUserId</code> whoever won
+     *
+     * @param winnerUserId null if no one got it, in which case no point is
+     *                     given
+     */
+    ScoreInfo awardAndRotate(
+            final String channelId,
+            final String hostUserId,
+            final String winnerUserId,
+            final String nextHostUserId
+    ) throws GameNotStartedException, WorkflowException, ScoreException;
+}
@@ -0,0 +1,17 @@
+package org.bj.examples.trivia.service.round;
+
+import org.bj.examples.trivia.dto.OpenRound;
+
+public interface RoundTimerService {
+    /**
+     * Starts the clock on a question, replacing the channel's previous
+     * timer. When it runs out, the answers so far are posted and the turn
+     * moves on to the next player.
+     */
+    void onQuestionAsked(final OpenRound round);
+
+    /**
+     * Stops the channel's timer, if it has one, since its round is over
+     */
+    void onRoundEnded(final String channelId);
+}
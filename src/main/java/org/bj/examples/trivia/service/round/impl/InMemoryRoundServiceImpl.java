@@ -0,0 +1,67 @@
+package org.bj.examples.trivia.service.round.impl;
+
+import java.util.Map;
+
+import org.bj.examples.trivia.data.score.ScoreInfo;
+import org.bj.examples.trivia.dto.SlackUser;
+import org.bj.examples.trivia.exception.GameNotStartedException;
+import org.bj.examples.trivia.exception.ScoreException;
+import org.bj.examples.trivia.exception.WorkflowException;
+import org.bj.examples.trivia.service.round.RoundService;
+import org.bj.examples.trivia.service.score.ScoreService;
+import org.bj.examples.trivia.service.workflow.WorkflowService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+/**
+ * Nothing here is a round trip, so the round is ended through the score
+ * and workflow services one step after another, under a lock so that no
+ * other round ends halfway through.
+ */
+@Profile("memory")
+@Service
+public class InMemoryRoundServiceImpl implements RoundService {
+    private final ScoreService scoreService;
+    private final WorkflowService workflowService;
+
+    @Autowired
+    public InMemoryRoundServiceImpl(final ScoreService scoreService, final WorkflowService workflowService) {
+        this.scoreService = scoreService;
+        this.workflowService = workflowService;
+    }
+
+    @Override
+    public synchronized ScoreInfo awardAndRotate(
+            final String channelId,
+            final String hostUserId,
+            final String winnerUserId,
+            final String nextHostUserId
+    ) throws GameNotStartedException, WorkflowException, ScoreException {
+        workflowService.onCorrectAnswerSelected(channelId, hostUserId);
+
+        if (winnerUserId != null) {
+            scoreService.incrementScore(channelId, winnerUserId);
+        }
+
+        workflowService.onTurnChanged(channelId, hostUserId, nextHostUserId);
+
+        return winnerUserId == null ? null : findScore(channelId, winnerUserId);
+    }
+
+    private ScoreInfo findScore(final String channelId, final String userId) {
+        for (final Map.Entry<SlackUser, Long> entry : scoreService.getAllScoresByUser(channelId).entrySet()) {
+            if (userId.equals(entry.getKey().getUserId())) {
+                final ScoreInfo scoreInfo = new ScoreInfo();
+                scoreInfo.setChannelId(channelId);
+                scoreInfo.setUserId(userId);
+                scoreInfo.setUsername(entry.getKey().getUsername());
+                scoreInfo.setScore(entry.getValue());
+
+                return scoreInfo;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,89 @@
+package org.bj.examples.trivia.service.round.impl;
+
+import java.util.ArrayList;
+
+import org.bj.examples.trivia.data.score.ScoreInfo;
+import org.bj.examples.trivia.data.workflow.Workflow;
+import org.bj.examples.trivia.data.workflow.WorkflowStage;
+import org.bj.examples.trivia.exception.GameNotStartedException;
+import org.bj.examples.trivia.exception.ScoreException;
+import org.bj.examples.trivia.exception.WorkflowException;
+import org.bj.examples.trivia.service.round.RoundService;
+import org.bj.examples.trivia.service.workflow.WorkflowService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Ends a round in two conditional writes and no reads:
+ * <ol>
+ * <li>one <code>findAndModify</code> on the workflow that only matches if
+ * the user is the host and a question is open, and hands the turn over;</li>
+ * <li>one <code>findAndModify</code> that adds the winner's point and
+ * returns the new score.</li>
+ * </ol>
+ * The workflow and the scores are separate documents, and the 3.x driver
+ * in use has no multi-document transactions, so the two writes cannot be
+ * made one. The winner is checked by the caller before the round ends. If
+ * the channel's scores are reset between the two writes, the round stays
+ * ended without the point, which is where it would be had the reset come
+ * just after it; nothing is rolled back.
+ */
+@Profile("mongo")
+@Service
+public class MongoRoundServiceImpl implements RoundService {
+    private final MongoOperations mongoOperations;
+    private final WorkflowService workflowService;
+
+    @Autowired
+    public MongoRoundServiceImpl(final MongoOperations mongoOperations, final WorkflowService workflowService) {
+        this.mongoOperations = mongoOperations;
+        this.workflowService = workflowService;
+    }
+
+    @Override
+    public ScoreInfo awardAndRotate(
+            final String channelId,
+            final String hostUserId,
+            final String winnerUserId,
+            final String nextHostUserId
+    ) throws GameNotStartedException, WorkflowException, ScoreException {
+        if (channelId == null || hostUserId == null) {
+            return null;
+        }
+
+        final Workflow previous = mongoOperations.findAndModify(
+                Query.query(Criteria.where(Workflow.CHANNEL_ID_KEY).is(channelId)
+                        .and(Workflow.CONTROLLING_USER_ID_KEY).is(hostUserId)
+                        .and(Workflow.STAGE_KEY).is(WorkflowStage.QUESTION_ASKED.name())),
+                new Update()
+                        .set(Workflow.CONTROLLING_USER_ID_KEY, nextHostUserId)
+                        .set(Workflow.QUESTION_KEY, null)
+                        .set(Workflow.ANSWERS_KEY, new ArrayList<>())
+                        .set(Workflow.STAGE_KEY, WorkflowStage.STARTED.name()),
+                Workflow.class
+        );
+
+        if (previous == null) {
+            //Find out which check failed, for the message
+            workflowService.onCorrectAnswerSelected(channelId, hostUserId);
+            throw new WorkflowException("The round changed while it was being scored. Please try again.");
+        }
+
+        if (winnerUserId == null) {
+            return null;
+        }
+
+        return mongoOperations.findAndModify(
+                Query.query(Criteria.where(ScoreInfo.CHANNEL_ID_KEY).is(channelId).and(ScoreInfo.USER_ID_KEY).is(winnerUserId)),
+                new Update().inc(ScoreInfo.SCORE_KEY, 1),
+                FindAndModifyOptions.options().returnNew(true),
+                ScoreInfo.class
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package org.bj.examples.trivia.service.round.impl;
+
+import java.util.ArrayList;
+
+import org.bj.examples.trivia.data.score.ScoreInfo;
+import org.bj.examples.trivia.data.score.ScoreInfoDao;
+import org.bj.examples.trivia.data.workflow.Workflow;
+import org.bj.examples.trivia.data.workflow.WorkflowDao;
+import org.bj.examples.trivia.data.workflow.WorkflowStage;
+import org.bj.examples.trivia.exception.GameNotStartedException;
+import org.bj.examples.trivia.exception.ScoreException;
+import org.bj.examples.trivia.exception.WorkflowException;
+import org.bj.examples.trivia.service.round.RoundService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+/**
+ * Ends the round in a single Datastore transaction, which only commits if
+ * the workflow is still as the round needs it. Inside a transaction the
+ * Datastore can only look entities up by key, so the workflow and the
+ * winner's score are first found by channel, outside it, for their keys
+ * and for saying what is wrong if the round cannot end. Everything the
+ * round is decided on, and the score that comes back, is read again inside
+ * the transaction.
+ */
+@Profile("production")
+@Service
+public class RoundServiceImpl implements RoundService {
+    private final WorkflowDao workflowDao;
+    private final ScoreInfoDao scoreInfoDao;
+
+    @Autowired
+    public RoundServiceImpl(final WorkflowDao workflowDao, final ScoreInfoDao scoreInfoDao) {
+        this.workflowDao = workflowDao;
+        this.scoreInfoDao = scoreInfoDao;
+    }
+
+    @Override
+    public ScoreInfo awardAndRotate(
+            final String channelId,
+            final String hostUserId,
+            final String winnerUserId,
+            final String nextHostUserId
+    ) throws GameNotStartedException, WorkflowException, ScoreException {
+        if (channelId == null || hostUserId == null) {
+            return null;
+        }
+
+        final Workflow workflow = workflowDao.findByChannelId(channelId);
+
+        if (workflow == null) {
+            throw new GameNotStartedException();
+        } else if (!hostUserId.equals(workflow.getControllingUserId())) {
+            throw new WorkflowException("It's <@" + workflow.getControllingUserId() + ">'s turn; only he/she can mark an answer correct.");
+        } else if (workflow.getStage() != WorkflowStage.QUESTION_ASKED) {
+            throw new WorkflowException("A question has not yet been submitted. Please ask a question before marking an answer correct.");
+        }
+
+        ScoreInfo winner = null;
+
+        if (winnerUserId != null) {
+            winner = scoreInfoDao.findByChannelIdAndUserId(channelId, winnerUserId);
+
+            if (winner == null) {
+                throw new ScoreException();
+            }
+        }
+
+        workflow.setControllingUserId(nextHostUserId);
+        workflow.setQuestion(null);
+        workflow.setAnswers(new ArrayList<>());
+        workflow.setStage(WorkflowStage.STARTED);
+
+        final Long score = workflowDao.saveRound(workflow, hostUserId, winner == null ? null : scoreInfoDao.keyOf(winner));
+
+        if (score == null) {
+            throw new WorkflowException("The round changed while it was being scored. Please try again.");
+        }
+
+        if (winner != null) {
+            winner.setScore(score);
+        }
+
+        return winner;
+    }
+}
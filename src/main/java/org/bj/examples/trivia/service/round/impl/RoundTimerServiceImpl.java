@@ -0,0 +1,306 @@
+package org.bj.examples.trivia.service.round.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bj.examples.trivia.dto.GameState;
+import org.bj.examples.trivia.dto.OpenRound;
+import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponseType;
+import org.bj.examples.trivia.dto.SlackUser;
+import org.bj.examples.trivia.exception.WorkflowException;
+import org.bj.examples.trivia.service.auto.AutoHostService;
+import org.bj.examples.trivia.service.round.RoundTimerService;
+import org.bj.examples.trivia.service.score.ScoreService;
+import org.bj.examples.trivia.service.slack.DelayedSlackService;
+import org.bj.examples.trivia.service.slack.impl.ChannelMailboxes;
+import org.bj.examples.trivia.service.workflow.WorkflowService;
+import org.bj.examples.trivia.util.TimingWheel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Keeps one timer per channel with a question open, all of them on a single
+ * {@link TimingWheel}, so tens of thousands of open rounds cost a node each
+ * and one thread between them. The wheel only notices that a round is due;
+ * closing it reads and writes the store, so that goes through the channel's
+ * {@link ChannelMailboxes mailbox} like any other command, and never
+ * interleaves with a host marking an answer correct at the last moment.
+ * <p>
+ * Timers live in memory. On startup they are set again for every round the
+ * store still has open, and a round whose time ran out while the app was
+ * down is closed straight away.
+ * <p>
+ * A round is only closed if it is still the one the timer was set for. The
+ * host may have marked an answer correct or passed the turn in the
+ * meantime, possibly on another instance of the app, which leaves a stale
+ * timer behind.
+ */
+@Service
+public class RoundTimerServiceImpl implements RoundTimerService {
+    private static final Log log = LogFactory.getLog(RoundTimerServiceImpl.class);
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final int TICKS_PER_WHEEL = 512;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final WorkflowService workflowService;
+    private final ScoreService scoreService;
+    private final DelayedSlackService delayedSlackService;
+    private final AutoHostService autoHostService;
+    private final ChannelMailboxes mailboxes;
+    private final int defaultTimeoutSeconds;
+    private final TimingWheel wheel;
+
+    private final ConcurrentMap<String, RoundTimer> timersByChannel = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RoundTimerServiceImpl(
+            final WorkflowService workflowService,
+            final ScoreService scoreService,
+            final DelayedSlackService delayedSlackService,
+            final AutoHostService autoHostService,
+            final ChannelMailboxes mailboxes,
+            @Value("${trivia.round.timeout-seconds:0}") final int defaultTimeoutSeconds,
+            @Value("${trivia.round.timer.tick-ms:100}") final long tickMillis
+    ) {
+        this.workflowService = workflowService;
+        this.scoreService = scoreService;
+        this.delayedSlackService = delayedSlackService;
+        this.autoHostService = autoHostService;
+        this.mailboxes = mailboxes;
+        this.defaultTimeoutSeconds = defaultTimeoutSeconds;
+        this.wheel = new TimingWheel(
+                new ThreadFactoryBuilder().setNameFormat("round-timer-%d").setDaemon(true).build(),
+                tickMillis,
+                TICKS_PER_WHEEL
+        );
+    }
+
+    @PostConstruct
+    public void restoreTimers() {
+        final List<OpenRound> openRounds;
+
+        try {
+            openRounds = workflowService.getOpenRounds();
+        } catch (RuntimeException e) {
+            log.error("Could not read the open rounds; their timers will not be restored.", e);
+            return;
+        }
+
+        for (final OpenRound round : openRounds) {
+            onQuestionAsked(round);
+        }
+
+        log.info("Restored the timers of " + timersByChannel.size() + " open round(s).");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+    }
+
+    @Override
+    public void onQuestionAsked(final OpenRound round) {
+        if (round == null || round.getChannelId() == null) {
+            return;
+        }
+
+        final int timeoutSeconds = round.getTimeoutSeconds() == null ? defaultTimeoutSeconds : round.getTimeoutSeconds();
+
+        if (timeoutSeconds <= 0 || round.getQuestionDate() == null) {
+            onRoundEnded(round.getChannelId());
+            return;
+        }
+
+        final LocalDateTime deadline = round.getQuestionDate().plusSeconds(timeoutSeconds);
+        schedule(round, Duration.between(LocalDateTime.now(UTC), deadline).toMillis());
+    }
+
+    @Override
+    public void onRoundEnded(final String channelId) {
+        if (channelId == null) {
+            return;
+        }
+
+        final RoundTimer timer = timersByChannel.remove(channelId);
+
+        if (timer != null) {
+            timer.cancel();
+        }
+    }
+
+    private void schedule(final OpenRound round, final long delayMillis) {
+        final RoundTimer timer = new RoundTimer(round);
+        final RoundTimer previous = timersByChannel.put(round.getChannelId(), timer);
+
+        if (previous != null) {
+            previous.cancel();
+        }
+
+        timer.timeout = wheel.schedule(timer, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void closeRound(final OpenRound round) {
+        final String channelId = round.getChannelId();
+        final String hostUserId = round.getHostUserId();
+        final GameState gameState = workflowService.getCurrentGameState(channelId);
+
+        if (gameState == null
+                || !hostUserId.equals(gameState.getControllingUserId())
+                || gameState.getQuestion() == null
+                || !isSameQuestion(round.getQuestionDate(), gameState.getQuestionDate())) {
+            return;
+        }
+
+        //The app asks its own next question rather than passing the turn
+        if (AutoHostService.AUTO_HOST_USER_ID.equals(hostUserId)) {
+            onQuestionAsked(autoHostService.onTimeUp(round, gameState));
+            return;
+        }
+
+        final String nextUserId = getNextHost(channelId, hostUserId);
+
+        try {
+            workflowService.onTurnChanged(channelId, hostUserId, nextUserId);
+        } catch (WorkflowException e) {
+            //The game moved on, or was stopped, between reading and writing it
+            return;
+        }
+
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+        responseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
+        responseDoc.setText(generateTimeUpText(gameState, hostUserId, nextUserId));
+        delayedSlackService.sendResponse(channelId, round.getResponseUrl(), responseDoc);
+    }
+
+    /**
+     * Turns go round the players in order of their user IDs, so everyone
+     * gets one before anyone gets a second. The host keeps the turn if no
+     * one else is playing.
+     */
+    private String getNextHost(final String channelId, final String hostUserId) {
+        String first = null;
+        String next = null;
+
+        for (final SlackUser user : scoreService.getAllScoresByUser(channelId).keySet()) {
+            final String userId = user.getUserId();
+
+            if (userId == null || userId.equals(hostUserId)) {
+                continue;
+            }
+
+            if (first == null || userId.compareTo(first) < 0) {
+                first = userId;
+            }
+
+            if (userId.compareTo(hostUserId) > 0 && (next == null || userId.compareTo(next) < 0)) {
+                next = userId;
+            }
+        }
+
+        if (next != null) {
+            return next;
+        }
+
+        return first == null ? hostUserId : first;
+    }
+
+    private static String generateTimeUpText(final GameState gameState, final String hostUserId, final String nextUserId) {
+        final StringBuilder text = new StringBuilder("Time's up! No answer was marked correct in time.\n\n");
+
+        if (gameState.getAnswers() == null || gameState.getAnswers().isEmpty()) {
+            text.append("No one answered.");
+        } else {
+            text.append("*Answers:*\n\n```");
+
+            for (final GameState.Answer answer : gameState.getAnswers()) {
+                text.append('@').append(answer.getUsername()).append(": ").append(answer.getText()).append('\n');
+            }
+
+            text.setLength(text.length() - 1);
+            text.append("```");
+        }
+
+        if (nextUserId.equals(hostUserId)) {
+            text.append("\n\nOK, <@").append(hostUserId).append(">, let's try another one!");
+        } else {
+            text.append("\n\nOK, <@").append(nextUserId).append(">, it's your turn to ask a question!");
+        }
+
+        return text.toString();
+    }
+
+    /**
+     * The stores keep dates to the millisecond at best, so a date read back
+     * is compared with the one that was written only that far
+     */
+    private static boolean isSameQuestion(final LocalDateTime questionDate, final LocalDateTime storedQuestionDate) {
+        return storedQuestionDate != null
+                && questionDate.truncatedTo(ChronoUnit.MILLIS).equals(storedQuestionDate.truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    private final class RoundTimer implements Runnable {
+        private final OpenRound round;
+        private volatile TimingWheel.Timeout timeout;
+
+        private RoundTimer(final OpenRound round) {
+            this.round = round;
+        }
+
+        /**
+         * Runs on the wheel's thread, so it only hands the round off
+         */
+        @Override
+        public void run() {
+            //A timer that has been replaced or cancelled is no longer in the map
+            if (!timersByChannel.remove(round.getChannelId(), this)) {
+                return;
+            }
+
+            try {
+                mailboxes.submit(round.getChannelId(), () -> {
+                    try {
+                        closeRound(round);
+                    } catch (RuntimeException e) {
+                        log.error("Failed to close the round in channel " + round.getChannelId() + ".", e);
+                    }
+
+                    return null;
+                });
+            } catch (RejectedExecutionException e) {
+                log.warn("Command pool is full, closing the round in channel " + round.getChannelId() + " a little later.");
+
+                //Unless a newer question has set a timer of its own since
+                final RoundTimer retry = new RoundTimer(round);
+
+                if (timersByChannel.putIfAbsent(round.getChannelId(), retry) == null) {
+                    retry.timeout = wheel.schedule(retry, RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+
+        private void cancel() {
+            final TimingWheel.Timeout scheduled = timeout;
+
+            if (scheduled != null) {
+                scheduled.cancel();
+            }
+        }
+    }
+}
@@ -1,7 +1,17 @@
 package org.bj.examples.trivia.service.slack;
 
-import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.dto.DeliveryStats;
+import org.bj.examples.trivia.dto.SlackResponse;
 
 public interface DelayedSlackService {
-    void sendResponse(final String url, final SlackResponseDoc responseDoc);
+    /**
+     * Queues a message for the given <code>response_url</code>. Messages
+     * sent for the same channel are posted in the order they were queued.
+     */
+    void sendResponse(final String channelId, final String url, final SlackResponse responseDoc);
+
+    /**
+     * Snapshot of the delivery pool, used to size it
+     */
+    DeliveryStats getDeliveryStats();
 }
@@ -0,0 +1,9 @@
+package org.bj.examples.trivia.service.slack;
+
+public interface JoinAnnouncementService {
+    /**
+     * Announces in the channel that the user has joined the game. Joins
+     * that arrive close together may be announced in a single message.
+     */
+    void announceJoin(final String channelId, final String responseUrl, final String userId);
+}
@@ -1,8 +1,15 @@
 package org.bj.examples.trivia.service.slack;
 
+import org.bj.examples.trivia.dto.AdmissionStats;
 import org.bj.examples.trivia.dto.SlackRequestDoc;
-import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponse;
 
 public interface SlackSlashCommandService {
-    SlackResponseDoc processSlashCommand(final SlackRequestDoc requestDoc);
+    SlackResponse processSlashCommand(final SlackRequestDoc requestDoc);
+
+    /**
+     * Snapshot of how many commands are in flight and how many were turned
+     * away, used to size the admission limits
+     */
+    AdmissionStats getAdmissionStats();
 }
@@ -0,0 +1,128 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponseType;
+import org.bj.examples.trivia.service.slack.DelayedSlackService;
+import org.bj.examples.trivia.service.slack.JoinAnnouncementService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Collects the joins for a channel over a short window and announces them
+ * in one message, so a game kicking off with dozens of players costs one
+ * post rather than one per player. The first join in a channel opens the
+ * window and its <code>response_url</code> carries the announcement.
+ */
+@Service
+public class BatchingJoinAnnouncementServiceImpl implements JoinAnnouncementService {
+    static final int MAX_NAMED_USERS = 3;
+
+    private final DelayedSlackService delayedSlackService;
+    private final long windowMillis;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private final ConcurrentMap<String, PendingJoins> pendingByChannel = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BatchingJoinAnnouncementServiceImpl(
+            final DelayedSlackService delayedSlackService,
+            @Value("${trivia.join-announcement.window-ms:2000}") final long windowMillis
+    ) {
+        this.delayedSlackService = delayedSlackService;
+        this.windowMillis = windowMillis;
+        this.scheduler = new ScheduledThreadPoolExecutor(
+                1,
+                new ThreadFactoryBuilder().setNameFormat("join-announcements-%d").setDaemon(true).build()
+        );
+    }
+
+    @Override
+    public void announceJoin(final String channelId, final String responseUrl, final String userId) {
+        if (windowMillis <= 0) {
+            delayedSlackService.sendResponse(channelId, responseUrl, announcement(Collections.singletonList(userId)));
+            return;
+        }
+
+        final boolean[] opened = new boolean[1];
+
+        pendingByChannel.compute(channelId, (key, pending) -> {
+            if (pending == null) {
+                pending = new PendingJoins(responseUrl);
+                opened[0] = true;
+            }
+
+            pending.userIds.add(userId);
+            return pending;
+        });
+
+        if (opened[0]) {
+            scheduler.schedule(() -> flush(channelId), windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+
+        //Announce whatever is still waiting rather than lose it
+        for (final String channelId : new ArrayList<>(pendingByChannel.keySet())) {
+            flush(channelId);
+        }
+    }
+
+    static SlackResponseDoc announcement(final List<String> userIds) {
+        final StringBuilder text = new StringBuilder();
+        final int named = userIds.size() > MAX_NAMED_USERS + 1 ? MAX_NAMED_USERS : userIds.size();
+
+        for (int i = 0; i < named; i++) {
+            if (i > 0) {
+                text.append(i == named - 1 && named == userIds.size() ? " and " : ", ");
+            }
+
+            text.append("<@").append(userIds.get(i)).append('>');
+        }
+
+        final int others = userIds.size() - named;
+
+        if (others > 0) {
+            text.append(" and ").append(others).append(" others");
+        }
+
+        text.append(userIds.size() == 1 ? " has joined the game!" : " have joined the game!");
+
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+        responseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
+        responseDoc.setText(text.toString());
+        return responseDoc;
+    }
+
+    private void flush(final String channelId) {
+        final PendingJoins pending = pendingByChannel.remove(channelId);
+
+        if (pending != null) {
+            delayedSlackService.sendResponse(channelId, pending.responseUrl, announcement(pending.userIds));
+        }
+    }
+
+    private static class PendingJoins {
+        private final String responseUrl;
+        private final List<String> userIds = new ArrayList<>();
+
+        PendingJoins(final String responseUrl) {
+            this.responseUrl = responseUrl;
+        }
+    }
+}
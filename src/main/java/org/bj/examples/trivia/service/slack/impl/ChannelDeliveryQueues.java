@@ -0,0 +1,338 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bj.examples.trivia.util.TokenBucket;
+
+/**
+ * One FIFO queue of deliveries per channel. Messages for the same channel
+ * are sent strictly one after another, while different channels are
+ * drained concurrently on the shared executor. A channel only occupies a
+ * worker while one of its messages is being sent, and its queue is dropped
+ * as soon as it runs dry.
+ * <p>
+ * The head of a channel's queue stays in the queue while it is being sent,
+ * so the number of pending messages includes the ones in flight. A head
+ * that fails with {@link DeliveryResult#RETRY} stays put and is tried
+ * again after a backoff, holding back the rest of its channel.
+ * <p>
+ * Sending is asynchronous: a worker only starts the send, and the channel
+ * moves on to its next message when the sender's stage completes.
+ * <p>
+ * Each channel also has a {@link TokenBucket} so that we stay under
+ * Slack's per-channel rate limit. When a channel runs out of tokens, the
+ * channel messages waiting in its queue are folded into the head, and the
+ * combined message goes out as soon as a token is available. A 429 with a
+ * <code>Retry-After</code> empties the channel's bucket for that long.
+ */
+class ChannelDeliveryQueues {
+    private static final Log log = LogFactory.getLog(ChannelDeliveryQueues.class);
+
+    private final Executor executor;
+    private final ScheduledExecutorService retryScheduler;
+    private final int capacity;
+    private final DeliveryRejectionPolicy rejectionPolicy;
+    private final ExponentialBackoff backoff;
+    private final DeliverySender sender;
+    private final Consumer<Delivery> onFinished;
+    private final Supplier<TokenBucket> bucketFactory;
+
+    private final ConcurrentMap<String, Deque<Delivery>> queuesByChannel = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TokenBucket> bucketsByChannel = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong retriedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong throttledCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * @param onFinished called once for every delivery that leaves the
+     *                   queues for good, whether it was sent, failed or
+     *                   was rejected
+     * @param bucketFactory creates the rate limit for a channel
+     */
+    ChannelDeliveryQueues(
+            final Executor executor,
+            final ScheduledExecutorService retryScheduler,
+            final int capacity,
+            final DeliveryRejectionPolicy rejectionPolicy,
+            final ExponentialBackoff backoff,
+            final DeliverySender sender,
+            final Consumer<Delivery> onFinished,
+            final Supplier<TokenBucket> bucketFactory
+    ) {
+        this.executor = executor;
+        this.retryScheduler = retryScheduler;
+        this.capacity = capacity;
+        this.rejectionPolicy = rejectionPolicy;
+        this.backoff = backoff;
+        this.sender = sender;
+        this.onFinished = onFinished;
+        this.bucketFactory = bucketFactory;
+    }
+
+    void submit(final Delivery delivery) {
+        if (pendingCount.incrementAndGet() > capacity) {
+            pendingCount.decrementAndGet();
+            rejectedCount.incrementAndGet();
+
+            switch (rejectionPolicy) {
+                case CALLER_RUNS:
+                    //The caller only pays for starting the send, not for waiting on it
+                    delivery.recordAttempt();
+                    send(delivery).whenComplete((result, e) -> finish(delivery, result));
+                    return;
+                case DISCARD_OLDEST:
+                    final Delivery discarded = replaceOldestWaiting(delivery);
+
+                    if (discarded != null) {
+                        log.warn("Delivery queue is full; dropping oldest message for \"" + delivery.getChannelKey() + "\".");
+                        release(discarded);
+                        return;
+                    }
+                    //Nothing waiting in this channel, so drop the new message instead
+                case DISCARD:
+                    log.warn("Delivery queue is full; dropping message for \"" + delivery.getChannelKey() + "\".");
+                    onFinished.accept(delivery);
+                    return;
+                case ABORT:
+                    onFinished.accept(delivery);
+                    throw new RejectedExecutionException("Delivery queue is full (" + capacity + " pending messages).");
+            }
+        }
+
+        final boolean[] wasIdle = new boolean[1];
+
+        queuesByChannel.compute(delivery.getChannelKey(), (channelKey, queue) -> {
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                wasIdle[0] = true;
+            }
+
+            queue.addLast(delivery);
+            return queue;
+        });
+
+        if (wasIdle[0]) {
+            scheduleDrain(delivery.getChannelKey());
+        }
+    }
+
+    int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    int getActiveChannelCount() {
+        return queuesByChannel.size();
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    long getRetriedCount() {
+        return retriedCount.get();
+    }
+
+    long getFailedCount() {
+        return failedCount.get();
+    }
+
+    long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    long getThrottledCount() {
+        return throttledCount.get();
+    }
+
+    long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private void scheduleDrain(final String channelKey) {
+        executor.execute(() -> drainOne(channelKey));
+    }
+
+    private void drainOne(final String channelKey) {
+        final Delivery[] head = new Delivery[1];
+
+        queuesByChannel.computeIfPresent(channelKey, (key, queue) -> {
+            head[0] = queue.peekFirst();
+            return queue;
+        });
+
+        final Delivery delivery = head[0];
+        final TokenBucket bucket = bucketsByChannel.computeIfAbsent(channelKey, key -> bucketFactory.get());
+        final long throttleMillis = bucket.tryAcquire();
+
+        if (throttleMillis > 0) {
+            throttledCount.incrementAndGet();
+            delivery.markThrottled();
+            coalesceWaiting(channelKey);
+
+            retryScheduler.schedule(() -> scheduleDrain(channelKey), throttleMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        if (delivery.wasThrottled()) {
+            //Pick up whatever arrived while we were waiting for the token
+            coalesceWaiting(channelKey);
+        }
+
+        final int attempts = delivery.recordAttempt();
+        delivery.setRetryAfterMillis(0);
+
+        send(delivery).whenComplete((result, e) -> {
+            if (result == DeliveryResult.RETRY && delivery.getRetryAfterMillis() > 0) {
+                //Slack told us how long the whole channel should back off
+                bucket.pause(delivery.getRetryAfterMillis());
+            }
+
+            if (result == DeliveryResult.RETRY && backoff.canRetry(attempts)) {
+                final long delayMillis = Math.max(backoff.delayMillis(attempts), delivery.getRetryAfterMillis());
+                retriedCount.incrementAndGet();
+                log.info("Retrying message to URL \"" + delivery.getUrl() + "\" in " + delayMillis + "ms (attempt " + attempts + ").");
+
+                retryScheduler.schedule(() -> scheduleDrain(channelKey), delayMillis, TimeUnit.MILLISECONDS);
+                return;
+            }
+
+            finish(delivery, result);
+
+            if (advance(channelKey)) {
+                //Re-queue rather than loop so that a busy channel can't starve the others
+                scheduleDrain(channelKey);
+            } else {
+                forgetBucketOnceIdle(channelKey, bucket);
+            }
+        });
+    }
+
+    /**
+     * @return the outcome of the send, with any failure of the sender
+     * itself turned into {@link DeliveryResult#FAILED}
+     */
+    private CompletionStage<DeliveryResult> send(final Delivery delivery) {
+        try {
+            return sender.send(delivery).exceptionally(e -> {
+                log.error("Unexpected failure sending message to URL \"" + delivery.getUrl() + "\".", e);
+                return DeliveryResult.FAILED;
+            });
+        } catch (RuntimeException e) {
+            log.error("Unexpected failure sending message to URL \"" + delivery.getUrl() + "\".", e);
+            return CompletableFuture.completedFuture(DeliveryResult.FAILED);
+        }
+    }
+
+    private void finish(final Delivery delivery, final DeliveryResult result) {
+        if (result == DeliveryResult.DELIVERED) {
+            completedCount.incrementAndGet();
+        } else {
+            failedCount.incrementAndGet();
+            log.error("Giving up on message to URL \"" + delivery.getUrl() + "\" after " + delivery.getAttempts() + " attempt(s).");
+        }
+
+        release(delivery);
+    }
+
+    private void release(final Delivery delivery) {
+        onFinished.accept(delivery);
+
+        for (final Delivery coalesced : delivery.getCoalesced()) {
+            onFinished.accept(coalesced);
+        }
+    }
+
+    /**
+     * Folds as many of the messages waiting behind the head as possible
+     * into it. The head hasn't been sent yet, as its channel is throttled.
+     */
+    private void coalesceWaiting(final String channelKey) {
+        queuesByChannel.computeIfPresent(channelKey, (key, queue) -> {
+            final Delivery head = queue.pollFirst();
+
+            while (!queue.isEmpty() && head.canCoalesce(queue.peekFirst())) {
+                head.coalesce(queue.pollFirst());
+                pendingCount.decrementAndGet();
+                coalescedCount.incrementAndGet();
+            }
+
+            queue.addFirst(head);
+            return queue;
+        });
+    }
+
+    /**
+     * Drops a quiet channel's bucket once it has refilled, since a new,
+     * full bucket behaves just the same.
+     */
+    private void forgetBucketOnceIdle(final String channelKey, final TokenBucket bucket) {
+        retryScheduler.schedule(
+                () -> bucketsByChannel.computeIfPresent(channelKey, (key, existing) ->
+                        existing == bucket && !queuesByChannel.containsKey(key) && bucket.millisUntilFull() == 0 ? null : existing
+                ),
+                bucket.millisUntilFull(),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Removes the head of the channel's queue, dropping the queue entirely
+     * once it is empty.
+     *
+     * @return whether the channel still has messages to send
+     */
+    private boolean advance(final String channelKey) {
+        final Deque<Delivery> queue = queuesByChannel.computeIfPresent(channelKey, (key, existing) -> {
+            existing.pollFirst();
+            pendingCount.decrementAndGet();
+            return existing.isEmpty() ? null : existing;
+        });
+
+        return queue != null;
+    }
+
+    /**
+     * @return the message that was dropped to make room, or null if there
+     * was nothing waiting behind the one in flight
+     */
+    private Delivery replaceOldestWaiting(final Delivery delivery) {
+        final Delivery[] discarded = new Delivery[1];
+
+        queuesByChannel.computeIfPresent(delivery.getChannelKey(), (channelKey, queue) -> {
+            if (queue.size() > 1) {
+                //The head is in flight, so the oldest waiting message is the one behind it
+                final Delivery inFlight = queue.pollFirst();
+                discarded[0] = queue.pollFirst();
+                queue.addFirst(inFlight);
+                queue.addLast(delivery);
+            }
+
+            return queue;
+        });
+
+        return discarded[0];
+    }
+}
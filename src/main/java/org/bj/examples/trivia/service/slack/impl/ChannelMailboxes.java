@@ -0,0 +1,281 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * One mailbox of commands per channel. Commands for the same channel run
+ * strictly one after another, so the read-check-write of a channel's
+ * workflow never interleaves with another command for that channel, while
+ * different channels run concurrently on the shared executor. A mailbox
+ * only exists while one of its commands is running or waiting, and is
+ * dropped as soon as it runs dry, so idle channels cost nothing.
+ * <p>
+ * A command is handed to the executor on its own, so a busy channel gives
+ * up its worker between commands rather than starving the others. When the
+ * executor is full, the channel's next command stays at the head of its
+ * mailbox and is offered to the executor again a moment later. It is never
+ * run by the thread that finished the one before, which may be a request
+ * thread with its own response still to send.
+ * <p>
+ * Anything that reads and writes a channel's game outside of a slash
+ * command, like a round timer running out, goes through the same mailbox,
+ * so it never interleaves with a command either.
+ * <p>
+ * This serializes commands within one instance of the app only.
+ */
+@Component
+public class ChannelMailboxes {
+    private static final long RETRY_DELAY_MILLIS = 50;
+
+    private final Executor executor;
+    private final long waitMillis;
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("channel-mailbox-retry-%d").setDaemon(true).build()
+    );
+
+    /**
+     * A channel's deque holds the commands waiting behind the one that is
+     * running, so an empty deque means a command is running and nothing is
+     * waiting.
+     */
+    private final ConcurrentMap<String, Deque<Task<?>>> mailboxesByChannel = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ChannelMailboxes(
+            final CommandExecutor commandExecutor,
+            @Value("${trivia.command.mailbox.wait-ms:10000}") final long waitMillis
+    ) {
+        this((Executor) commandExecutor, waitMillis);
+    }
+
+    /**
+     * @param waitMillis how long {@link #call(String, Supplier)} waits for a
+     *                   command queued behind others
+     */
+    ChannelMailboxes(final Executor executor, final long waitMillis) {
+        this.executor = executor;
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * Runs the command on the executor once every command queued before it
+     * for the channel has finished.
+     *
+     * @throws RejectedExecutionException if the channel's mailbox was idle
+     * and the executor cannot take the command
+     */
+    public <T> CompletableFuture<T> submit(final String channelId, final Supplier<T> command) {
+        final Task<T> task = new Task<>(command);
+
+        if (channelId == null) {
+            executor.execute(task);
+        } else if (enqueue(channelId, task)) {
+            try {
+                executor.execute(() -> drain(channelId, task));
+            } catch (RejectedExecutionException e) {
+                //This command never started, but others may have queued behind it since
+                handOff(channelId);
+                throw e;
+            }
+        }
+
+        return task.result;
+    }
+
+    /**
+     * Runs the command and waits for its result. When nothing else is
+     * running for the channel, the command runs right away on the calling
+     * thread; otherwise it waits its turn in the mailbox. Either way, the
+     * calling thread only ever runs this one command.
+     *
+     * @throws RejectedExecutionException if the command was still waiting
+     * its turn when the wait ran out, in which case it will not run
+     * @throws IllegalStateException if the command was still running when
+     * the wait ran out
+     */
+    public <T> T call(final String channelId, final Supplier<T> command) {
+        if (channelId == null) {
+            return command.get();
+        }
+
+        final Task<T> task = new Task<>(command);
+
+        if (enqueue(channelId, task)) {
+            drain(channelId, task);
+        }
+
+        try {
+            return task.result.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (withdraw(channelId, task)) {
+                throw new RejectedExecutionException("Gave up waiting for channel " + channelId + " after " + waitMillis + "ms.");
+            }
+
+            throw new IllegalStateException("Gave up on a command still running in channel " + channelId + " after " + waitMillis + "ms.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            withdraw(channelId, task);
+            throw new RejectedExecutionException("Interrupted waiting for channel " + channelId + ".", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    int getActiveChannelCount() {
+        return mailboxesByChannel.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+    }
+
+    /**
+     * @return true if the channel was idle, in which case the caller is
+     * responsible for running the task; otherwise the task was queued
+     */
+    private boolean enqueue(final String channelId, final Task<?> task) {
+        final boolean[] wasIdle = new boolean[1];
+
+        mailboxesByChannel.compute(channelId, (key, mailbox) -> {
+            if (mailbox == null) {
+                wasIdle[0] = true;
+                return new ArrayDeque<>();
+            }
+
+            mailbox.addLast(task);
+            return mailbox;
+        });
+
+        return wasIdle[0];
+    }
+
+    /**
+     * @return true if the task was still waiting, and now never will run
+     */
+    private boolean withdraw(final String channelId, final Task<?> task) {
+        final boolean[] withdrawn = new boolean[1];
+
+        mailboxesByChannel.computeIfPresent(channelId, (key, mailbox) -> {
+            withdrawn[0] = mailbox.remove(task);
+            return mailbox;
+        });
+
+        return withdrawn[0];
+    }
+
+    /**
+     * @return the channel's next task, or null if nothing is waiting, in
+     * which case the mailbox is dropped
+     */
+    private Task<?> pollNext(final String channelId) {
+        final Task<?>[] next = new Task<?>[1];
+
+        mailboxesByChannel.computeIfPresent(channelId, (key, mailbox) -> {
+            next[0] = mailbox.pollFirst();
+            return next[0] == null ? null : mailbox;
+        });
+
+        return next[0];
+    }
+
+    /**
+     * Puts a task that could not be started back at the head of the
+     * channel's mailbox, which stays in place so later tasks keep queueing
+     * behind it
+     */
+    private void requeue(final String channelId, final Task<?> task) {
+        mailboxesByChannel.compute(channelId, (key, mailbox) -> {
+            final Deque<Task<?>> waiting = mailbox == null ? new ArrayDeque<>() : mailbox;
+            waiting.addFirst(task);
+            return waiting;
+        });
+    }
+
+    private void drain(final String channelId, final Task<?> task) {
+        task.run();
+        handOff(channelId);
+    }
+
+    /**
+     * Passes the channel on to its next waiting task, if any. When the
+     * executor is full, the task goes back into the mailbox and is offered
+     * again shortly rather than run here, since this thread has work of its
+     * own to get back to.
+     */
+    private void handOff(final String channelId) {
+        final Task<?> next = pollNext(channelId);
+
+        if (next == null) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> drain(channelId, next));
+        } catch (RejectedExecutionException e) {
+            requeue(channelId, next);
+            retryLater(channelId, e);
+        }
+    }
+
+    private void retryLater(final String channelId, final RejectedExecutionException cause) {
+        try {
+            retryScheduler.schedule(() -> handOff(channelId), RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            //Shutting down, so nothing waiting will ever run
+            final Deque<Task<?>> waiting = mailboxesByChannel.remove(channelId);
+
+            if (waiting != null) {
+                for (final Task<?> task : waiting) {
+                    task.result.completeExceptionally(cause);
+                }
+            }
+        }
+    }
+
+    private static final class Task<T> implements Runnable {
+        private final Supplier<T> command;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Task(final Supplier<T> command) {
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            try {
+                result.complete(command.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bj.examples.trivia.dto.AdmissionStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounds the number of slash commands in flight, overall and per channel.
+ * A command that would go over the limit is turned away straight away
+ * instead of queueing behind the others, so that under a spike most users
+ * get a quick "try again" rather than everyone getting a slow response.
+ * <p>
+ * Read-only commands, such as <code>status</code>, only get the first
+ * <code>read-only-share</code> of each limit. They are the first to be
+ * turned away, which leaves the rest of the room for answers and marks,
+ * the commands that actually move a game along.
+ */
+@Component
+public class CommandAdmissionControl {
+    private final int maxInFlight;
+    private final int maxInFlightPerChannel;
+    private final int maxReadOnlyInFlight;
+    private final int maxReadOnlyInFlightPerChannel;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentMap<String, AtomicInteger> inFlightByChannel = new ConcurrentHashMap<>();
+    private final AtomicLong admittedCount = new AtomicLong();
+    private final AtomicLong shedCount = new AtomicLong();
+    private final AtomicLong shedReadOnlyCount = new AtomicLong();
+
+    public CommandAdmissionControl(
+            @Value("${trivia.admission.max-in-flight:100}") final int maxInFlight,
+            @Value("${trivia.admission.max-in-flight-per-channel:10}") final int maxInFlightPerChannel,
+            @Value("${trivia.admission.read-only-share:0.5}") final double readOnlyShare
+    ) {
+        this.maxInFlight = maxInFlight;
+        this.maxInFlightPerChannel = maxInFlightPerChannel;
+        this.maxReadOnlyInFlight = Math.max(1, (int)(maxInFlight * readOnlyShare));
+        this.maxReadOnlyInFlightPerChannel = Math.max(1, (int)(maxInFlightPerChannel * readOnlyShare));
+    }
+
+    /**
+     * @return a permit that must be released once the command is done, or
+     * null if the command should be turned away
+     */
+    Permit tryAdmit(final String channelId, final boolean readOnly) {
+        final int limit = readOnly ? maxReadOnlyInFlight : maxInFlight;
+
+        if (inFlight.incrementAndGet() > limit) {
+            inFlight.decrementAndGet();
+            return shed(readOnly);
+        }
+
+        if (channelId != null && !admitToChannel(channelId, readOnly ? maxReadOnlyInFlightPerChannel : maxInFlightPerChannel)) {
+            inFlight.decrementAndGet();
+            return shed(readOnly);
+        }
+
+        admittedCount.incrementAndGet();
+        return new Permit(channelId);
+    }
+
+    public AdmissionStats getStats() {
+        return new AdmissionStats(
+                inFlight.get(),
+                maxInFlight,
+                maxInFlightPerChannel,
+                inFlightByChannel.size(),
+                admittedCount.get(),
+                shedCount.get(),
+                shedReadOnlyCount.get()
+        );
+    }
+
+    private boolean admitToChannel(final String channelId, final int limit) {
+        final boolean[] admitted = new boolean[1];
+
+        inFlightByChannel.compute(channelId, (key, count) -> {
+            if (count == null) {
+                count = new AtomicInteger();
+            }
+
+            if (count.get() < limit) {
+                count.incrementAndGet();
+                admitted[0] = true;
+            }
+
+            return count.get() == 0 ? null : count;
+        });
+
+        return admitted[0];
+    }
+
+    private void release(final String channelId) {
+        inFlight.decrementAndGet();
+
+        if (channelId != null) {
+            //Drop the channel's counter once nothing is in flight for it
+            inFlightByChannel.computeIfPresent(channelId, (key, count) -> count.decrementAndGet() == 0 ? null : count);
+        }
+    }
+
+    private Permit shed(final boolean readOnly) {
+        shedCount.incrementAndGet();
+
+        if (readOnly) {
+            shedReadOnlyCount.incrementAndGet();
+        }
+
+        return null;
+    }
+
+    /**
+     * Room for one command. A command that finishes on another thread
+     * {@link #retain() retains} its permit before handing off, and the
+     * room is given back when the last holder releases it.
+     */
+    final class Permit {
+        private final String channelId;
+        private final AtomicInteger holders = new AtomicInteger(1);
+
+        private Permit(final String channelId) {
+            this.channelId = channelId;
+        }
+
+        void retain() {
+            holders.incrementAndGet();
+        }
+
+        void release() {
+            if (holders.decrementAndGet() == 0) {
+                CommandAdmissionControl.this.release(channelId);
+            }
+        }
+    }
+}
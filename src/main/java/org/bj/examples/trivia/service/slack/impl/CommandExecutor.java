@@ -0,0 +1,83 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bj.examples.trivia.util.ThreadPerTaskExecutor;
+import org.bj.examples.trivia.util.VirtualThreads;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Fixed pool of workers that finish slash commands after Slack has already
+ * been answered with an acknowledgment. Its queue is bounded so that a
+ * stalled backend shows up as {@link RejectedExecutionException} rather
+ * than as a growing backlog of commands nobody is waiting for any more.
+ * <p>
+ * With <code>trivia.threads.virtual</code> on a JVM that has them, each
+ * command gets its own virtual thread instead, and as many commands as the
+ * pool and its queue together would have held run at once rather than
+ * waiting their turn behind a blocked database call.
+ */
+@Component
+public class CommandExecutor implements Executor {
+    private static final Log log = LogFactory.getLog(CommandExecutor.class);
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final ExecutorService executor;
+
+    public CommandExecutor(
+            @Value("${trivia.command.pool-size:4}") final int poolSize,
+            @Value("${trivia.command.queue-capacity:200}") final int queueCapacity,
+            @Value("${trivia.threads.virtual:false}") final boolean virtualThreads
+    ) {
+        if (virtualThreads && !VirtualThreads.isAvailable()) {
+            log.warn("Virtual threads need Java 21 or later; slash commands will run on a pool of " + poolSize + " thread(s).");
+        }
+
+        if (virtualThreads && VirtualThreads.isAvailable()) {
+            this.executor = new ThreadPerTaskExecutor(VirtualThreads.factory("slash-command-"), poolSize + queueCapacity);
+        } else {
+            this.executor = new ThreadPoolExecutor(
+                    poolSize,
+                    poolSize,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity),
+                    new ThreadFactoryBuilder().setNameFormat("slash-command-%d").setDaemon(true).build(),
+                    new ThreadPoolExecutor.AbortPolicy()
+            );
+        }
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        executor.execute(command);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                final int running = executor instanceof ThreadPerTaskExecutor ? ((ThreadPerTaskExecutor) executor).getActiveCount() : 0;
+                log.warn("Abandoning " + (executor.shutdownNow().size() + running) + " slash command(s) on shutdown.");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+/**
+ * The text after a slash command, split into an operator and its arguments
+ * by index rather than by regex. Nothing is copied until an argument is
+ * asked for.
+ * <p>
+ * As with {@link String#trim()}, any character up to and including a space
+ * counts as whitespace.
+ */
+final class CommandLine {
+    private static final CommandLine EMPTY = new CommandLine("", 0, 0, 0);
+
+    private final String text;
+    private final int argumentsStart;
+    private final int argumentsEnd;
+    private final SlashCommand command;
+
+    private CommandLine(final String text, final int operatorStart, final int operatorEnd, final int argumentsEnd) {
+        this.text = text;
+        this.argumentsStart = skipWhitespace(text, operatorEnd, argumentsEnd);
+        this.argumentsEnd = argumentsEnd;
+        this.command = SlashCommand.lookup(text, operatorStart, operatorEnd);
+    }
+
+    static CommandLine parse(final String text) {
+        if (text == null) {
+            return EMPTY;
+        }
+
+        final int start = skipWhitespace(text, 0, text.length());
+        int end = text.length();
+
+        while (end > start && isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+
+        if (start == end) {
+            return EMPTY;
+        }
+
+        return new CommandLine(text, start, skipToken(text, start, end), end);
+    }
+
+    /**
+     * @return the command named by the operator, or null if there is none or it
+     * is not recognized
+     */
+    SlashCommand getCommand() {
+        return command;
+    }
+
+    boolean hasArguments() {
+        return argumentsStart < argumentsEnd;
+    }
+
+    /**
+     * @return everything after the operator, trimmed but with any spacing inside
+     * kept as typed, or an empty string if there is nothing
+     */
+    String getArguments() {
+        return text.substring(argumentsStart, argumentsEnd);
+    }
+
+    /**
+     * @return the first whitespace-delimited argument, or an empty string if
+     * there is none
+     */
+    String getFirstArgument() {
+        return text.substring(argumentsStart, skipToken(text, argumentsStart, argumentsEnd));
+    }
+
+    /**
+     * @return everything after the first argument, trimmed, or null if there is
+     * nothing after it
+     */
+    String getArgumentsAfterFirst() {
+        final int start = skipWhitespace(text, skipToken(text, argumentsStart, argumentsEnd), argumentsEnd);
+
+        return start < argumentsEnd ? text.substring(start, argumentsEnd) : null;
+    }
+
+    private static int skipWhitespace(final String text, int index, final int end) {
+        while (index < end && isWhitespace(text.charAt(index))) {
+            index++;
+        }
+
+        return index;
+    }
+
+    private static int skipToken(final String text, int index, final int end) {
+        while (index < end && !isWhitespace(text.charAt(index))) {
+            index++;
+        }
+
+        return index;
+    }
+
+    private static boolean isWhitespace(final char c) {
+        return c <= ' ';
+    }
+}
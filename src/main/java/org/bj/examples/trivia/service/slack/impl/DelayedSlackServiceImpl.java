@@ -1,27 +1,118 @@
 package org.bj.examples.trivia.service.slack.impl;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.dto.DeliveryStats;
+import org.bj.examples.trivia.dto.SlackResponse;
 import org.bj.examples.trivia.service.slack.DelayedSlackService;
+import org.bj.examples.trivia.util.TokenBucket;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Service
 public class DelayedSlackServiceImpl implements DelayedSlackService {
     private static final Log log = LogFactory.getLog(DelayedSlackServiceImpl.class);
 
-    private final RestTemplate restTemplate;
+    private static final long JOURNAL_COMPACTION_THRESHOLD_BYTES = 4 * 1024 * 1024;
+
+    private final DeliveryExecutor deliveryExecutor;
+    private final DeliveryJournal deliveryJournal;
+    private final ChannelDeliveryQueues channelDeliveryQueues;
 
     @Autowired
-    public DelayedSlackServiceImpl(final RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public DelayedSlackServiceImpl(
+            final SlackWebhookClient webhookClient,
+            final ObjectMapper objectMapper,
+            final DeliveryExecutor deliveryExecutor,
+            @Value("${trivia.delivery.queue-capacity:500}") final int queueCapacity,
+            @Value("${trivia.delivery.rejection-policy:CALLER_RUNS}") final DeliveryRejectionPolicy rejectionPolicy,
+            @Value("${trivia.delivery.retry.initial-backoff-ms:250}") final long initialBackoffMillis,
+            @Value("${trivia.delivery.retry.max-backoff-ms:30000}") final long maxBackoffMillis,
+            @Value("${trivia.delivery.retry.max-attempts:6}") final int maxAttempts,
+            @Value("${trivia.delivery.rate-limit.burst:3}") final int rateLimitBurst,
+            @Value("${trivia.delivery.rate-limit.per-second:1.0}") final double rateLimitPerSecond,
+            @Value("${trivia.delivery.journal-path:${java.io.tmpdir}/trivia-delivery.journal}") final String journalPath
+    ) {
+        this.deliveryExecutor = deliveryExecutor;
+        this.deliveryJournal = new DeliveryJournal(
+                StringUtils.isEmpty(journalPath) ? null : Paths.get(journalPath),
+                objectMapper,
+                JOURNAL_COMPACTION_THRESHOLD_BYTES
+        );
+        this.channelDeliveryQueues = new ChannelDeliveryQueues(
+                deliveryExecutor,
+                deliveryExecutor.getRetryScheduler(),
+                queueCapacity,
+                rejectionPolicy,
+                new ExponentialBackoff(initialBackoffMillis, maxBackoffMillis, maxAttempts),
+                webhookClient::post,
+                deliveryJournal::acknowledge,
+                () -> new TokenBucket(rateLimitBurst, rateLimitPerSecond)
+        );
+    }
+
+    @PostConstruct
+    public void replayJournal() throws IOException {
+        final List<Delivery> undelivered = deliveryJournal.open();
+
+        for (final Delivery delivery : undelivered) {
+            submit(delivery);
+        }
     }
 
-    public void sendResponse(final String url, final SlackResponseDoc responseDoc) {
+    @PreDestroy
+    public void shutdown() {
+        //Let queued sends start and settle; anything still unacknowledged is replayed on the next start
+        deliveryExecutor.shutdown();
+        deliveryJournal.close();
+    }
+
+    @Override
+    public void sendResponse(final String channelId, final String url, final SlackResponse responseDoc) {
         log.info("Sending message to URL \"" + url + "\".");
 
-        new Thread(() -> restTemplate.postForObject(url, responseDoc, String.class)).start();
+        //Without a channel, the best we can do is keep the messages for a single command in order
+        final String channelKey = channelId == null ? url : channelId;
+
+        submit(deliveryJournal.append(channelKey, url, responseDoc));
+    }
+
+    @Override
+    public DeliveryStats getDeliveryStats() {
+        return new DeliveryStats(
+                deliveryExecutor.getPoolSize(),
+                deliveryExecutor.getActiveCount(),
+                channelDeliveryQueues.getActiveChannelCount(),
+                channelDeliveryQueues.getPendingCount(),
+                channelDeliveryQueues.getCapacity(),
+                channelDeliveryQueues.getCompletedCount(),
+                channelDeliveryQueues.getRetriedCount(),
+                channelDeliveryQueues.getFailedCount(),
+                channelDeliveryQueues.getRejectedCount(),
+                channelDeliveryQueues.getThrottledCount(),
+                channelDeliveryQueues.getCoalescedCount(),
+                deliveryJournal.isHealthy(),
+                deliveryJournal.getFailureCount()
+        );
+    }
+
+    private void submit(final Delivery delivery) {
+        try {
+            channelDeliveryQueues.submit(delivery);
+        } catch (RejectedExecutionException e) {
+            log.error("Dropping message to URL \"" + delivery.getUrl() + "\": " + e.getMessage());
+        }
     }
 }
@@ -0,0 +1,102 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bj.examples.trivia.dto.SlackResponse;
+
+/**
+ * A single delayed message on its way to a Slack <code>response_url</code>.
+ * The mutable state is only touched by the channel's drain, which never
+ * runs on two threads at once.
+ * <p>
+ * While a channel is throttled, the messages waiting behind a delivery may
+ * be folded into it. The folded deliveries ride along and finish with it.
+ */
+final class Delivery {
+    private final long id;
+    private final String channelKey;
+    private final String url;
+    private SlackResponse responseDoc;
+    private List<Delivery> coalesced = Collections.emptyList();
+    private int attempts;
+    private long retryAfterMillis;
+    private boolean throttled;
+
+    Delivery(final long id, final String channelKey, final String url, final SlackResponse responseDoc) {
+        this.id = id;
+        this.channelKey = channelKey;
+        this.url = url;
+        this.responseDoc = responseDoc;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    String getChannelKey() {
+        return channelKey;
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    SlackResponse getResponseDoc() {
+        return responseDoc;
+    }
+
+    int getAttempts() {
+        return attempts;
+    }
+
+    int recordAttempt() {
+        return ++attempts;
+    }
+
+    /**
+     * @return how long Slack asked us to wait after the last attempt, or 0
+     * if it didn't say
+     */
+    long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    void setRetryAfterMillis(final long retryAfterMillis) {
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return whether this delivery has been held back by its channel's
+     * rate limit
+     */
+    boolean wasThrottled() {
+        return throttled;
+    }
+
+    void markThrottled() {
+        throttled = true;
+    }
+
+    /**
+     * @return the deliveries that were folded into this one
+     */
+    List<Delivery> getCoalesced() {
+        return coalesced;
+    }
+
+    boolean canCoalesce(final Delivery next) {
+        return ResponseDocCoalescer.canCoalesce(responseDoc, next.responseDoc);
+    }
+
+    void coalesce(final Delivery next) {
+        if (coalesced.isEmpty()) {
+            coalesced = new ArrayList<>();
+        }
+
+        responseDoc = ResponseDocCoalescer.coalesce(responseDoc, next.responseDoc);
+        coalesced.add(next);
+        coalesced.addAll(next.coalesced);
+    }
+}
@@ -0,0 +1,115 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bj.examples.trivia.util.ThreadPerTaskExecutor;
+import org.bj.examples.trivia.util.VirtualThreads;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Fixed pool of workers that post delayed Slack messages. Work is handed
+ * to it one channel at a time by {@link ChannelDeliveryQueues}, which is
+ * also where the number of pending messages is bounded, so its own queue
+ * never holds more than one task per channel. Retries wait on a separate
+ * single-threaded scheduler so that a backoff never ties up a worker.
+ * <p>
+ * With <code>trivia.threads.virtual</code> on a JVM that has them, every
+ * channel being drained gets its own virtual thread instead of waiting for
+ * one of the pool's workers, so a slow Slack post holds up only its own
+ * channel.
+ */
+@Component
+public class DeliveryExecutor implements Executor {
+    private static final Log log = LogFactory.getLog(DeliveryExecutor.class);
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final ExecutorService executor;
+    private final ScheduledThreadPoolExecutor retryScheduler;
+
+    public DeliveryExecutor(
+            @Value("${trivia.delivery.pool-size:2}") final int poolSize,
+            @Value("${trivia.threads.virtual:false}") final boolean virtualThreads
+    ) {
+        if (virtualThreads && !VirtualThreads.isAvailable()) {
+            log.warn("Virtual threads need Java 21 or later; Slack messages will be posted by a pool of " + poolSize + " thread(s).");
+        }
+
+        if (virtualThreads && VirtualThreads.isAvailable()) {
+            //The channel queues already bound the work to one task per channel
+            this.executor = new ThreadPerTaskExecutor(VirtualThreads.factory("slack-delivery-"), Integer.MAX_VALUE);
+        } else {
+            this.executor = new ThreadPoolExecutor(
+                    poolSize,
+                    poolSize,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(),
+                    new ThreadFactoryBuilder().setNameFormat("slack-delivery-%d").setDaemon(true).build()
+            );
+        }
+
+        this.retryScheduler = new ScheduledThreadPoolExecutor(
+                1,
+                new ThreadFactoryBuilder().setNameFormat("slack-delivery-retry-%d").setDaemon(true).build()
+        );
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        executor.execute(command);
+    }
+
+    public ScheduledExecutorService getRetryScheduler() {
+        return retryScheduler;
+    }
+
+    /**
+     * @return the number of threads, which with virtual threads is the
+     * number of channels being posted to
+     */
+    public int getPoolSize() {
+        if (executor instanceof ThreadPerTaskExecutor) {
+            return ((ThreadPerTaskExecutor) executor).getActiveCount();
+        }
+
+        return ((ThreadPoolExecutor) executor).getPoolSize();
+    }
+
+    public int getActiveCount() {
+        if (executor instanceof ThreadPerTaskExecutor) {
+            return ((ThreadPerTaskExecutor) executor).getActiveCount();
+        }
+
+        return ((ThreadPoolExecutor) executor).getActiveCount();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        //Pending retries are still in the journal and will be replayed on the next start
+        retryScheduler.shutdownNow();
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Abandoning " + executor.shutdownNow().size() + " channel(s) with undelivered Slack messages on shutdown.");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
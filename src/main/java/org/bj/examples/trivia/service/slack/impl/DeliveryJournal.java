@@ -0,0 +1,381 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bj.examples.trivia.dto.SlackResponse;
+import org.bj.examples.trivia.dto.SlackResponseDoc;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Append-only journal of delayed messages, one JSON record per line. A
+ * <code>SEND</code> record is written when a message is queued and an
+ * <code>ACK</code> record once it has left the queue for good, so whatever
+ * is unacknowledged when the app stops gets replayed on the next start.
+ * <p>
+ * Records are written by a single background thread that takes everything
+ * queued since its last write and syncs it with one <code>fsync</code>
+ * (group commit), so appending never blocks the caller on the disk. Once
+ * enough has been written, the journal is compacted down to the records
+ * that are still pending.
+ * <p>
+ * A write that fails leaves the journal unhealthy rather than stopping the
+ * writer. The writer keeps track of what is pending regardless, and keeps
+ * trying to compact the journal, which writes all of it out afresh, until
+ * that succeeds and the journal is durable again.
+ */
+class DeliveryJournal {
+    private static final Log log = LogFactory.getLog(DeliveryJournal.class);
+
+    private static final String TYPE_KEY = "type";
+    private static final String ID_KEY = "id";
+    private static final String CHANNEL_KEY_KEY = "channelKey";
+    private static final String URL_KEY = "url";
+    private static final String BODY_KEY = "body";
+
+    private static final String SEND_TYPE = "SEND";
+    private static final String ACK_TYPE = "ACK";
+
+    private static final int MAX_BATCH_SIZE = 512;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final long RETRY_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final long compactionThresholdBytes;
+
+    private final BlockingQueue<Record> records = new LinkedBlockingQueue<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLong failureCount = new AtomicLong();
+
+    //Only touched by the writer thread once the journal is open
+    private final Map<Long, byte[]> pendingLinesById = new LinkedHashMap<>();
+    private FileChannel channel;
+    private long bytesSinceCompaction;
+    private long nextRetryNanos;
+
+    private volatile boolean running;
+    private volatile boolean healthy = true;
+    private Thread writer;
+
+    /**
+     * @param path where to keep the journal, or null to keep nothing
+     */
+    DeliveryJournal(final Path path, final ObjectMapper objectMapper, final long compactionThresholdBytes) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.compactionThresholdBytes = compactionThresholdBytes;
+    }
+
+    /**
+     * Reads back whatever was left pending by the last run, compacts the
+     * file and starts accepting new records.
+     *
+     * @return the deliveries that were never acknowledged, oldest first
+     */
+    List<Delivery> open() throws IOException {
+        final List<Delivery> recovered = new ArrayList<>();
+
+        if (path == null) {
+            return recovered;
+        }
+
+        if (Files.exists(path)) {
+            readPending();
+        }
+
+        for (final byte[] line : pendingLinesById.values()) {
+            recovered.add(toDelivery(objectMapper.readTree(line)));
+        }
+
+        compact();
+
+        running = true;
+        writer = new Thread(this::writeLoop, "slack-delivery-journal");
+        writer.setDaemon(true);
+        writer.start();
+
+        return recovered;
+    }
+
+    Delivery append(final String channelKey, final String url, final SlackResponse responseDoc) {
+        final Delivery delivery = new Delivery(nextId.getAndIncrement(), channelKey, url, responseDoc);
+
+        if (running) {
+            final ObjectNode node = objectMapper.createObjectNode();
+            node.put(TYPE_KEY, SEND_TYPE);
+            node.put(ID_KEY, delivery.getId());
+            node.put(CHANNEL_KEY_KEY, channelKey);
+            node.put(URL_KEY, url);
+            node.set(BODY_KEY, objectMapper.valueToTree(responseDoc));
+
+            records.add(new Record(delivery.getId(), false, toLine(node)));
+        }
+
+        return delivery;
+    }
+
+    void acknowledge(final Delivery delivery) {
+        if (running) {
+            final ObjectNode node = objectMapper.createObjectNode();
+            node.put(TYPE_KEY, ACK_TYPE);
+            node.put(ID_KEY, delivery.getId());
+
+            records.add(new Record(delivery.getId(), true, toLine(node)));
+        }
+    }
+
+    /**
+     * @return false while records can not be written, in which case they
+     * would be lost if the app stopped
+     */
+    boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * @return how many writes and compactions have failed
+     */
+    long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * Writes out anything still queued and closes the file.
+     */
+    void close() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        final List<Record> batch = new ArrayList<>(MAX_BATCH_SIZE);
+
+        try {
+            while (running || !records.isEmpty()) {
+                final Record first = records.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+                if (first != null) {
+                    batch.clear();
+                    batch.add(first);
+                    records.drainTo(batch, MAX_BATCH_SIZE - 1);
+
+                    write(batch);
+                }
+
+                if (healthy ? bytesSinceCompaction >= compactionThresholdBytes : System.nanoTime() - nextRetryNanos >= 0) {
+                    tryCompact();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            //Nothing writes records any more, so stop queueing them
+            running = false;
+            closeChannel();
+        }
+    }
+
+    private void tryCompact() {
+        try {
+            compact();
+        } catch (IOException e) {
+            onFailure("Failed to compact delivery journal \"" + path + "\".", e);
+            return;
+        }
+
+        if (!healthy) {
+            healthy = true;
+            log.info("Delivery journal \"" + path + "\" is being written again.");
+        }
+    }
+
+    /**
+     * Logs the first of a run of failures, and has compaction retried a
+     * little later
+     */
+    private void onFailure(final String message, final IOException e) {
+        failureCount.incrementAndGet();
+        nextRetryNanos = System.nanoTime() + RETRY_INTERVAL_NANOS;
+
+        if (healthy) {
+            healthy = false;
+            log.error(message + " Undelivered messages will not survive a restart until it can be written again.", e);
+        }
+    }
+
+    private void write(final List<Record> batch) {
+        int size = 0;
+
+        for (final Record record : batch) {
+            size += record.line.length;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+
+        for (final Record record : batch) {
+            buffer.put(record.line);
+
+            if (record.ack) {
+                pendingLinesById.remove(record.id);
+            } else {
+                pendingLinesById.put(record.id, record.line);
+            }
+        }
+
+        buffer.flip();
+
+        //Until it is compacted again, the file may be missing records, so more of them would not help
+        if (!healthy) {
+            return;
+        }
+
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            //One sync for the whole batch
+            channel.force(false);
+            bytesSinceCompaction += size;
+        } catch (IOException e) {
+            onFailure("Failed to write " + batch.size() + " record(s) to delivery journal \"" + path + "\".", e);
+        }
+    }
+
+    /**
+     * Rewrites the journal with only the records that are still pending and
+     * swaps it in atomically.
+     */
+    private void compact() throws IOException {
+        closeChannel();
+
+        final Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (final byte[] line : pendingLinesById.values()) {
+                final ByteBuffer buffer = ByteBuffer.wrap(line);
+
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+
+            out.force(true);
+        }
+
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        bytesSinceCompaction = 0;
+    }
+
+    private void readPending() throws IOException {
+        long maxId = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                final JsonNode node;
+
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    //Most likely the tail of a write that was cut off by a crash
+                    log.warn("Skipping unreadable record in delivery journal \"" + path + "\".");
+                    continue;
+                }
+
+                if (node == null || !node.has(ID_KEY)) {
+                    continue;
+                }
+
+                final long id = node.get(ID_KEY).asLong();
+                maxId = Math.max(maxId, id);
+
+                if (ACK_TYPE.equals(node.path(TYPE_KEY).asText())) {
+                    pendingLinesById.remove(id);
+                } else {
+                    pendingLinesById.put(id, (line + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        nextId.set(maxId + 1);
+        log.info("Recovered " + pendingLinesById.size() + " undelivered message(s) from \"" + path + "\".");
+    }
+
+    private Delivery toDelivery(final JsonNode node) throws IOException {
+        return new Delivery(
+                node.get(ID_KEY).asLong(),
+                node.path(CHANNEL_KEY_KEY).asText(null),
+                node.path(URL_KEY).asText(null),
+                objectMapper.treeToValue(node.get(BODY_KEY), SlackResponseDoc.class)
+        );
+    }
+
+    private byte[] toLine(final ObjectNode node) {
+        try {
+            return (objectMapper.writeValueAsString(node) + "\n").getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to journal delivery record.", e);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close delivery journal \"" + path + "\".", e);
+        }
+
+        channel = null;
+    }
+
+    private static final class Record {
+        private final long id;
+        private final boolean ack;
+        private final byte[] line;
+
+        private Record(final long id, final boolean ack, final byte[] line) {
+            this.id = id;
+            this.ack = ack;
+            this.line = line;
+        }
+    }
+}
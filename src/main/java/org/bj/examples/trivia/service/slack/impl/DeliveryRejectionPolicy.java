@@ -0,0 +1,31 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+/**
+ * What to do with a delayed message when the delivery queue is already
+ * holding as many pending messages as it is allowed to.
+ */
+public enum DeliveryRejectionPolicy {
+    /**
+     * Post the message on the request thread instead. Nothing is lost, but
+     * the slash command waits on the outbound call and the message may
+     * overtake ones still queued for its channel.
+     */
+    CALLER_RUNS,
+
+    /**
+     * Drop the new message.
+     */
+    DISCARD,
+
+    /**
+     * Drop the oldest message still waiting in the same channel to make
+     * room for the new one. If nothing is waiting there, the new message
+     * is dropped instead.
+     */
+    DISCARD_OLDEST,
+
+    /**
+     * Fail the send with a {@link java.util.concurrent.RejectedExecutionException}.
+     */
+    ABORT
+}
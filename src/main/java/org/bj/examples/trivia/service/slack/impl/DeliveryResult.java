@@ -0,0 +1,22 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+/**
+ * Outcome of one attempt to post a {@link Delivery}.
+ */
+enum DeliveryResult {
+    /**
+     * Slack accepted the message.
+     */
+    DELIVERED,
+
+    /**
+     * The attempt failed in a way that may succeed later, e.g. a timeout,
+     * a 5xx or a 429.
+     */
+    RETRY,
+
+    /**
+     * Slack rejected the message outright; sending it again won't help.
+     */
+    FAILED
+}
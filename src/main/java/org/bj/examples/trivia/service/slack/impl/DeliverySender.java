@@ -0,0 +1,13 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Sends a single delivery. The returned stage completes once the outcome
+ * is known, so a sender doing I/O doesn't have to hold a thread while it
+ * waits.
+ */
+@FunctionalInterface
+interface DeliverySender {
+    CompletionStage<DeliveryResult> send(final Delivery delivery);
+}
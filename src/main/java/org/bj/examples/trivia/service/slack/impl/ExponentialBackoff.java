@@ -0,0 +1,48 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Exponential backoff with "full jitter": the n-th retry waits a random
+ * time between zero and <code>min(maxDelay, initialDelay * 2^(n-1))</code>,
+ * which keeps a burst of failed deliveries from retrying in lockstep.
+ */
+class ExponentialBackoff {
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+    private final int maxAttempts;
+    private final Supplier<Random> random;
+
+    ExponentialBackoff(final long initialDelayMillis, final long maxDelayMillis, final int maxAttempts) {
+        this(initialDelayMillis, maxDelayMillis, maxAttempts, ThreadLocalRandom::current);
+    }
+
+    ExponentialBackoff(final long initialDelayMillis, final long maxDelayMillis, final int maxAttempts, final Supplier<Random> random) {
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxAttempts = maxAttempts;
+        this.random = random;
+    }
+
+    /**
+     * @param attempts the number of attempts made so far
+     * @return whether another attempt is allowed
+     */
+    boolean canRetry(final int attempts) {
+        return attempts < maxAttempts;
+    }
+
+    /**
+     * @param attempts the number of attempts made so far, at least 1
+     * @return how long to wait before the next attempt
+     */
+    long delayMillis(final int attempts) {
+        //Cap the shift so the multiplication can't overflow
+        final int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        final long ceiling = Math.min(maxDelayMillis, initialDelayMillis << exponent);
+
+        return (long)(random.get().nextDouble() * (ceiling + 1));
+    }
+}
@@ -0,0 +1,90 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.bj.examples.trivia.dto.SlackRequestDoc;
+import org.bj.examples.trivia.dto.SlackResponse;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Remembers the response to each slash command for a short while, so that
+ * a command Slack sends again because we were slow to answer it is not run
+ * twice, e.g. an answer recorded twice or a point awarded twice. A
+ * redelivery gets the original response back instead. If it arrives while
+ * the original is still running, it shares the original's pending response
+ * rather than starting the command again.
+ * <p>
+ * A command is recognized by its team, channel, user and text, plus the
+ * <code>trigger_id</code> Slack issues for each invocation. Commands that
+ * fail are not remembered, so a redelivery gets another go.
+ */
+class RedeliveryCache {
+    private final Cache<String, CompletableFuture<SlackResponse>> responsesByFingerprint;
+
+    RedeliveryCache(final long windowMillis, final long maximumSize) {
+        this.responsesByFingerprint = CacheBuilder.newBuilder()
+                .expireAfterWrite(windowMillis, TimeUnit.MILLISECONDS)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * @param command starts the command; it runs on the calling thread only
+     *                until it has a response or has handed off
+     */
+    CompletableFuture<SlackResponse> get(
+            final SlackRequestDoc requestDoc,
+            final Supplier<CompletableFuture<SlackResponse>> command
+    ) {
+        final String fingerprint = fingerprint(requestDoc);
+        final CompletableFuture<SlackResponse> response;
+
+        try {
+            response = responsesByFingerprint.get(fingerprint, command::get);
+        } catch (UncheckedExecutionException | ExecutionError e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+
+            throw e;
+        } catch (ExecutionException e) {
+            //The command cannot throw checked exceptions
+            throw new IllegalStateException(e.getCause());
+        }
+
+        response.whenComplete((responseDoc, e) -> {
+            if (e != null) {
+                responsesByFingerprint.asMap().remove(fingerprint, response);
+            }
+        });
+
+        return response;
+    }
+
+    long size() {
+        return responsesByFingerprint.size();
+    }
+
+    static String fingerprint(final SlackRequestDoc requestDoc) {
+        //The text goes last since it is the only part that can contain the separator
+        return new StringBuilder(128)
+                .append(requestDoc.getTeamId()).append('|')
+                .append(requestDoc.getChannelId()).append('|')
+                .append(requestDoc.getUserId()).append('|')
+                .append(requestDoc.getTriggerId()).append('|')
+                .append(requestDoc.getCommand()).append('|')
+                .append(requestDoc.getText())
+                .toString();
+    }
+}
@@ -0,0 +1,68 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bj.examples.trivia.dto.SlackAttachment;
+import org.bj.examples.trivia.dto.SlackResponse;
+import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponseType;
+import org.springframework.util.StringUtils;
+
+/**
+ * Folds several channel messages into one so that a throttled channel
+ * catches up in a single post. The first message keeps its text; each
+ * message after it becomes attachments of its own, with its text shown
+ * above them, e.g. a run of "<@U> answers:" posts turns into one message
+ * with an attachment per answer.
+ */
+final class ResponseDocCoalescer {
+    /**
+     * Slack allows up to 100 attachments, but a wall of them is hard to read
+     */
+    static final int MAX_ATTACHMENTS = 20;
+
+    private ResponseDocCoalescer() {
+    }
+
+    /**
+     * Only channel messages are merged. Ephemeral ones are addressed to a
+     * single user through their own <code>response_url</code>.
+     */
+    static boolean canCoalesce(final SlackResponse first, final SlackResponse second) {
+        return first.getResponseType() == SlackResponseType.IN_CHANNEL
+                && second.getResponseType() == SlackResponseType.IN_CHANNEL
+                && attachmentCount(first) + Math.max(attachmentCount(second), 1) <= MAX_ATTACHMENTS;
+    }
+
+    static SlackResponse coalesce(final SlackResponse first, final SlackResponse second) {
+        final List<SlackAttachment> attachments = new ArrayList<>();
+
+        if (first.getAttachments() != null) {
+            attachments.addAll(first.getAttachments());
+        }
+
+        if (second.getAttachments() == null || second.getAttachments().isEmpty()) {
+            if (StringUtils.hasText(second.getText())) {
+                attachments.add(new SlackAttachment(second.getText()));
+            }
+        } else {
+            final List<SlackAttachment> secondAttachments = second.getAttachments();
+
+            attachments.add(StringUtils.hasText(second.getText())
+                    ? secondAttachments.get(0).withPretext(second.getText())
+                    : secondAttachments.get(0));
+            attachments.addAll(secondAttachments.subList(1, secondAttachments.size()));
+        }
+
+        final SlackResponseDoc coalesced = new SlackResponseDoc();
+        coalesced.setResponseType(first.getResponseType());
+        coalesced.setText(first.getText());
+        coalesced.setAttachments(attachments);
+        return coalesced;
+    }
+
+    private static int attachmentCount(final SlackResponse responseDoc) {
+        return responseDoc.getAttachments() == null ? 0 : responseDoc.getAttachments().size();
+    }
+}
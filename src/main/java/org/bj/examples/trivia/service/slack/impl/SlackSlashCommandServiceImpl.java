@@ -1,91 +1,257 @@
 package org.bj.examples.trivia.service.slack.impl;
 
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bj.examples.trivia.dto.AdmissionStats;
+import org.bj.examples.trivia.dto.PreSerializedResponseDoc;
 import org.bj.examples.trivia.dto.SlackAttachment;
 import org.bj.examples.trivia.dto.SlackRequestDoc;
+import org.bj.examples.trivia.dto.SlackResponse;
 import org.bj.examples.trivia.dto.SlackResponseDoc;
 import org.bj.examples.trivia.dto.SlackResponseType;
 import org.bj.examples.trivia.service.game.TriviaGameService;
+import org.bj.examples.trivia.service.slack.DelayedSlackService;
 import org.bj.examples.trivia.service.slack.SlackSlashCommandService;
+import org.bj.examples.trivia.util.CommandResponseCache;
+import org.bj.examples.trivia.util.HighResolutionClock;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
 
+/**
+ * Runs slash commands either on the request thread or, for the commands
+ * configured under <code>trivia.command.async</code>, on the
+ * {@link CommandExecutor}. An async command is answered straight away with
+ * an acknowledgment so that a slow backend never runs into Slack's
+ * three-second deadline, and its real response is posted to the
+ * <code>response_url</code> once it is ready.
+ * <p>
+ * Either way, commands for the same channel go through the channel's
+ * mailbox and run one at a time, so that concurrent answers cannot
+ * overwrite each other's update to the channel's workflow.
+ * <p>
+ * A command that Slack delivers again is answered from the
+ * {@link RedeliveryCache} rather than run twice.
+ * <p>
+ * Commands past the limits of the {@link CommandAdmissionControl} are
+ * turned away with a "busy" response before any of that happens.
+ */
 @Service
 public class SlackSlashCommandServiceImpl implements SlackSlashCommandService {
+    private static final Log log = LogFactory.getLog(SlackSlashCommandServiceImpl.class);
+
+    private static final SlackResponse ACKNOWLEDGED = PreSerializedResponseDoc.of(SlackResponseType.EPHEMERAL, "Working on it...");
+    private static final SlackResponse BUSY = PreSerializedResponseDoc.of(
+            SlackResponseType.EPHEMERAL,
+            "Trivia is busy right now. Please try again in a moment."
+    );
+    private static final String COMMAND_FAILED_FORMAT = "Sorry, `%s %s` failed. Please try again.";
+
     private final TriviaGameService triviaGameService;
+    private final DelayedSlackService delayedSlackService;
+    private final ChannelMailboxes mailboxes;
+    private final RedeliveryCache redeliveries;
+    private final CommandAdmissionControl admissionControl;
+    private final Set<SlashCommand> asyncCommands = EnumSet.noneOf(SlashCommand.class);
+    private final CommandHandler[] handlers = new CommandHandler[SlashCommand.values().length];
+
+    //Help text only varies by the slash command it was invoked with, e.g. "/trivia"
+    private final CommandResponseCache usageResponses = new CommandResponseCache(SlackSlashCommandServiceImpl::getUsageFormat);
+    private final CommandResponseCache passFormatResponses = new CommandResponseCache(SlackSlashCommandServiceImpl::getPassFormat);
+    private final CommandResponseCache submitQuestionFormatResponses = new CommandResponseCache(SlackSlashCommandServiceImpl::getSubmitQuestionFormat);
+    private final CommandResponseCache submitAnswerFormatResponses = new CommandResponseCache(SlackSlashCommandServiceImpl::getSubmitAnswerFormat);
+    private final CommandResponseCache markAnswerCorrectFormatResponses = new CommandResponseCache(SlackSlashCommandServiceImpl::getMarkAnswerCorrectFormat);
+    private final CommandResponseCache timerFormatResponses = new CommandResponseCache(SlackSlashCommandServiceImpl::getTimerFormat);
 
     @Autowired
-    public SlackSlashCommandServiceImpl(final TriviaGameService triviaGameService) {
+    public SlackSlashCommandServiceImpl(
+            final TriviaGameService triviaGameService,
+            final DelayedSlackService delayedSlackService,
+            final ChannelMailboxes mailboxes,
+            final CommandAdmissionControl admissionControl,
+            @Value("${trivia.command.async:correct,scores,reset}") final String[] asyncOperators,
+            @Value("${trivia.command.redelivery.window-ms:60000}") final long redeliveryWindowMillis,
+            @Value("${trivia.command.redelivery.max-size:10000}") final long redeliveryMaxSize
+    ) {
         this.triviaGameService = triviaGameService;
+        this.delayedSlackService = delayedSlackService;
+        this.mailboxes = mailboxes;
+        this.redeliveries = new RedeliveryCache(redeliveryWindowMillis, redeliveryMaxSize);
+        this.admissionControl = admissionControl;
+
+        for (final String operator : asyncOperators) {
+            if (!operator.trim().isEmpty()) {
+                asyncCommands.add(SlashCommand.forOperator(operator));
+            }
+        }
+
+        handle(SlashCommand.START, (requestDoc, line) ->
+                triviaGameService.start(requestDoc, line.hasArguments() ? line.getArguments() : null));
+        handle(SlashCommand.AUTO, (requestDoc, line) ->
+                triviaGameService.startAuto(requestDoc, line.hasArguments() ? line.getArguments() : null));
+        handle(SlashCommand.STOP, (requestDoc, line) -> triviaGameService.stop(requestDoc));
+        handle(SlashCommand.JOIN, (requestDoc, line) -> triviaGameService.join(requestDoc));
+        handle(SlashCommand.PASS, (requestDoc, line) -> triviaGameService.pass(requestDoc, line.getArguments()));
+        handle(SlashCommand.QUESTION, (requestDoc, line) -> triviaGameService.submitQuestion(requestDoc, line.getArguments()));
+        handle(SlashCommand.ANSWER, (requestDoc, line) -> triviaGameService.submitAnswer(requestDoc, line.getArguments()));
+        handle(SlashCommand.CORRECT, (requestDoc, line) ->
+                triviaGameService.markAnswerCorrect(requestDoc, line.getFirstArgument(), line.getArgumentsAfterFirst()));
+        handle(SlashCommand.TIMER, (requestDoc, line) -> triviaGameService.setRoundTimeout(requestDoc, line.getArguments()));
+        handle(SlashCommand.STATUS, (requestDoc, line) -> triviaGameService.getStatus(requestDoc));
+        handle(SlashCommand.SCORES, (requestDoc, line) -> triviaGameService.getScores(requestDoc));
+        handle(SlashCommand.RESET, (requestDoc, line) -> triviaGameService.resetScores(requestDoc));
     }
 
     @Override
-    public SlackResponseDoc processSlashCommand(final SlackRequestDoc requestDoc) {
-        //First thing, capture the timestamp
-        requestDoc.setRequestTime(LocalDateTime.now(ZoneId.of("UTC")));
+    public SlackResponse processSlashCommand(final SlackRequestDoc requestDoc) {
+        try {
+            return process(requestDoc).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
 
-        String commandText = requestDoc.getText() == null ? "" : requestDoc.getText().trim();
-        final String[] commandParts = commandText.split("\\s+");
+            throw e;
+        }
+    }
+
+    @Override
+    public AdmissionStats getAdmissionStats() {
+        return admissionControl.getStats();
+    }
+
+    private CompletableFuture<SlackResponse> process(final SlackRequestDoc requestDoc) {
+        //The time the request arrived, unless the web layer already stamped it on the way in
+        if (requestDoc.getRequestTime() == null) {
+            requestDoc.setRequestTime(HighResolutionClock.now());
+        }
 
-        String operator = null;
+        final CommandLine line = CommandLine.parse(requestDoc.getText());
+        final SlashCommand command = line.getCommand();
 
-        if (commandParts.length >= 1) {
-            operator = commandParts[0];
-            commandText = commandText.substring(operator.length(), commandText.length()).trim();
+        if (command == null) {
+            return CompletableFuture.completedFuture(usageResponses.get(requestDoc.getCommand()));
         }
 
-        switch (operator) {
-            case "start":
-                return triviaGameService.start(requestDoc, StringUtils.isEmpty(commandText) ? null : commandText);
-            case "stop":
-                return triviaGameService.stop(requestDoc);
-            case "join":
-                return triviaGameService.join(requestDoc);
-            case "pass":
-                if (commandParts.length < 2) {
-                    return getPassFormat(requestDoc.getCommand());
-                }
-
-                return triviaGameService.pass(requestDoc, commandText);
-            case "question":
-                if (commandParts.length < 2) {
-                    return getSubmitQuestionFormat(requestDoc.getCommand());
-                }
-
-                return triviaGameService.submitQuestion(requestDoc, commandText);
-            case "answer":
-                if (commandParts.length < 2) {
-                    return getSubmitAnswerFormat(requestDoc.getCommand());
-                }
-
-                return triviaGameService.submitAnswer(requestDoc, commandText);
-            case "correct":
-                if (commandParts.length < 2) {
-                    return getMarkAnswerCorrectFormat(requestDoc.getCommand());
-                }
-
-                return triviaGameService.markAnswerCorrect(
-                        requestDoc,
-                        commandParts[1],
-                        commandParts.length > 2 ? commandText.substring(commandParts[1].length(), commandText.length()).trim() : null
-                );
-            case "status":
-                return triviaGameService.getStatus(requestDoc);
-            case "scores":
-                return triviaGameService.getScores(requestDoc);
-            case "reset":
-                return triviaGameService.resetScores(requestDoc);
+        if (command.requiresArguments() && !line.hasArguments()) {
+            return CompletableFuture.completedFuture(getArgumentsFormat(command, requestDoc.getCommand()));
         }
 
-        return getUsageFormat(requestDoc.getCommand());
+        final CommandAdmissionControl.Permit permit = admissionControl.tryAdmit(requestDoc.getChannelId(), command.isReadOnly());
+
+        if (permit == null) {
+            return CompletableFuture.completedFuture(BUSY);
+        }
+
+        final CompletableFuture<SlackResponse> response;
+
+        try {
+            response = redeliveries.get(requestDoc, () -> dispatch(command, line, requestDoc, permit));
+        } catch (RejectedExecutionException e) {
+            permit.release();
+            log.warn("Command pool is full, turning away `" + command.getOperator() + "`.");
+            return CompletableFuture.completedFuture(BUSY);
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+
+        response.whenComplete((responseDoc, e) -> permit.release());
+        return response;
     }
 
-    private SlackResponseDoc getPassFormat(final String command) {
+    private CompletableFuture<SlackResponse> dispatch(
+            final SlashCommand command,
+            final CommandLine line,
+            final SlackRequestDoc requestDoc,
+            final CommandAdmissionControl.Permit permit
+    ) {
+        final CommandHandler handler = handlers[command.ordinal()];
+        final String channelId = requestDoc.getChannelId();
+
+        if (asyncCommands.contains(command) && requestDoc.getResponseUrl() != null) {
+            //The command stays in flight until it is done, not just until it is acknowledged
+            permit.retain();
+
+            try {
+                mailboxes.submit(channelId, () -> handler.handle(requestDoc, line))
+                        .whenComplete((responseDoc, e) -> {
+                            try {
+                                respondLater(command, requestDoc, responseDoc, e);
+                            } finally {
+                                permit.release();
+                            }
+                        });
+                return CompletableFuture.completedFuture(ACKNOWLEDGED);
+            } catch (RejectedExecutionException e) {
+                permit.release();
+                log.warn("Command pool is full, running `" + command.getOperator() + "` on the request thread.");
+            }
+        }
+
+        final CompletableFuture<SlackResponse> response = new CompletableFuture<>();
+
+        try {
+            response.complete(mailboxes.call(channelId, () -> handler.handle(requestDoc, line)));
+        } catch (RejectedExecutionException e) {
+            //Gave up waiting for the channel, which is turned away like a full pool
+            throw e;
+        } catch (RuntimeException e) {
+            response.completeExceptionally(e);
+        }
+
+        return response;
+    }
+
+    private void respondLater(
+            final SlashCommand command,
+            final SlackRequestDoc requestDoc,
+            final SlackResponse responseDoc,
+            final Throwable e
+    ) {
+        if (e != null) {
+            log.error("Failed to run `" + command.getOperator() + "` for channel " + requestDoc.getChannelId() + ".", e);
+            delayedSlackService.sendResponse(
+                    requestDoc.getChannelId(),
+                    requestDoc.getResponseUrl(),
+                    SlackResponseDoc.failure(String.format(COMMAND_FAILED_FORMAT, requestDoc.getCommand(), command.getOperator()))
+            );
+            return;
+        }
+
+        delayedSlackService.sendResponse(requestDoc.getChannelId(), requestDoc.getResponseUrl(), responseDoc);
+    }
+
+    private void handle(final SlashCommand command, final CommandHandler handler) {
+        handlers[command.ordinal()] = handler;
+    }
+
+    private SlackResponse getArgumentsFormat(final SlashCommand slashCommand, final String command) {
+        switch (slashCommand) {
+            case PASS:
+                return passFormatResponses.get(command);
+            case QUESTION:
+                return submitQuestionFormatResponses.get(command);
+            case ANSWER:
+                return submitAnswerFormatResponses.get(command);
+            case CORRECT:
+                return markAnswerCorrectFormatResponses.get(command);
+            case TIMER:
+                return timerFormatResponses.get(command);
+            default:
+                return usageResponses.get(command);
+        }
+    }
+
+    private static SlackResponseDoc getPassFormat(final String command) {
         final SlackResponseDoc responseDoc = new SlackResponseDoc();
         responseDoc.setResponseType(SlackResponseType.EPHEMERAL);
         responseDoc.setText("To pass your turn, use `" + command + " pass <USERNAME>`.\n\nFor example, `" + command + " pass @jsmith`");
@@ -93,7 +259,7 @@ public class SlackSlashCommandServiceImpl implements SlackSlashCommandService {
         return responseDoc;
     }
 
-    private SlackResponseDoc getSubmitQuestionFormat(final String command) {
+    private static SlackResponseDoc getSubmitQuestionFormat(final String command) {
         final SlackResponseDoc responseDoc = new SlackResponseDoc();
         responseDoc.setResponseType(SlackResponseType.EPHEMERAL);
         responseDoc.setText("To submit a question, use `" + command + " question <QUESTION_TEXT>`.\n\nFor example, `" + command + " question In what year did WWII officially begin?`");
@@ -101,7 +267,7 @@ public class SlackSlashCommandServiceImpl implements SlackSlashCommandService {
         return responseDoc;
     }
 
-    private SlackResponseDoc getSubmitAnswerFormat(final String command) {
+    private static SlackResponseDoc getSubmitAnswerFormat(final String command) {
         final SlackResponseDoc responseDoc = new SlackResponseDoc();
         responseDoc.setResponseType(SlackResponseType.EPHEMERAL);
         responseDoc.setText("To submit an answer, use `" + command + " answer <ANSWER_TEXT>`.\n\nFor example, `" + command + " answer Blue skies`");
@@ -109,7 +275,7 @@ public class SlackSlashCommandServiceImpl implements SlackSlashCommandService {
         return responseDoc;
     }
 
-    private SlackResponseDoc getMarkAnswerCorrectFormat(final String command) {
+    private static SlackResponseDoc getMarkAnswerCorrectFormat(final String command) {
         final SlackResponseDoc responseDoc = new SlackResponseDoc();
         responseDoc.setResponseType(SlackResponseType.EPHEMERAL);
         responseDoc.setText("To mark an answer correct, use `" + command + " correct <USERNAME>`.\n"
@@ -119,7 +285,16 @@ public class SlackSlashCommandServiceImpl implements SlackSlashCommandService {
         return responseDoc;
     }
 
-    private SlackResponseDoc getUsageFormat(final String command) {
+    private static SlackResponseDoc getTimerFormat(final String command) {
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+        responseDoc.setResponseType(SlackResponseType.EPHEMERAL);
+        responseDoc.setText("To close questions automatically, use `" + command + " timer <SECONDS>`, or `" + command + " timer off` to leave them open.\n\n"
+                + "For example, `" + command + " timer 60`");
+
+        return responseDoc;
+    }
+
+    private static SlackResponseDoc getUsageFormat(final String command) {
         final SlackResponseDoc responseDoc = new SlackResponseDoc();
 
         responseDoc.setResponseType(SlackResponseType.EPHEMERAL);
@@ -127,6 +302,10 @@ public class SlackSlashCommandServiceImpl implements SlackSlashCommandService {
 
         final List<SlackAttachment> attachments = Arrays.asList(
                 new SlackAttachment("To start a new game as the host, use `" + command + " start`"),
+                new SlackAttachment(
+                        "To have me ask the questions instead, use `" + command + " auto`, or `" + command + " auto <TOPIC>` for questions on one topic." +
+                                " The first correct answer scores."
+                ),
                 new SlackAttachment("To join a game, use `" + command + " join`"),
                 new SlackAttachment("To ask a question, use `" + command + " question <QUESTION>`. This requires you to be the host."),
                 new SlackAttachment("To answer a question, use `" + command + " answer <ANSWER>`. (Note that answering a question will automatically join the game.)"),
@@ -135,13 +314,22 @@ public class SlackSlashCommandServiceImpl implements SlackSlashCommandService {
                                 " If no correct answers were given, use `" + command + " correct none <CORRECT_ANSWER>`. This requires you to be the host."
                 ),
                 new SlackAttachment("To pass your turn to someone else, use `" + command + " pass <USERNAME>`"),
+                new SlackAttachment(
+                        "To close each question after a number of seconds, use `" + command + " timer <SECONDS>`." +
+                                " When time is up, the turn moves on to the next player. This requires you to be the host."
+                ),
                 new SlackAttachment("To view whose turn it is, the current question, and all answers provided so far, use `" + command + " status`"),
                 new SlackAttachment("To view the current scores, use `" + command + " scores`."),
                 new SlackAttachment("To reset all scores, use `" + command + " reset`."),
-                new SlackAttachment("To stop the current game, use `" + command + " stop`. This requires you to be the host.")
+                new SlackAttachment("To stop the current game, use `" + command + " stop`. This requires you to be the host, unless I'm hosting.")
         );
         responseDoc.setAttachments(attachments);
 
         return responseDoc;
     }
+
+    @FunctionalInterface
+    private interface CommandHandler {
+        SlackResponse handle(SlackRequestDoc requestDoc, CommandLine line);
+    }
 }
@@ -0,0 +1,182 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.entity.NByteArrayEntity;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.bj.examples.trivia.dto.SlackResponse;
+import org.bj.examples.trivia.util.SlackResponseWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Non-blocking client for posting to Slack <code>response_url</code>s.
+ * Connections are pooled per host and kept alive between posts, so a
+ * burst of messages to <code>hooks.slack.com</code> reuses a handful of
+ * TLS connections, and every post in flight waits on the I/O reactor
+ * rather than on a thread of its own.
+ */
+@Component
+public class SlackWebhookClient {
+    private static final Log log = LogFactory.getLog(SlackWebhookClient.class);
+
+    private final SlackResponseWriter responseWriter;
+    private final CloseableHttpAsyncClient httpClient;
+
+    public SlackWebhookClient(
+            final SlackResponseWriter responseWriter,
+            @Value("${trivia.slack.http.io-threads:1}") final int ioThreads,
+            @Value("${trivia.slack.http.max-connections:200}") final int maxConnections,
+            @Value("${trivia.slack.http.max-connections-per-host:50}") final int maxConnectionsPerHost,
+            @Value("${trivia.slack.http.connect-timeout-ms:2000}") final int connectTimeoutMillis,
+            @Value("${trivia.slack.http.read-timeout-ms:5000}") final int readTimeoutMillis,
+            @Value("${trivia.slack.http.keep-alive-ms:30000}") final long keepAliveMillis
+    ) throws IOReactorException {
+        this.responseWriter = responseWriter;
+
+        final IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(ioThreads)
+                .setConnectTimeout(connectTimeoutMillis)
+                .setSoTimeout(readTimeoutMillis)
+                .setSoKeepAlive(true)
+                .setTcpNoDelay(true)
+                .build();
+
+        final PoolingNHttpClientConnectionManager connectionManager =
+                new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+
+        final RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMillis)
+                .setSocketTimeout(readTimeoutMillis)
+                .setConnectionRequestTimeout(readTimeoutMillis)
+                .build();
+
+        //Slack doesn't always say how long a connection may idle, so cap it ourselves
+        final ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            final long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAlive < 0 ? keepAliveMillis : Math.min(keepAlive, keepAliveMillis);
+        };
+
+        this.httpClient = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .setThreadFactory(runnable -> {
+                    final Thread thread = new Thread(runnable, "slack-http-io");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                .build();
+        this.httpClient.start();
+    }
+
+    /**
+     * Posts the message without waiting for Slack to answer. If Slack
+     * rate-limits the post, the delay it asks for is recorded on the
+     * delivery.
+     *
+     * @return the outcome, completed on the client's I/O thread
+     */
+    CompletableFuture<DeliveryResult> post(final Delivery delivery) {
+        final String url = delivery.getUrl();
+        final SlackResponse responseDoc = delivery.getResponseDoc();
+        final CompletableFuture<DeliveryResult> result = new CompletableFuture<>();
+        final HttpPost request;
+
+        try {
+            request = new HttpPost(url);
+            request.setEntity(new NByteArrayEntity(responseWriter.toBytes(responseDoc), ContentType.APPLICATION_JSON));
+        } catch (IllegalArgumentException e) {
+            log.error("Unable to build message for URL \"" + url + "\".", e);
+            result.complete(DeliveryResult.FAILED);
+            return result;
+        }
+
+        httpClient.execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(final HttpResponse response) {
+                final int statusCode = response.getStatusLine().getStatusCode();
+
+                if (statusCode == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                    delivery.setRetryAfterMillis(retryAfterMillis(response));
+                }
+
+                result.complete(toResult(url, statusCode));
+            }
+
+            @Override
+            public void failed(final Exception e) {
+                log.warn("Failed to send message to URL \"" + url + "\": " + e);
+                result.complete(DeliveryResult.RETRY);
+            }
+
+            @Override
+            public void cancelled() {
+                result.complete(DeliveryResult.RETRY);
+            }
+        });
+
+        return result;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    /**
+     * @return the delay from the <code>Retry-After</code> header, which
+     * Slack gives in seconds, or 0 if there isn't a usable one
+     */
+    static long retryAfterMillis(final HttpResponse response) {
+        final Header header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+
+        if (header == null) {
+            return 0;
+        }
+
+        try {
+            return Math.max(TimeUnit.SECONDS.toMillis(Long.parseLong(header.getValue().trim())), 0);
+        } catch (NumberFormatException e) {
+            //An HTTP date, which Slack doesn't send; fall back to our own backoff
+            return 0;
+        }
+    }
+
+    private static DeliveryResult toResult(final String url, final int statusCode) {
+        if (statusCode >= 200 && statusCode < 300) {
+            return DeliveryResult.DELIVERED;
+        }
+
+        log.warn("Slack answered message to URL \"" + url + "\" with " + statusCode + ".");
+
+        if (statusCode == HttpStatus.TOO_MANY_REQUESTS.value() || statusCode >= 500) {
+            return DeliveryResult.RETRY;
+        }
+
+        return DeliveryResult.FAILED;
+    }
+}
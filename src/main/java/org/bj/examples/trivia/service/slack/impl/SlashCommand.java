@@ -0,0 +1,84 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+/**
+ * The operators understood after the slash command, e.g. the "answer" in
+ * "/trivia answer Blue skies".
+ */
+enum SlashCommand {
+    START("start", false, false),
+    AUTO("auto", false, false),
+    STOP("stop", false, false),
+    JOIN("join", false, false),
+    PASS("pass", true, false),
+    QUESTION("question", true, false),
+    ANSWER("answer", true, false),
+    CORRECT("correct", true, false),
+    TIMER("timer", true, false),
+    STATUS("status", false, true),
+    SCORES("scores", false, true),
+    RESET("reset", false, false);
+
+    private static final SlashCommand[] COMMANDS = values();
+
+    private final String operator;
+    private final boolean requiresArguments;
+    private final boolean readOnly;
+
+    SlashCommand(final String operator, final boolean requiresArguments, final boolean readOnly) {
+        this.operator = operator;
+        this.requiresArguments = requiresArguments;
+        this.readOnly = readOnly;
+    }
+
+    String getOperator() {
+        return operator;
+    }
+
+    /**
+     * @return whether the command is answered with how to use it, rather than
+     * run, when it is given without arguments
+     */
+    boolean requiresArguments() {
+        return requiresArguments;
+    }
+
+    /**
+     * @return whether the command only reports on the game without changing
+     * it, which makes it the first to be turned away under load
+     */
+    boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * @throws IllegalArgumentException if no command has the given operator
+     */
+    static SlashCommand forOperator(final String operator) {
+        final String trimmed = operator.trim();
+        final SlashCommand command = lookup(trimmed, 0, trimmed.length());
+
+        if (command == null) {
+            throw new IllegalArgumentException("Unknown slash command operator \"" + trimmed + "\".");
+        }
+
+        return command;
+    }
+
+    /**
+     * Finds the command whose operator is exactly <code>text[start, end)</code>,
+     * comparing in place so the operator is never copied out of the text.
+     *
+     * @return the command, or null if the operator is not recognized
+     */
+    static SlashCommand lookup(final String text, final int start, final int end) {
+        final int length = end - start;
+
+        for (final SlashCommand command : COMMANDS) {
+            if (command.operator.length() == length && text.regionMatches(start, command.operator, 0, length)) {
+                return command;
+            }
+        }
+
+        return null;
+    }
+}
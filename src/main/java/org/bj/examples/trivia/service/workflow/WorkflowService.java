@@ -1,15 +1,29 @@
 package org.bj.examples.trivia.service.workflow;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import org.bj.examples.trivia.dto.GameState;
+import org.bj.examples.trivia.dto.OpenRound;
 import org.bj.examples.trivia.exception.GameNotStartedException;
 import org.bj.examples.trivia.exception.WorkflowException;
 
 public interface WorkflowService {
     void onGameStarted(final String channelId, final String userId, final String topic) throws WorkflowException;
     void onGameStopped(final String channelId, final String userId) throws GameNotStartedException, WorkflowException;
-    void onQuestionSubmitted(final String channelId, final String userId, final String question) throws GameNotStartedException, WorkflowException;
+
+    /**
+     * @param responseUrl where the round is closed if its time runs out
+     * @return the round the question opened
+     */
+    OpenRound onQuestionSubmitted(
+            final String channelId,
+            final String userId,
+            final String question,
+            final String responseUrl,
+            final LocalDateTime questionDate
+    ) throws GameNotStartedException, WorkflowException;
+
     void onAnswerSubmitted(
             final String channelId,
             final String userId,
@@ -20,5 +34,21 @@ public interface WorkflowService {
     void onCorrectAnswerSelected(final String channelId, final String userId) throws GameNotStartedException, WorkflowException;
     void onTurnChanged(final String channelId, final String userId, final String newControllingUserId)
             throws GameNotStartedException, WorkflowException;
+
+    /**
+     * Sets how long the channel's questions stay open, starting with the next
+     * one. Only the host may change it.
+     *
+     * @param timeoutSeconds 0 for no limit, or null to go back to the default
+     */
+    void onRoundTimeoutChanged(final String channelId, final String userId, final Integer timeoutSeconds)
+            throws GameNotStartedException, WorkflowException;
+
     GameState getCurrentGameState(final String channelId);
+
+    /**
+     * @return every round with a question that has not been answered yet, in
+     * any channel
+     */
+    List<OpenRound> getOpenRounds();
 }
@@ -1,8 +1,11 @@
 package org.bj.examples.trivia.service.workflow.impl;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
 
 import org.bj.examples.trivia.dto.GameState;
+import org.bj.examples.trivia.dto.OpenRound;
 import org.bj.examples.trivia.dto.SlackUser;
 import org.bj.examples.trivia.exception.GameNotStartedException;
 import org.bj.examples.trivia.exception.WorkflowException;
@@ -15,6 +18,8 @@ import org.springframework.stereotype.Service;
 public class InMemoryWorkflowServiceImpl implements WorkflowService {
     private SlackUser currentHost = null;
     private String question = null;
+    private OpenRound openRound = null;
+    private Integer roundTimeoutSeconds = null;
 
     @Override
     public void onGameStarted(final String channelId, final String userId, final String topic) throws WorkflowException {
@@ -43,18 +48,25 @@ public class InMemoryWorkflowServiceImpl implements WorkflowService {
 
         if (currentHost == null) {
             throw new GameNotStartedException();
-        } else if (currentHost.getUserId().equals(userId)) {
+        } else if (!currentHost.getUserId().equals(userId)) {
             throw new WorkflowException("<@" + currentHost.getUserId() + "> is currently hosting.");
         }
 
         currentHost = null;
         question = null;
+        openRound = null;
     }
 
     @Override
-    public void onQuestionSubmitted(final String channelId, final String userId, final String question) throws GameNotStartedException, WorkflowException {
+    public OpenRound onQuestionSubmitted(
+            final String channelId,
+            final String userId,
+            final String question,
+            final String responseUrl,
+            final LocalDateTime questionDate
+    ) throws GameNotStartedException, WorkflowException {
         if (userId == null) {
-            return;
+            return null;
         }
 
         if (currentHost == null) {
@@ -70,6 +82,9 @@ public class InMemoryWorkflowServiceImpl implements WorkflowService {
         }
 
         this.question = question;
+        this.openRound = new OpenRound(channelId, userId, responseUrl, questionDate, roundTimeoutSeconds);
+
+        return openRound;
     }
 
     @Override
@@ -123,6 +138,23 @@ public class InMemoryWorkflowServiceImpl implements WorkflowService {
 
         currentHost = new SlackUser(newControllingUserId, null);
         question = null;
+        openRound = null;
+    }
+
+    @Override
+    public void onRoundTimeoutChanged(final String channelId, final String userId, final Integer timeoutSeconds)
+            throws GameNotStartedException, WorkflowException {
+        if (userId == null) {
+            return;
+        }
+
+        if (currentHost == null) {
+            throw new GameNotStartedException();
+        } else if (!currentHost.getUserId().equals(userId)) {
+            throw new WorkflowException("It's <@" + currentHost.getUserId() + ">'s turn; only he/she can change the timer.");
+        }
+
+        roundTimeoutSeconds = timeoutSeconds;
     }
 
     @Override
@@ -130,7 +162,13 @@ public class InMemoryWorkflowServiceImpl implements WorkflowService {
         final GameState gameState = new GameState();
         gameState.setControllingUserId(currentHost == null ? null : currentHost.getUserId());
         gameState.setQuestion(question);
+        gameState.setQuestionDate(openRound == null ? null : openRound.getQuestionDate());
 
         return gameState;
     }
+
+    @Override
+    public List<OpenRound> getOpenRounds() {
+        return openRound == null ? Collections.emptyList() : Collections.singletonList(openRound);
+    }
 }
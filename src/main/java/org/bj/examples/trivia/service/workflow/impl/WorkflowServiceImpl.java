@@ -10,6 +10,7 @@ import org.bj.examples.trivia.data.workflow.Workflow;
 import org.bj.examples.trivia.data.workflow.WorkflowDao;
 import org.bj.examples.trivia.data.workflow.WorkflowStage;
 import org.bj.examples.trivia.dto.GameState;
+import org.bj.examples.trivia.dto.OpenRound;
 import org.bj.examples.trivia.exception.GameNotStartedException;
 import org.bj.examples.trivia.exception.WorkflowException;
 import org.bj.examples.trivia.service.workflow.WorkflowService;
@@ -70,9 +71,15 @@ public class WorkflowServiceImpl implements WorkflowService {
     }
 
     @Override
-    public void onQuestionSubmitted(final String channelId, final String userId, final String question) throws GameNotStartedException, WorkflowException {
+    public OpenRound onQuestionSubmitted(
+            final String channelId,
+            final String userId,
+            final String question,
+            final String responseUrl,
+            final LocalDateTime questionDate
+    ) throws GameNotStartedException, WorkflowException {
         if (channelId == null || userId == null) {
-            return;
+            return null;
         }
 
         final Workflow workflow = workflowDao.findByChannelId(channelId);
@@ -90,8 +97,12 @@ public class WorkflowServiceImpl implements WorkflowService {
         }
 
         workflow.setQuestion(question);
+        workflow.setQuestionDate(questionDate);
+        workflow.setResponseUrl(responseUrl);
         workflow.setStage(WorkflowStage.QUESTION_ASKED);
         workflowDao.save(workflow);
+
+        return toOpenRound(workflow);
     }
 
     @Override
@@ -164,6 +175,25 @@ public class WorkflowServiceImpl implements WorkflowService {
         workflowDao.save(workflow);
     }
 
+    @Override
+    public void onRoundTimeoutChanged(final String channelId, final String userId, final Integer timeoutSeconds)
+            throws GameNotStartedException, WorkflowException {
+        if (channelId == null || userId == null) {
+            return;
+        }
+
+        final Workflow workflow = workflowDao.findByChannelId(channelId);
+
+        if (workflow == null) {
+            throw new GameNotStartedException();
+        } else if (!userId.equals(workflow.getControllingUserId())) {
+            throw new WorkflowException("It's <@" + workflow.getControllingUserId() + ">'s turn; only he/she can change the timer.");
+        }
+
+        workflow.setRoundTimeoutSeconds(timeoutSeconds);
+        workflowDao.save(workflow);
+    }
+
     @Override
     public GameState getCurrentGameState(final String channelId) {
         if (channelId == null) {
@@ -182,6 +212,7 @@ public class WorkflowServiceImpl implements WorkflowService {
 
         if (workflow.getStage() == WorkflowStage.QUESTION_ASKED) {
             gameState.setQuestion(workflow.getQuestion());
+            gameState.setQuestionDate(workflow.getQuestionDate());
 
             final List<GameState.Answer> answers = workflow.getAnswers().stream()
                     .map(answer -> new GameState.Answer(answer.getUserId(), answer.getUsername(), answer.getText(), answer.getCreatedDate()))
@@ -191,4 +222,21 @@ public class WorkflowServiceImpl implements WorkflowService {
 
         return gameState;
     }
+
+    @Override
+    public List<OpenRound> getOpenRounds() {
+        return workflowDao.findAllByStage(WorkflowStage.QUESTION_ASKED).stream()
+                .map(this::toOpenRound)
+                .collect(Collectors.toList());
+    }
+
+    private OpenRound toOpenRound(final Workflow workflow) {
+        return new OpenRound(
+                workflow.getChannelId(),
+                workflow.getControllingUserId(),
+                workflow.getResponseUrl(),
+                workflow.getQuestionDate(),
+                workflow.getRoundTimeoutSeconds()
+        );
+    }
 }
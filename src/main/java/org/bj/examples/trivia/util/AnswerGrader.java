@@ -0,0 +1,269 @@
+package org.bj.examples.trivia.util;
+
+import java.text.Normalizer;
+
+/**
+ * Grades answers against one known answer, forgiving what players get
+ * wrong without getting the answer wrong: case, punctuation, spacing,
+ * accents, a leading or trailing "the", and a typo or two in longer
+ * answers.
+ * <p>
+ * Both answers are normalized the same way: words are runs of letters and
+ * digits, folded to lower case without accents, and the articles "a", "an"
+ * and "the" are dropped. The normalized answers then match if they are
+ * within a few edits of each other, the number growing with the length of
+ * the known answer. Answers with digits in them must match exactly, since
+ * 1984 is not 1985.
+ * <p>
+ * The known answer is normalized once, up front. Grading normalizes the
+ * given answer a character at a time, straight into a bounded edit-distance
+ * computation over two rows the grader sets aside for the purpose, so it
+ * allocates nothing at all, whichever thread it runs on, and gives up as
+ * soon as the distance is out of reach. Grading holds the grader's lock
+ * while it uses the rows; answers to a question are graded one at a time
+ * anyway, so the lock is never contended.
+ */
+public final class AnswerGrader {
+    private static final int MAX_DISTANCE = 3;
+    private static final int CHARS_PER_EDIT = 4;
+
+    /**
+     * Lower-case, unaccented versions of the characters up to the end of
+     * Latin Extended-B, which covers the accents players are likely to type
+     * or leave out
+     */
+    private static final char[] FOLDED = new char[0x250];
+
+    static {
+        for (char c = 0; c < FOLDED.length; c++) {
+            final char lower = Character.toLowerCase(c);
+            final String decomposed = Normalizer.normalize(String.valueOf(lower), Normalizer.Form.NFD);
+
+            FOLDED[c] = decomposed.isEmpty() ? lower : decomposed.charAt(0);
+        }
+
+        //Letters with strokes rather than accents do not decompose
+        FOLDED['ø'] = 'o';
+        FOLDED['Ø'] = 'o';
+        FOLDED['đ'] = 'd';
+        FOLDED['Đ'] = 'd';
+        FOLDED['ł'] = 'l';
+        FOLDED['Ł'] = 'l';
+    }
+
+    private final String answer;
+    private final char[] expected;
+    private final boolean dropArticles;
+    private final int maxDistance;
+    private final Rows rows;
+
+    public AnswerGrader(final String answer) {
+        this.answer = answer;
+
+        //An answer that is nothing but articles, like the band "The The", keeps them
+        final char[] withoutArticles = normalize(answer, true);
+        this.dropArticles = withoutArticles.length > 0;
+        this.expected = dropArticles ? withoutArticles : normalize(answer, false);
+        this.maxDistance = hasDigit(expected) ? 0 : Math.min(MAX_DISTANCE, expected.length / CHARS_PER_EDIT);
+        this.rows = new Rows(expected.length + 1);
+    }
+
+    public String getAnswer() {
+        return answer;
+    }
+
+    /**
+     * @return the most edits a given answer may be away from the known one
+     */
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    public boolean isCorrect(final String given) {
+        if (given == null) {
+            return false;
+        }
+
+        //Counting first is cheap, and rules out most wrong answers before any distances are worked out
+        if (Math.abs(walk(given, null) - expected.length) > maxDistance) {
+            return false;
+        }
+
+        synchronized (rows) {
+            rows.reset(maxDistance + 1);
+
+            return walk(given, rows) >= 0 && rows.previous[expected.length] <= maxDistance;
+        }
+    }
+
+    /**
+     * Feeds the normalized characters of the given answer to
+     * {@link #step(char, int, Rows)}, or only counts them
+     *
+     * @param rows null to only count
+     * @return how many characters there are, or -1 if grading gave up
+     */
+    private int walk(final String given, final Rows rows) {
+        int count = 0;
+        int i = 0;
+        final int end = given.length();
+
+        while (i < end) {
+            while (i < end && !Character.isLetterOrDigit(given.charAt(i))) {
+                i++;
+            }
+
+            final int wordStart = i;
+
+            while (i < end && Character.isLetterOrDigit(given.charAt(i))) {
+                i++;
+            }
+
+            if (wordStart == i || (dropArticles && isArticle(given, wordStart, i))) {
+                continue;
+            }
+
+            //Words are separated by a single space, whatever was between them
+            if (count > 0) {
+                count++;
+
+                if (rows != null && !step(' ', count, rows)) {
+                    return -1;
+                }
+            }
+
+            for (int k = wordStart; k < i; k++) {
+                count++;
+
+                if (rows != null && !step(fold(given.charAt(k)), count, rows)) {
+                    return -1;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Works out the next row of edit distances, for the given answer's
+     * <code>row</code>th character, within the band of cells no more than
+     * the maximum distance from the diagonal. Cells outside the band are
+     * out of reach however the rest of the answer goes.
+     *
+     * @return false if every distance in the row is out of reach
+     */
+    private boolean step(final char c, final int row, final Rows rows) {
+        final int[] previous = rows.previous;
+        final int[] current = rows.current;
+        final int outOfReach = maxDistance + 1;
+        final int from = Math.max(1, row - maxDistance);
+        final int to = Math.min(expected.length, row + maxDistance);
+
+        current[0] = Math.min(row, outOfReach);
+        current[from - 1] = from == 1 ? current[0] : outOfReach;
+
+        int best = current[from - 1];
+
+        for (int j = from; j <= to; j++) {
+            final int substitution = previous[j - 1] + (expected[j - 1] == c ? 0 : 1);
+            final int distance = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+
+            current[j] = Math.min(distance, outOfReach);
+            best = Math.min(best, current[j]);
+        }
+
+        if (to < expected.length) {
+            current[to + 1] = outOfReach;
+        }
+
+        rows.previous = current;
+        rows.current = previous;
+
+        return best <= maxDistance;
+    }
+
+    private static char[] normalize(final String text, final boolean dropArticles) {
+        final StringBuilder normalized = new StringBuilder(text.length());
+        int i = 0;
+
+        while (i < text.length()) {
+            while (i < text.length() && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+
+            final int wordStart = i;
+
+            while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+
+            if (wordStart == i || (dropArticles && isArticle(text, wordStart, i))) {
+                continue;
+            }
+
+            if (normalized.length() > 0) {
+                normalized.append(' ');
+            }
+
+            for (int k = wordStart; k < i; k++) {
+                normalized.append(fold(text.charAt(k)));
+            }
+        }
+
+        final char[] chars = new char[normalized.length()];
+        normalized.getChars(0, chars.length, chars, 0);
+
+        return chars;
+    }
+
+    private static boolean isArticle(final String text, final int start, final int end) {
+        switch (end - start) {
+            case 1:
+                return fold(text.charAt(start)) == 'a';
+            case 2:
+                return fold(text.charAt(start)) == 'a' && fold(text.charAt(start + 1)) == 'n';
+            case 3:
+                return fold(text.charAt(start)) == 't' && fold(text.charAt(start + 1)) == 'h' && fold(text.charAt(start + 2)) == 'e';
+            default:
+                return false;
+        }
+    }
+
+    private static char fold(final char c) {
+        return c < FOLDED.length ? FOLDED[c] : Character.toLowerCase(c);
+    }
+
+    private static boolean hasDigit(final char[] chars) {
+        for (final char c : chars) {
+            if (Character.isDigit(c)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Two rows of edit distances, one cell for each prefix of the known
+     * answer, which swap places as grading moves down the given answer
+     */
+    private static final class Rows {
+        private int[] previous;
+        private int[] current;
+
+        private Rows(final int length) {
+            this.previous = new int[length];
+            this.current = new int[length];
+        }
+
+        /**
+         * Starts the rows off for another answer, with the first one holding
+         * the distances from nothing given to each prefix of the known answer
+         */
+        private void reset(final int outOfReach) {
+            for (int j = 0; j < previous.length; j++) {
+                previous[j] = Math.min(j, outOfReach);
+            }
+        }
+    }
+}
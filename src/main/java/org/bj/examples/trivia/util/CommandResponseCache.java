@@ -0,0 +1,50 @@
+package org.bj.examples.trivia.util;
+
+import java.util.function.Function;
+
+import org.bj.examples.trivia.dto.PreSerializedResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponse;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Caches a response that only varies by the slash command it was invoked
+ * with, e.g. "/trivia", as a {@link PreSerializedResponseDoc}. An app is
+ * only registered under a handful of commands, but the command comes
+ * straight from the request, so the cache keeps the few most recently used
+ * rather than the first few seen: made-up commands only push each other
+ * out, while the real ones, used all the time, stay.
+ */
+public class CommandResponseCache {
+    private static final int MAX_COMMANDS = 16;
+
+    private final Function<String, SlackResponse> responseFactory;
+
+    //A single segment, so the least recently used command is the one that goes
+    private final Cache<String, PreSerializedResponseDoc> responsesByCommand = CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .maximumSize(MAX_COMMANDS)
+            .build();
+
+    public CommandResponseCache(final Function<String, SlackResponse> responseFactory) {
+        this.responseFactory = responseFactory;
+    }
+
+    public SlackResponse get(final String command) {
+        if (command == null) {
+            return PreSerializedResponseDoc.of(responseFactory.apply(null));
+        }
+
+        final PreSerializedResponseDoc cached = responsesByCommand.getIfPresent(command);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        final PreSerializedResponseDoc responseDoc = PreSerializedResponseDoc.of(responseFactory.apply(command));
+        responsesByCommand.put(command, responseDoc);
+
+        return responseDoc;
+    }
+}
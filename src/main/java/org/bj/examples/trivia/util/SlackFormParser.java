@@ -0,0 +1,213 @@
+package org.bj.examples.trivia.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.bj.examples.trivia.dto.SlackRequestDoc;
+
+/**
+ * Reads a slash command's <code>application/x-www-form-urlencoded</code>
+ * payload straight into a {@link SlackRequestDoc}. The body is walked
+ * once; keys are matched against Slack's field names byte by byte, and
+ * values are only run through the percent-decoder when they need it.
+ */
+public class SlackFormParser {
+    private static final int TOKEN = 0;
+    private static final int TEAM_ID = 1;
+    private static final int TEAM_DOMAIN = 2;
+    private static final int ENTERPRISE_ID = 3;
+    private static final int ENTERPRISE_NAME = 4;
+    private static final int CHANNEL_ID = 5;
+    private static final int CHANNEL_NAME = 6;
+    private static final int USER_ID = 7;
+    private static final int USER_NAME = 8;
+    private static final int COMMAND = 9;
+    private static final int TEXT = 10;
+    private static final int RESPONSE_URL = 11;
+    private static final int TRIGGER_ID = 12;
+
+    private static final String[] FIELD_NAMES = {
+            "token",
+            "team_id",
+            "team_domain",
+            "enterprise_id",
+            "enterprise_name",
+            "channel_id",
+            "channel_name",
+            "user_id",
+            "user_name",
+            "command",
+            "text",
+            "response_url",
+            "trigger_id"
+    };
+
+    private static final byte[][] FIELD_KEYS = new byte[FIELD_NAMES.length][];
+
+    static {
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            FIELD_KEYS[i] = FIELD_NAMES[i].getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    public static SlackRequestDoc parse(final byte[] body, final int length) {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        int pairStart = 0;
+
+        while (pairStart < length) {
+            int pairEnd = pairStart;
+            int equals = -1;
+
+            while (pairEnd < length && body[pairEnd] != '&') {
+                if (equals < 0 && body[pairEnd] == '=') {
+                    equals = pairEnd;
+                }
+
+                pairEnd++;
+            }
+
+            if (equals > pairStart) {
+                final int field = field(body, pairStart, equals);
+
+                if (field >= 0) {
+                    set(requestDoc, field, decode(body, equals + 1, pairEnd));
+                }
+            }
+
+            pairStart = pairEnd + 1;
+        }
+
+        return requestDoc;
+    }
+
+    /**
+     * For when the container has already parsed the body into request
+     * parameters.
+     */
+    public static SlackRequestDoc fromParameters(final Map<String, String[]> parameters) {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+
+        for (int field = 0; field < FIELD_NAMES.length; field++) {
+            final String[] values = parameters.get(FIELD_NAMES[field]);
+
+            if (values != null && values.length > 0) {
+                set(requestDoc, field, values[0]);
+            }
+        }
+
+        return requestDoc;
+    }
+
+    private static int field(final byte[] body, final int start, final int end) {
+        final int length = end - start;
+
+        for (int field = 0; field < FIELD_KEYS.length; field++) {
+            final byte[] key = FIELD_KEYS[field];
+
+            if (key.length == length && regionMatches(body, start, key)) {
+                return field;
+            }
+        }
+
+        //Slack doesn't encode its field names, so anything else is a field we don't use
+        return -1;
+    }
+
+    private static boolean regionMatches(final byte[] body, final int start, final byte[] key) {
+        for (int i = 0; i < key.length; i++) {
+            if (body[start + i] != key[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static String decode(final byte[] body, final int start, final int end) {
+        boolean plain = true;
+
+        for (int i = start; i < end && plain; i++) {
+            plain = body[i] != '%' && body[i] != '+';
+        }
+
+        if (plain) {
+            //Nothing to decode, but any raw non-ASCII bytes are still UTF-8, as they are once escaped
+            return new String(body, start, end - start, StandardCharsets.UTF_8);
+        }
+
+        //Decoding only ever shrinks the value
+        final byte[] decoded = new byte[end - start];
+        int length = 0;
+
+        for (int i = start; i < end; i++) {
+            final byte b = body[i];
+
+            if (b == '+') {
+                decoded[length++] = ' ';
+            } else if (b == '%' && i + 2 < end && hex(body[i + 1]) >= 0 && hex(body[i + 2]) >= 0) {
+                decoded[length++] = (byte)((hex(body[i + 1]) << 4) | hex(body[i + 2]));
+                i += 2;
+            } else {
+                decoded[length++] = b;
+            }
+        }
+
+        return new String(decoded, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static int hex(final byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        } else if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        } else if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+
+        return -1;
+    }
+
+    private static void set(final SlackRequestDoc requestDoc, final int field, final String value) {
+        switch (field) {
+            case TOKEN:
+                requestDoc.setToken(value);
+                break;
+            case TEAM_ID:
+                requestDoc.setTeamId(value);
+                break;
+            case TEAM_DOMAIN:
+                requestDoc.setTeamDomain(value);
+                break;
+            case ENTERPRISE_ID:
+                requestDoc.setEnterpriseId(value);
+                break;
+            case ENTERPRISE_NAME:
+                requestDoc.setEnterpriseName(value);
+                break;
+            case CHANNEL_ID:
+                requestDoc.setChannelId(value);
+                break;
+            case CHANNEL_NAME:
+                requestDoc.setChannelName(value);
+                break;
+            case USER_ID:
+                requestDoc.setUserId(value);
+                break;
+            case USER_NAME:
+                requestDoc.setUsername(value);
+                break;
+            case COMMAND:
+                requestDoc.setCommand(value);
+                break;
+            case TEXT:
+                requestDoc.setText(value);
+                break;
+            case RESPONSE_URL:
+                requestDoc.setResponseUrl(value);
+                break;
+            case TRIGGER_ID:
+                requestDoc.setTriggerId(value);
+                break;
+        }
+    }
+}
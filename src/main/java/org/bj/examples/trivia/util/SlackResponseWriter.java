@@ -0,0 +1,56 @@
+package org.bj.examples.trivia.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.bj.examples.trivia.dto.PreSerializedResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Writes {@link SlackResponse}s as JSON. Pre-serialized responses are
+ * copied out as-is; anything else is streamed through a single
+ * {@link ObjectWriter} that was resolved for the type once, up front, from
+ * the app's configured {@link ObjectMapper}.
+ */
+@Component
+public class SlackResponseWriter {
+    private final ObjectWriter writer;
+
+    @Autowired
+    public SlackResponseWriter(final ObjectMapper objectMapper) {
+        this.writer = objectMapper.writerFor(SlackResponse.class);
+    }
+
+    public byte[] toBytes(final SlackResponse response) {
+        if (response instanceof PreSerializedResponseDoc) {
+            return ((PreSerializedResponseDoc)response).serialized(this);
+        }
+
+        return render(response);
+    }
+
+    /**
+     * Serializes the response with Jackson, even if it is pre-serialized.
+     */
+    public byte[] render(final SlackResponse response) {
+        try {
+            return writer.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to serialize response.", e);
+        }
+    }
+
+    public void write(final SlackResponse response, final OutputStream out) throws IOException {
+        if (response instanceof PreSerializedResponseDoc) {
+            out.write(((PreSerializedResponseDoc)response).serialized(this));
+        } else {
+            writer.writeValue(out, response);
+        }
+    }
+}
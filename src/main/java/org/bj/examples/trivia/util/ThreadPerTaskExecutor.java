@@ -0,0 +1,113 @@
+package org.bj.examples.trivia.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts a new thread for every task instead of reusing a pool, which is
+ * how virtual threads are meant to be used: they are cheap to create and
+ * a task that blocks on I/O does not hold on to an OS thread. How many
+ * tasks may run at once is still bounded, and a task past the bound is
+ * rejected rather than queued, as with a full pool.
+ */
+public class ThreadPerTaskExecutor extends AbstractExecutorService {
+    private final ThreadFactory threadFactory;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final Set<Thread> running = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean shutdown;
+
+    /**
+     * @param maxConcurrency how many tasks may run at once;
+     *                       {@link Integer#MAX_VALUE} for no limit
+     */
+    public ThreadPerTaskExecutor(final ThreadFactory threadFactory, final int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("At least one task must be allowed to run.");
+        }
+
+        this.threadFactory = threadFactory;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor has been shut down.");
+        }
+
+        if (!permits.tryAcquire()) {
+            throw new RejectedExecutionException(maxConcurrency + " tasks are already running.");
+        }
+
+        final Thread thread;
+
+        try {
+            thread = threadFactory.newThread(() -> {
+                try {
+                    command.run();
+                } finally {
+                    running.remove(Thread.currentThread());
+                    permits.release();
+                }
+            });
+
+            running.add(thread);
+            thread.start();
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    /**
+     * Interrupts the running tasks. Nothing is ever waiting to run, so the
+     * list is always empty.
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        running.forEach(Thread::interrupt);
+
+        return new ArrayList<>();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && permits.availablePermits() == maxConcurrency;
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        //Every running task holds a permit, so holding them all means none is left
+        if (!permits.tryAcquire(maxConcurrency, timeout, unit)) {
+            return false;
+        }
+
+        permits.release(maxConcurrency);
+        return true;
+    }
+}
@@ -0,0 +1,254 @@
+package org.bj.examples.trivia.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A hashed timing wheel: one thread that wakes up once a tick and runs
+ * whatever fell due in that tick's bucket. Scheduling and cancelling a task
+ * are constant time however many are pending, and pending tasks cost one
+ * small node each rather than an entry in a priority queue, which is what
+ * makes it cheap to keep a timer for every active channel.
+ * <p>
+ * A task runs late by up to one tick, never early, and runs on the wheel's
+ * own thread, so it must hand anything slow off to an executor.
+ * <p>
+ * Tasks are handed to the wheel's thread through a queue and only ever
+ * touched by that thread once they are in a bucket. Cancelling just marks
+ * a task, which is unlinked the next time the wheel passes its bucket.
+ */
+public class TimingWheel {
+    private static final Log log = LogFactory.getLog(TimingWheel.class);
+
+    private final long tickNanos;
+    private final Bucket[] buckets;
+    private final int mask;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Thread worker;
+    private final long startTime;
+
+    private volatile boolean stopped;
+
+    /**
+     * @param ticksPerWheel rounded up to a power of two
+     */
+    public TimingWheel(final ThreadFactory threadFactory, final long tickMillis, final int ticksPerWheel) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive: " + tickMillis);
+        } else if (ticksPerWheel <= 0 || ticksPerWheel > 1 << 30) {
+            throw new IllegalArgumentException("ticksPerWheel must be between 1 and 2^30: " + ticksPerWheel);
+        }
+
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+
+        int wheelSize = 1;
+
+        while (wheelSize < ticksPerWheel) {
+            wheelSize <<= 1;
+        }
+
+        this.buckets = new Bucket[wheelSize];
+        this.mask = buckets.length - 1;
+
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+
+        this.startTime = System.nanoTime();
+        this.worker = threadFactory.newThread(this::run);
+        this.worker.start();
+    }
+
+    /**
+     * @return the scheduled task, which can be used to cancel it
+     * @throws IllegalStateException if the wheel has been stopped
+     */
+    public Timeout schedule(final Runnable task, final long delay, final TimeUnit unit) {
+        if (stopped) {
+            throw new IllegalStateException("The timing wheel has been stopped.");
+        }
+
+        final Timeout timeout = new Timeout(task, System.nanoTime() - startTime + Math.max(0, unit.toNanos(delay)));
+        pendingCount.incrementAndGet();
+        added.add(timeout);
+
+        return timeout;
+    }
+
+    /**
+     * @return how many tasks are waiting to run
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Stops the wheel's thread. Tasks that have not run yet never will.
+     */
+    public void stop() {
+        stopped = true;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+
+        while (!stopped) {
+            if (!awaitTick(tick)) {
+                break;
+            }
+
+            transferAdded(tick);
+            buckets[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    /**
+     * @return false if the wheel was stopped while waiting
+     */
+    private boolean awaitTick(final long tick) {
+        final long deadline = startTime + (tick + 1) * tickNanos;
+
+        for (long remaining = deadline - System.nanoTime(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                if (stopped) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void transferAdded(final long currentTick) {
+        for (Timeout timeout = added.poll(); timeout != null; timeout = added.poll()) {
+            if (timeout.state.get() == Timeout.CANCELLED) {
+                continue;
+            }
+
+            //Anything already due goes in the current bucket rather than one the wheel has passed
+            final long dueTick = Math.max(currentTick, timeout.deadlineNanos / tickNanos);
+            timeout.remainingRounds = (dueTick - currentTick) / buckets.length;
+            buckets[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+
+    public final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadlineNanos;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        //Only touched by the wheel's thread
+        private long remainingRounds;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(final Runnable task, final long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * @return false if the task has already run or been cancelled
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(PENDING, CANCELLED)) {
+                pendingCount.decrementAndGet();
+                return true;
+            }
+
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(PENDING, EXPIRED)) {
+                return;
+            }
+
+            pendingCount.decrementAndGet();
+
+            try {
+                task.run();
+            } catch (Throwable e) {
+                log.error("A scheduled task failed.", e);
+            }
+        }
+    }
+
+    /**
+     * A doubly linked list of the tasks due in one slot of the wheel
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(final Timeout timeout) {
+            if (head == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+            }
+
+            tail = timeout;
+        }
+
+        private void expire() {
+            Timeout timeout = head;
+
+            while (timeout != null) {
+                final Timeout next = timeout.next;
+
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+
+                timeout = next;
+            }
+        }
+
+        private void remove(final Timeout timeout) {
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+
+            timeout.previous = null;
+            timeout.next = null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.bj.examples.trivia.util;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket that holds up to <code>capacity</code> tokens and refills
+ * at a steady rate. Each permitted action takes one token, so the bucket
+ * allows short bursts while holding the long-run rate to the refill rate.
+ */
+public class TokenBucket {
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(final int capacity, final double tokensPerSecond) {
+        this(capacity, tokensPerSecond, System::nanoTime);
+    }
+
+    public TokenBucket(final int capacity, final double tokensPerSecond, final LongSupplier nanoClock) {
+        if (capacity < 1 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("A token bucket needs a capacity of at least 1 and a positive rate.");
+        }
+
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 if a token was taken, otherwise how many milliseconds to
+     * wait until one will be
+     */
+    public synchronized long tryAcquire() {
+        final long now = nanoClock.getAsLong();
+        refill(now);
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+
+        final double waitNanos = Math.max(lastRefillNanos - now, 0) + (1 - tokens) / tokensPerNano;
+        return Math.max((long)Math.ceil(waitNanos / NANOS_PER_MILLI), 1);
+    }
+
+    /**
+     * Empties the bucket and stops it refilling for the given time, e.g.
+     * when the other side has asked us to back off.
+     */
+    public synchronized void pause(final long millis) {
+        final long now = nanoClock.getAsLong();
+        refill(now);
+
+        tokens = 0;
+        lastRefillNanos = Math.max(lastRefillNanos, now + (long)(millis * NANOS_PER_MILLI));
+    }
+
+    /**
+     * @return how many milliseconds until the bucket is full again
+     */
+    public synchronized long millisUntilFull() {
+        final long now = nanoClock.getAsLong();
+        refill(now);
+
+        final double waitNanos = Math.max(lastRefillNanos - now, 0) + (capacity - tokens) / tokensPerNano;
+        return (long)Math.ceil(waitNanos / NANOS_PER_MILLI);
+    }
+
+    private void refill(final long now) {
+        //A paused bucket has its refill time pushed into the future
+        if (now > lastRefillNanos) {
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.bj.examples.trivia.data.bank;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class QuestionBankTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testQuestionsAreReadBackByTopic() throws Exception {
+        final QuestionBankWriter writer = new QuestionBankWriter();
+        writer.add("Geography", "Capital of France?", "Paris");
+        writer.add("Science", "H2O is better known as?", "Water");
+        writer.add(" geography ", "Longest river in Africa?", "The Nile");
+
+        final Path path = folder.getRoot().toPath().resolve("questions.bank");
+        writer.write(path);
+
+        final QuestionBank bank = QuestionBank.open(path);
+
+        assertThat(bank.size(), is(equalTo(3)));
+        assertThat(bank.getTopicNames(), is(equalTo(Arrays.asList("Geography", "Science"))));
+
+        final QuestionBank.Topic geography = bank.getTopic("GEOGRAPHY");
+        assertThat(geography.getName(), is(equalTo("Geography")));
+        assertThat(geography.size(), is(equalTo(2)));
+        assertThat(bank.getQuestion(geography.getFirst()), is(equalTo("Capital of France?")));
+        assertThat(bank.getAnswer(geography.getFirst() + 1), is(equalTo("The Nile")));
+
+        final QuestionBank.Topic science = bank.getTopic("science");
+        assertThat(bank.getQuestion(science.getFirst()), is(equalTo("H2O is better known as?")));
+        assertThat(bank.getAnswer(science.getFirst()), is(equalTo("Water")));
+
+        assertThat(bank.getTopic(null).size(), is(equalTo(3)));
+        assertThat(bank.getTopic("History"), is(nullValue()));
+    }
+
+    @Test
+    public void testNonAsciiTextSurvives() throws Exception {
+        final QuestionBankWriter writer = new QuestionBankWriter();
+        writer.add("Música", "¿Quién compuso «Für Elise»?", "Beethoven");
+
+        final Path path = folder.getRoot().toPath().resolve("questions.bank");
+        writer.write(path);
+
+        final QuestionBank bank = QuestionBank.open(path);
+
+        assertThat(bank.getTopic("música").getName(), is(equalTo("Música")));
+        assertThat(bank.getQuestion(0), is(equalTo("¿Quién compuso «Für Elise»?")));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedBankIsRejected() throws Exception {
+        final QuestionBankWriter writer = new QuestionBankWriter();
+        writer.add("Geography", "Capital of France?", "Paris");
+
+        final Path path = folder.getRoot().toPath().resolve("questions.bank");
+        writer.write(path);
+
+        final byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+
+        QuestionBank.open(path);
+    }
+
+    @Test(expected = IOException.class)
+    public void testOtherFileIsRejected() throws Exception {
+        final Path path = folder.getRoot().toPath().resolve("questions.tsv");
+        Files.write(path, "Geography\tCapital of France?\tParis\n".getBytes("UTF-8"));
+
+        QuestionBank.open(path);
+    }
+}
@@ -0,0 +1,249 @@
+package org.bj.examples.trivia.service.auto.impl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.bj.examples.trivia.data.bank.QuestionBankWriter;
+import org.bj.examples.trivia.dto.GameState;
+import org.bj.examples.trivia.dto.OpenRound;
+import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.exception.WorkflowException;
+import org.bj.examples.trivia.service.auto.AutoHostService;
+import org.bj.examples.trivia.service.slack.DelayedSlackService;
+import org.bj.examples.trivia.service.slack.impl.ChannelMailboxes;
+import org.bj.examples.trivia.service.slack.impl.CommandExecutor;
+import org.bj.examples.trivia.service.workflow.WorkflowService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.StrictStubs.class)
+public class AutoHostServiceImplTest {
+    private static final String CHANNEL_ID = "C12345";
+    private static final String RESPONSE_URL = "https://hooks.slack.com/commands/1";
+    private static final String BOT = AutoHostService.AUTO_HOST_USER_ID;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private WorkflowService workflowService;
+
+    @Mock
+    private DelayedSlackService delayedSlackService;
+
+    @Mock
+    private AutoHostService.RoundWonListener listener;
+
+    private CommandExecutor commandExecutor;
+    private ChannelMailboxes mailboxes;
+    private AutoHostServiceImpl cut;
+    private String bankPath;
+
+    @Before
+    public void setUp() throws Exception {
+        final QuestionBankWriter writer = new QuestionBankWriter();
+        writer.add("Geography", "Capital of France?", "Paris");
+        writer.add("Music", "Who sang \"Let It Be\"?", "The Beatles");
+        writer.add("Music", "Who composed the Moonlight Sonata?", "Beethoven");
+
+        final Path path = folder.getRoot().toPath().resolve("questions.bank");
+        writer.write(path);
+        bankPath = path.toString();
+        commandExecutor = new CommandExecutor(1, 10, false);
+        mailboxes = new ChannelMailboxes(commandExecutor, 5000);
+    }
+
+    @After
+    public void tearDown() {
+        if (cut != null) {
+            cut.shutdown();
+        }
+
+        commandExecutor.shutdown();
+    }
+
+    @Test
+    public void testStartGameAsksQuestionAndRecognizesAnswer() throws Exception {
+        cut = newAutoHost(0, 3);
+        final OpenRound round = new OpenRound(CHANNEL_ID, BOT, RESPONSE_URL, LocalDateTime.now(), 60);
+
+        willReturn(round).given(workflowService)
+                .onQuestionSubmitted(eq(CHANNEL_ID), eq(BOT), eq("Capital of France?"), eq(RESPONSE_URL), any(LocalDateTime.class));
+
+        assertThat(cut.startGame(CHANNEL_ID, "geography", RESPONSE_URL), is(round));
+
+        verify(workflowService).onGameStarted(CHANNEL_ID, BOT, "Geography");
+        verify(workflowService).onRoundTimeoutChanged(CHANNEL_ID, BOT, 60);
+        assertThat(sentText(), is(equalTo("*Question:*\n\nCapital of France?")));
+
+        final LocalDateTime requestTime = LocalDateTime.now();
+
+        assertThat(cut.submitAnswer(CHANNEL_ID, "U1", "Lyon", requestTime, RESPONSE_URL, listener), is(false));
+        assertThat(cut.submitAnswer(CHANNEL_ID, "U2", "  paris! ", requestTime.plusNanos(1000), RESPONSE_URL, listener), is(true));
+
+        //Only the first right answer wins the round, which is over by the time the next one comes in
+        assertThat(cut.submitAnswer(CHANNEL_ID, "U3", "Paris", requestTime.plusNanos(2000), RESPONSE_URL, listener), is(false));
+
+        verify(listener).onRoundWon(CHANNEL_ID, "U2", "Paris", RESPONSE_URL);
+    }
+
+    @Test
+    public void testEarliestRightAnswerWinsWhateverOrderItIsGradedIn() throws Exception {
+        cut = newAutoHost(200, 3);
+        final LocalDateTime requestTime = LocalDateTime.now();
+
+        willReturn(new OpenRound(CHANNEL_ID, BOT, RESPONSE_URL, requestTime, 60)).given(workflowService)
+                .onQuestionSubmitted(eq(CHANNEL_ID), eq(BOT), eq("Capital of France?"), eq(RESPONSE_URL), any(LocalDateTime.class));
+
+        cut.startGame(CHANNEL_ID, "Geography", RESPONSE_URL);
+
+        //U3's answer arrived a microsecond before U2's, but is graded after it
+        assertThat(cut.submitAnswer(CHANNEL_ID, "U2", "Paris", requestTime.plusNanos(2000), RESPONSE_URL, listener), is(true));
+        assertThat(cut.submitAnswer(CHANNEL_ID, "U3", "paris", requestTime.plusNanos(1000), RESPONSE_URL, listener), is(true));
+        verify(listener, never()).onRoundWon(anyString(), anyString(), anyString(), anyString());
+
+        verify(listener, timeout(5000)).onRoundWon(CHANNEL_ID, "U3", "Paris", RESPONSE_URL);
+        verify(listener, after(300).never()).onRoundWon(CHANNEL_ID, "U2", "Paris", RESPONSE_URL);
+    }
+
+    @Test
+    public void testSettlingWaitsForCommandRunningInChannel() throws Exception {
+        cut = newAutoHost(50, 3);
+        final LocalDateTime requestTime = LocalDateTime.now();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        willReturn(new OpenRound(CHANNEL_ID, BOT, RESPONSE_URL, requestTime, 60)).given(workflowService)
+                .onQuestionSubmitted(eq(CHANNEL_ID), eq(BOT), eq("Capital of France?"), eq(RESPONSE_URL), any(LocalDateTime.class));
+
+        cut.startGame(CHANNEL_ID, "Geography", RESPONSE_URL);
+        cut.submitAnswer(CHANNEL_ID, "U2", "Paris", requestTime, RESPONSE_URL, listener);
+
+        //Someone resets the scores while the window for earlier answers is open
+        final CompletableFuture<Boolean> reset = mailboxes.submit(CHANNEL_ID, () -> awaitQuietly(release));
+
+        verify(listener, after(300).never()).onRoundWon(anyString(), anyString(), anyString(), anyString());
+
+        release.countDown();
+
+        assertThat(reset.get(5, TimeUnit.SECONDS), is(true));
+        verify(listener, timeout(5000)).onRoundWon(CHANNEL_ID, "U2", "Paris", RESPONSE_URL);
+    }
+
+    @Test
+    public void testTimeUpWithRightAnswerWaitingWinsRound() throws Exception {
+        cut = newAutoHost(60000, 3);
+        final LocalDateTime requestTime = LocalDateTime.now();
+        final OpenRound round = new OpenRound(CHANNEL_ID, BOT, RESPONSE_URL, requestTime, 60);
+
+        willReturn(round).given(workflowService)
+                .onQuestionSubmitted(eq(CHANNEL_ID), eq(BOT), eq("Capital of France?"), eq(RESPONSE_URL), any(LocalDateTime.class));
+
+        cut.startGame(CHANNEL_ID, "Geography", RESPONSE_URL);
+        cut.submitAnswer(CHANNEL_ID, "U2", "Paris", requestTime.plusSeconds(59), RESPONSE_URL, listener);
+
+        assertThat(cut.onTimeUp(round, new GameState()), is(nullValue()));
+
+        verify(listener).onRoundWon(CHANNEL_ID, "U2", "Paris", RESPONSE_URL);
+        verify(workflowService, never()).onTurnChanged(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void testUnknownTopicListsTopics() throws Exception {
+        cut = newAutoHost(0, 3);
+
+        try {
+            cut.startGame(CHANNEL_ID, "History", RESPONSE_URL);
+            fail();
+        } catch (WorkflowException e) {
+            assertThat(e.getMessage(), is(equalTo("I have no questions about \"History\". Try one of: Geography, Music.")));
+        }
+    }
+
+    @Test(expected = WorkflowException.class)
+    public void testNoBankNoGame() throws Exception {
+        new AutoHostServiceImpl(workflowService, delayedSlackService, mailboxes, "", 60, 3, 0).startGame(CHANNEL_ID, null, RESPONSE_URL);
+    }
+
+    @Test
+    public void testGameEndsWhenQuestionsRunOut() throws Exception {
+        cut = newAutoHost(0, 3);
+        final OpenRound round = new OpenRound(CHANNEL_ID, BOT, RESPONSE_URL, LocalDateTime.now(), 60);
+
+        willReturn(round).given(workflowService)
+                .onQuestionSubmitted(eq(CHANNEL_ID), eq(BOT), eq("Capital of France?"), eq(RESPONSE_URL), any(LocalDateTime.class));
+
+        cut.startGame(CHANNEL_ID, "Geography", RESPONSE_URL);
+
+        assertThat(cut.askNextQuestion(CHANNEL_ID, RESPONSE_URL, "<@U1> got it!"), is(nullValue()));
+
+        verify(workflowService).onGameStopped(CHANNEL_ID, BOT);
+        assertThat(sentText(), is(equalTo("<@U1> got it!\n\nThat was my last question about Geography, so the game is over. Thanks for playing!")));
+        assertThat(cut.isHosting(CHANNEL_ID), is(false));
+    }
+
+    @Test
+    public void testGameStopsAfterUnansweredQuestions() throws Exception {
+        cut = newAutoHost(0, 1);
+        final OpenRound round = new OpenRound(CHANNEL_ID, BOT, RESPONSE_URL, LocalDateTime.now(), 60);
+
+        willReturn(round).given(workflowService)
+                .onQuestionSubmitted(eq(CHANNEL_ID), eq(BOT), eq("Capital of France?"), eq(RESPONSE_URL), any(LocalDateTime.class));
+
+        cut.startGame(CHANNEL_ID, "Geography", RESPONSE_URL);
+
+        final GameState gameState = new GameState();
+        gameState.setControllingUserId(BOT);
+        gameState.setQuestion("Capital of France?");
+
+        assertThat(cut.onTimeUp(round, gameState), is(nullValue()));
+
+        verify(workflowService).onTurnChanged(CHANNEL_ID, BOT, BOT);
+        verify(workflowService).onGameStopped(CHANNEL_ID, BOT);
+        assertThat(sentText(), is(equalTo("Time's up! The answer was \"Paris\".\n\nNo one has answered the last 1 questions, so I've stopped the game.")));
+    }
+
+    private AutoHostServiceImpl newAutoHost(final long settleMillis, final int maxIdleRounds) throws Exception {
+        return new AutoHostServiceImpl(workflowService, delayedSlackService, mailboxes, bankPath, 60, maxIdleRounds, settleMillis);
+    }
+
+    private String sentText() {
+        final ArgumentCaptor<SlackResponseDoc> responseDoc = ArgumentCaptor.forClass(SlackResponseDoc.class);
+        verify(delayedSlackService, atLeastOnce()).sendResponse(eq(CHANNEL_ID), eq(RESPONSE_URL), responseDoc.capture());
+
+        return responseDoc.getValue().getText();
+    }
+
+    private static boolean awaitQuietly(final CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
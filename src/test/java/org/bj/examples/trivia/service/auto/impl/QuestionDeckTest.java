@@ -0,0 +1,35 @@
+package org.bj.examples.trivia.service.auto.impl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class QuestionDeckTest {
+    @Test
+    public void testDealsEveryQuestionOnceThenRunsOut() {
+        final QuestionDeck deck = new QuestionDeck(100, 50);
+        final Random random = new Random(42);
+        final Set<Integer> dealt = new HashSet<>();
+
+        for (int i = 0; i < 50; i++) {
+            final int question = deck.deal(random);
+
+            assertThat(question >= 100 && question < 150, is(true));
+            assertThat(dealt.add(question), is(true));
+        }
+
+        assertThat(deck.remaining(), is(equalTo(0)));
+        assertThat(deck.deal(random), is(equalTo(-1)));
+    }
+
+    @Test
+    public void testEmptyDeckDealsNothing() {
+        assertThat(new QuestionDeck(0, 0).deal(new Random()), is(equalTo(-1)));
+    }
+}
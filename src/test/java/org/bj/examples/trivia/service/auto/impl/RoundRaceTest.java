@@ -0,0 +1,50 @@
+package org.bj.examples.trivia.service.auto.impl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.bj.examples.trivia.util.AnswerGrader;
+import org.junit.Test;
+
+public class RoundRaceTest {
+    private static final LocalDateTime START = LocalDateTime.of(2018, 10, 1, 12, 0);
+
+    @Test
+    public void testEarliestEntryLeadsWhateverOrderEntriesArrive() {
+        final RoundRace race = new RoundRace(new AnswerGrader("Paris"));
+
+        //The mailbox hands answers over in the order they were graded, not the order they reached the app
+        assertThat(race.enter(new RoundRace.Entry("U1", START.plusNanos(2000), null, null)), is(true));
+        assertThat(race.enter(new RoundRace.Entry("U2", START, null, null)), is(false));
+        assertThat(race.enter(new RoundRace.Entry("U3", START.plusNanos(1000), null, null)), is(false));
+        assertThat(race.enter(new RoundRace.Entry("U4", START, null, null)), is(false));
+
+        final RoundRace.Standing standing = race.close();
+
+        assertThat(standing.getLeader().getUserId(), is(equalTo("U2")));
+        assertThat(race.close(), is(nullValue()));
+    }
+
+    @Test
+    public void testClosedRaceTakesNoEntries() {
+        final RoundRace race = new RoundRace(new AnswerGrader("Paris"));
+
+        assertThat(race.close().getLeader(), is(nullValue()));
+        assertThat(race.enter(new RoundRace.Entry("U1", START, null, null)), is(false));
+        assertThat(race.close(), is(nullValue()));
+    }
+
+    @Test
+    public void testEntryWithoutTimeNeverTakesLead() {
+        final RoundRace race = new RoundRace(new AnswerGrader("Paris"));
+
+        assertThat(race.enter(new RoundRace.Entry("U1", START, null, null)), is(true));
+        assertThat(race.enter(new RoundRace.Entry("U2", null, null, null)), is(false));
+
+        assertThat(race.close().getLeader().getUserId(), is(equalTo("U1")));
+    }
+}
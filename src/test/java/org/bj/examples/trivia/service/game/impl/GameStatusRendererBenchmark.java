@@ -0,0 +1,107 @@
+package org.bj.examples.trivia.service.game.impl;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.bj.examples.trivia.dto.GameState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the <code>String.format</code> per answer that
+ * <code>TriviaGameServiceImpl</code> used to render the status with
+ * {@link GameStatusRenderer}, for a question with 10, 100 and 1,000
+ * answers submitted a few seconds apart.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStatusRendererBenchmark {
+    private static final String BASE_STATUS_FORMAT = "*Topic:* %s\n*Turn:* %s\n*Question:*%s";
+    private static final String ANSWERS_FORMAT = "\n\n*Answers:*%s";
+    private static final String SINGLE_ANSWER_FORMAT = "%22s   %s   %s";
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm:ss a").withZone(ZoneId.of("US/Central"));
+
+    @Param({"10", "100", "1000"})
+    private int answerCount;
+
+    private final GameStatusRenderer renderer = new GameStatusRenderer();
+
+    private GameState gameState;
+
+    @Setup
+    public void setUp() {
+        final LocalDateTime start = LocalDateTime.of(2018, 10, 9, 16, 30, 0);
+        final List<GameState.Answer> answers = new ArrayList<>();
+
+        for (int i = 0; i < answerCount; i++) {
+            answers.add(new GameState.Answer("U" + i, "player" + (i * 7919 % 100_000), "answer number " + i, start.plusSeconds(3 * i)));
+        }
+
+        gameState = new GameState();
+        gameState.setControllingUserId("U12345");
+        gameState.setTopic("Movies");
+        gameState.setQuestion("Who directed Jaws?");
+        gameState.setAnswers(answers);
+
+        if (!renderer().equals(stringFormat())) {
+            throw new IllegalStateException("The renderers disagree.");
+        }
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        final boolean isControllingUser = gameState.getControllingUserId().equals("U1");
+
+        final String topic = gameState.getTopic() == null ? "None" : gameState.getTopic();
+        final String turn = isControllingUser ? "Yours" : "<@" + gameState.getControllingUserId() + ">";
+        final String question = gameState.getQuestion() == null ? " Waiting..." : ("\n\n" + gameState.getQuestion());
+
+        String statusText = String.format(BASE_STATUS_FORMAT, topic, turn, question);
+
+        int maxUsernameLength = 1 + gameState.getAnswers().stream()
+                .map(GameState.Answer::getUsername)
+                .map(String::length)
+                .max(Comparator.comparing(Integer::valueOf))
+                .orElse(0);
+
+        final String answerText = "\n\n```" + gameState.getAnswers().stream()
+                .sorted(Comparator.comparing(GameState.Answer::getCreatedDate))
+                .map(answer ->
+                    String.format(
+                            SINGLE_ANSWER_FORMAT,
+                            DATE_FORMATTER.format(answer.getCreatedDate().atZone(ZoneId.of("UTC"))),
+                            String.format("@%-" + maxUsernameLength + "s", answer.getUsername()),
+                            answer.getText()
+                    )
+                )
+                .collect(Collectors.joining("\n")) + "```";
+
+        statusText += String.format(ANSWERS_FORMAT, answerText);
+
+        return statusText;
+    }
+
+    @Benchmark
+    public String renderer() {
+        return renderer.render(gameState, "U1");
+    }
+}
@@ -0,0 +1,46 @@
+package org.bj.examples.trivia.service.game.impl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.bj.examples.trivia.dto.GameState;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class GameStatusRendererTest {
+    private final GameStatusRenderer cut = new GameStatusRenderer();
+
+    @Test
+    public void testAnswersSubmittedOutOfOrderAreSorted() {
+        final GameState gameState = gameState(
+                new GameState.Answer("U2222", "joe", "answer 2", LocalDateTime.of(2018, 10, 9, 16, 32, 21)),
+                new GameState.Answer("U1111", "jimbob", "answer 1", LocalDateTime.of(2018, 10, 9, 16, 30, 33))
+        );
+
+        assertThat(cut.render(gameState, "U12345"), is(equalTo("*Topic:* None\n*Turn:* Yours\n*Question:*\n\nsome question?\n\n*Answers:*\n\n```10/09/2018 11:30:33 AM   @jimbob    answer 1\n10/09/2018 11:32:21 AM   @joe       answer 2```")));
+    }
+
+    @Test
+    public void testTimestampsSharingACacheSlotAreNotMixedUp() {
+        //1024 seconds apart, so both land in the same slot
+        final LocalDateTime first = LocalDateTime.of(2018, 10, 9, 16, 30, 0);
+        final LocalDateTime second = first.plusSeconds(1024);
+
+        cut.render(gameState(new GameState.Answer("U1111", "jimbob", "answer 1", first)), "U12345");
+        final String statusText = cut.render(gameState(new GameState.Answer("U2222", "joe", "answer 2", second)), "U12345");
+
+        assertThat(statusText.endsWith("```10/09/2018 11:47:04 AM   @joe    answer 2```"), is(true));
+    }
+
+    private static GameState gameState(final GameState.Answer... answers) {
+        final GameState gameState = new GameState();
+        gameState.setControllingUserId("U12345");
+        gameState.setQuestion("some question?");
+        gameState.setAnswers(ImmutableList.copyOf(answers));
+        return gameState;
+    }
+}
@@ -5,22 +5,40 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
+import org.bj.examples.trivia.data.score.ScoreInfo;
 import org.bj.examples.trivia.dto.GameState;
+import org.bj.examples.trivia.dto.OpenRound;
 import org.bj.examples.trivia.dto.SlackRequestDoc;
+import org.bj.examples.trivia.dto.SlackResponse;
 import org.bj.examples.trivia.dto.SlackResponseDoc;
 import org.bj.examples.trivia.dto.SlackResponseType;
 import org.bj.examples.trivia.dto.SlackUser;
+import org.bj.examples.trivia.exception.ScoreException;
+import org.bj.examples.trivia.exception.WorkflowException;
+import org.bj.examples.trivia.service.auto.AutoHostService;
+import org.bj.examples.trivia.service.round.RoundService;
+import org.bj.examples.trivia.service.round.RoundTimerService;
 import org.bj.examples.trivia.service.score.ScoreService;
+import org.bj.examples.trivia.service.slack.DelayedSlackService;
+import org.bj.examples.trivia.service.slack.JoinAnnouncementService;
 import org.bj.examples.trivia.service.workflow.WorkflowService;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -29,7 +47,6 @@ import com.google.common.collect.ImmutableMap;
 
 @RunWith(MockitoJUnitRunner.StrictStubs.class)
 public class TriviaGameServiceImplTest {
-    @InjectMocks
     public TriviaGameServiceImpl cut;
 
     @Mock
@@ -38,6 +55,26 @@ public class TriviaGameServiceImplTest {
     @Mock
     private ScoreService scoreService;
 
+    @Mock
+    private RoundService roundService;
+
+    @Mock
+    private RoundTimerService roundTimerService;
+
+    @Mock
+    private AutoHostService autoHostService;
+
+    @Mock
+    private DelayedSlackService delayedSlackService;
+
+    @Mock
+    private JoinAnnouncementService joinAnnouncementService;
+
+    @Before
+    public void setUp() {
+        cut = new TriviaGameServiceImpl(scoreService, workflowService, roundService, roundTimerService, autoHostService, delayedSlackService, joinAnnouncementService, 100, 60000, 100, 60000);
+    }
+
     //region getStatus
     @Test
     public void testGetStatusWithNullGameState() {
@@ -48,7 +85,7 @@ public class TriviaGameServiceImplTest {
 
         given(workflowService.getCurrentGameState(anyString())).willReturn(null);
 
-        final SlackResponseDoc responseDoc = cut.getStatus(requestDoc);
+        final SlackResponse responseDoc = cut.getStatus(requestDoc);
 
         assertThat(responseDoc, is(notNullValue()));
         assertThat(responseDoc.getResponseType(), is(equalTo(SlackResponseType.EPHEMERAL)));
@@ -66,7 +103,7 @@ public class TriviaGameServiceImplTest {
 
         given(workflowService.getCurrentGameState(anyString())).willReturn(gameState);
 
-        final SlackResponseDoc responseDoc = cut.getStatus(requestDoc);
+        final SlackResponse responseDoc = cut.getStatus(requestDoc);
 
         assertThat(responseDoc, is(notNullValue()));
         assertThat(responseDoc.getResponseType(), is(equalTo(SlackResponseType.EPHEMERAL)));
@@ -88,7 +125,7 @@ public class TriviaGameServiceImplTest {
 
         given(workflowService.getCurrentGameState(anyString())).willReturn(gameState);
 
-        final SlackResponseDoc responseDoc = cut.getStatus(requestDoc);
+        final SlackResponse responseDoc = cut.getStatus(requestDoc);
 
         assertThat(responseDoc, is(notNullValue()));
         assertThat(responseDoc.getResponseType(), is(equalTo(SlackResponseType.EPHEMERAL)));
@@ -112,7 +149,7 @@ public class TriviaGameServiceImplTest {
 
         given(workflowService.getCurrentGameState(anyString())).willReturn(gameState);
 
-        final SlackResponseDoc responseDoc = cut.getStatus(requestDoc);
+        final SlackResponse responseDoc = cut.getStatus(requestDoc);
 
         assertThat(responseDoc, is(notNullValue()));
         assertThat(responseDoc.getResponseType(), is(equalTo(SlackResponseType.EPHEMERAL)));
@@ -137,7 +174,7 @@ public class TriviaGameServiceImplTest {
 
         given(workflowService.getCurrentGameState(anyString())).willReturn(gameState);
 
-        final SlackResponseDoc responseDoc = cut.getStatus(requestDoc);
+        final SlackResponse responseDoc = cut.getStatus(requestDoc);
 
         assertThat(responseDoc, is(notNullValue()));
         assertThat(responseDoc.getResponseType(), is(equalTo(SlackResponseType.EPHEMERAL)));
@@ -163,7 +200,7 @@ public class TriviaGameServiceImplTest {
 
         given(workflowService.getCurrentGameState(anyString())).willReturn(gameState);
 
-        final SlackResponseDoc responseDoc = cut.getStatus(requestDoc);
+        final SlackResponse responseDoc = cut.getStatus(requestDoc);
 
         assertThat(responseDoc, is(notNullValue()));
         assertThat(responseDoc.getResponseType(), is(equalTo(SlackResponseType.EPHEMERAL)));
@@ -190,7 +227,7 @@ public class TriviaGameServiceImplTest {
 
         given(workflowService.getCurrentGameState(anyString())).willReturn(gameState);
 
-        final SlackResponseDoc responseDoc = cut.getStatus(requestDoc);
+        final SlackResponse responseDoc = cut.getStatus(requestDoc);
 
         assertThat(responseDoc, is(notNullValue()));
         assertThat(responseDoc.getResponseType(), is(equalTo(SlackResponseType.EPHEMERAL)));
@@ -222,7 +259,7 @@ public class TriviaGameServiceImplTest {
 
         given(workflowService.getCurrentGameState(anyString())).willReturn(gameState);
 
-        final SlackResponseDoc responseDoc = cut.getStatus(requestDoc);
+        final SlackResponse responseDoc = cut.getStatus(requestDoc);
 
         assertThat(responseDoc, is(notNullValue()));
         assertThat(responseDoc.getResponseType(), is(equalTo(SlackResponseType.EPHEMERAL)));
@@ -244,7 +281,7 @@ public class TriviaGameServiceImplTest {
 
         given(scoreService.getAllScoresByUser(channelId)).willReturn(scoresByUser);
 
-        final SlackResponseDoc responseDoc = cut.getScores(requestDoc);
+        final SlackResponse responseDoc = cut.getScores(requestDoc);
 
         /*
          * ```Scores:
@@ -265,7 +302,7 @@ public class TriviaGameServiceImplTest {
 
         given(scoreService.getAllScoresByUser(channelId)).willReturn(ImmutableMap.of());
 
-        final SlackResponseDoc responseDoc = cut.getScores(requestDoc);
+        final SlackResponse responseDoc = cut.getScores(requestDoc);
 
         /*
          * ```Scores:
@@ -274,4 +311,349 @@ public class TriviaGameServiceImplTest {
          */
         assertThat(responseDoc.getText(), is("```Scores:\n\nNo scores yet...```"));
     }
+
+    //region score cache
+    @Test
+    public void testGetScoresReadsScoresOnceUntilTheyChange() {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+
+        given(scoreService.getAllScoresByUser("channel")).willReturn(ImmutableMap.of(new SlackUser("1234", "test1"), 1L));
+
+        final String first = cut.getScores(requestDoc).getText();
+        final String second = cut.getScores(requestDoc).getText();
+
+        assertThat(second, is(equalTo(first)));
+        verify(scoreService, times(1)).getAllScoresByUser("channel");
+    }
+
+    @Test
+    public void testCorrectAnswerAddsPointToCachedScores() throws Exception {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+        requestDoc.setUserId("U1");
+
+        given(scoreService.getAllScoresByUser("channel")).willReturn(ImmutableMap.of(
+                new SlackUser("U1", "test1"), 2L,
+                new SlackUser("U2", "test2"), 1L
+        ));
+        given(scoreService.doesUserExist("channel", "U2")).willReturn(true);
+        given(roundService.awardAndRotate("channel", "U1", "U2")).willReturn(score("U2", "test2", 3L));
+
+        assertThat(cut.getScores(requestDoc).getText(), is("```Scores:\n\n@test1:   2\n@test2:   1```"));
+
+        cut.markAnswerCorrect(requestDoc, "<@U2>", null);
+
+        verify(delayedSlackService).sendResponse(eq("channel"), any(), any());
+        assertThat(cut.getScores(requestDoc).getText(), is("```Scores:\n\n@test2:   3\n@test1:   2```"));
+        verify(scoreService, times(1)).getAllScoresByUser("channel");
+    }
+
+    @Test
+    public void testCorrectAnswerWithNothingCachedReadsScoresOnce() throws Exception {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+        requestDoc.setUserId("U1");
+
+        given(scoreService.doesUserExist("channel", "U2")).willReturn(true);
+        given(roundService.awardAndRotate("channel", "U1", "U2")).willReturn(score("U2", "test2", 1L));
+        given(scoreService.getAllScoresByUser("channel")).willReturn(ImmutableMap.of(new SlackUser("U2", "test2"), 1L));
+
+        cut.markAnswerCorrect(requestDoc, "<@U2>", null);
+
+        assertThat(cut.getScores(requestDoc).getText(), is("```Scores:\n\n@test2:   1```"));
+        verify(scoreService, times(1)).getAllScoresByUser("channel");
+    }
+
+    @Test
+    public void testNoCorrectAnswerKeepsTurnWithHost() throws Exception {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+        requestDoc.setUserId("U1");
+
+        given(scoreService.getAllScoresByUser("channel")).willReturn(ImmutableMap.of());
+
+        assertThat(cut.markAnswerCorrect(requestDoc, "none", "Paris").getText(), is("Score updated."));
+
+        final ArgumentCaptor<SlackResponseDoc> delayedResponseDoc = ArgumentCaptor.forClass(SlackResponseDoc.class);
+        verify(delayedSlackService).sendResponse(eq("channel"), any(), delayedResponseDoc.capture());
+        assertThat(delayedResponseDoc.getValue().getText(), is(equalTo("It looks like no one was able to answer that one! The correct answer was \"Paris\".\n\n```Scores:\n\nNo scores yet...```\n\nOK, <@U1>, let's try another one!")));
+
+        verify(roundTimerService).onRoundEnded("channel");
+    }
+
+    @Test
+    public void testCorrectAnswerForUnknownPlayer() throws Exception {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+        requestDoc.setUserId("U1");
+        requestDoc.setCommand("/trivia");
+
+        given(scoreService.doesUserExist("channel", "U9")).willReturn(false);
+
+        final SlackResponse responseDoc = cut.markAnswerCorrect(requestDoc, "<@U9>", null);
+
+        assertThat(responseDoc.getText(), is(equalTo("User <@U9> does not exist. Please choose a valid user.")));
+        verify(delayedSlackService, never()).sendResponse(any(), any(), any());
+
+        //Checked before the round is ended, as not every store can tell in the same step
+        verify(roundService, never()).awardAndRotate(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void testCorrectAnswerForPlayerTheStoreNoLongerHas() throws Exception {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+        requestDoc.setUserId("U1");
+        requestDoc.setCommand("/trivia");
+
+        given(scoreService.doesUserExist("channel", "U9")).willReturn(true);
+        given(roundService.awardAndRotate("channel", "U1", "U9")).willThrow(new ScoreException());
+
+        final SlackResponse responseDoc = cut.markAnswerCorrect(requestDoc, "<@U9>", null);
+
+        assertThat(responseDoc.getText(), is(equalTo("User <@U9> does not exist. Please choose a valid user.")));
+        verify(delayedSlackService, never()).sendResponse(any(), any(), any());
+    }
+
+    @Test
+    public void testResetRefreshesScores() {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+
+        given(scoreService.getAllScoresByUser("channel")).willReturn(
+                ImmutableMap.of(new SlackUser("U2", "test2"), 3L),
+                ImmutableMap.of()
+        );
+
+        cut.getScores(requestDoc);
+        final SlackResponse responseDoc = cut.resetScores(requestDoc);
+
+        assertThat(responseDoc.getAttachments().get(0).getText(), is("```Scores:\n\nNo scores yet...```"));
+    }
+
+    @Test
+    public void testNewPlayerRefreshesScoresButExistingPlayerDoesNot() {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+        requestDoc.setUserId("U2");
+        requestDoc.setUsername("test2");
+
+        given(scoreService.getAllScoresByUser("channel")).willReturn(ImmutableMap.of());
+        given(scoreService.createUserIfNotExists(eq("channel"), any())).willReturn(true);
+
+        cut.getScores(requestDoc);
+        assertThat(cut.join(requestDoc).getText(), is("Joining game."));
+        cut.getScores(requestDoc);
+        assertThat(cut.join(requestDoc).getText(), is("You're already in the game."));
+        cut.getScores(requestDoc);
+
+        verify(scoreService, times(2)).getAllScoresByUser("channel");
+    }
+    //endregion
+
+    //region player cache
+    @Test
+    public void testKnownPlayerAnswersWithoutStoreLookup() throws Exception {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+        requestDoc.setUserId("U2");
+        requestDoc.setUsername("test2");
+
+        given(scoreService.createUserIfNotExists(eq("channel"), any())).willReturn(true);
+
+        cut.submitAnswer(requestDoc, "Paris");
+        cut.submitAnswer(requestDoc, "Lyon");
+        cut.join(requestDoc);
+
+        verify(scoreService, times(1)).createUserIfNotExists(eq("channel"), any());
+    }
+
+    @Test
+    public void testUnknownPlayerIsRememberedUntilTheyPlay() throws Exception {
+        final SlackRequestDoc hostRequestDoc = new SlackRequestDoc();
+        hostRequestDoc.setChannelId("channel");
+        hostRequestDoc.setUserId("U1");
+        hostRequestDoc.setCommand("/trivia");
+
+        final SlackRequestDoc playerRequestDoc = new SlackRequestDoc();
+        playerRequestDoc.setChannelId("channel");
+        playerRequestDoc.setUserId("U9");
+        playerRequestDoc.setUsername("late");
+
+        given(scoreService.doesUserExist("channel", "U9")).willReturn(false);
+        given(scoreService.createUserIfNotExists(eq("channel"), any())).willReturn(true);
+
+        assertThat(cut.pass(hostRequestDoc, "<@U9>").getText(), is("User <@U9> does not exist. Please choose a valid user."));
+        assertThat(cut.pass(hostRequestDoc, "<@U9>").getText(), is("User <@U9> does not exist. Please choose a valid user."));
+
+        cut.join(playerRequestDoc);
+
+        assertThat(cut.pass(hostRequestDoc, "<@U9>").getText(), is("Turn passed to <@U9>."));
+
+        verify(scoreService, times(1)).doesUserExist("channel", "U9");
+        verify(workflowService).onTurnChanged("channel", "U1", "U9");
+    }
+
+    @Test
+    public void testResetForgetsPlayers() throws Exception {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+        requestDoc.setUserId("U2");
+        requestDoc.setUsername("test2");
+
+        given(scoreService.createUserIfNotExists(eq("channel"), any())).willReturn(true);
+        given(scoreService.getAllScoresByUser("channel")).willReturn(ImmutableMap.of());
+
+        cut.submitAnswer(requestDoc, "Paris");
+        cut.resetScores(requestDoc);
+        cut.submitAnswer(requestDoc, "Lyon");
+
+        verify(scoreService, times(2)).createUserIfNotExists(eq("channel"), any());
+    }
+    //endregion
+
+    //region round timer
+    @Test
+    public void testQuestionStartsRoundTimer() throws Exception {
+        final LocalDateTime requestTime = LocalDateTime.of(2018, 10, 9, 11, 30, 33);
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+        requestDoc.setUserId("U1");
+        requestDoc.setResponseUrl("https://hooks.slack.com/commands/1");
+        requestDoc.setRequestTime(requestTime);
+
+        final OpenRound round = new OpenRound("channel", "U1", "https://hooks.slack.com/commands/1", requestTime, 30);
+        given(workflowService.onQuestionSubmitted("channel", "U1", "Capital of France?", "https://hooks.slack.com/commands/1", requestTime))
+                .willReturn(round);
+
+        assertThat(cut.submitQuestion(requestDoc, "Capital of France?").getText(), is("Question posted."));
+
+        verify(roundTimerService).onQuestionAsked(round);
+    }
+
+    @Test
+    public void testSetRoundTimeout() throws Exception {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+        requestDoc.setUserId("U1");
+
+        assertThat(cut.setRoundTimeout(requestDoc, "60").getText(), is("Questions will close after 60 seconds, starting with the next one."));
+        assertThat(cut.setRoundTimeout(requestDoc, "off").getText(), is("Questions will stay open until an answer is marked correct, starting with the next one."));
+
+        verify(workflowService).onRoundTimeoutChanged("channel", "U1", 60);
+        verify(workflowService).onRoundTimeoutChanged("channel", "U1", 0);
+    }
+
+    @Test
+    public void testSetRoundTimeoutOutOfRange() throws Exception {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+        requestDoc.setUserId("U1");
+        requestDoc.setCommand("/trivia");
+
+        assertThat(cut.setRoundTimeout(requestDoc, "1").getText(), is("The timer must be between 5 and 86400 seconds."));
+        assertThat(cut.setRoundTimeout(requestDoc, "soon").getText(), is("The timer must be between 5 and 86400 seconds."));
+
+        verify(workflowService, never()).onRoundTimeoutChanged(anyString(), anyString(), any());
+    }
+    //endregion
+
+    //region auto host
+    @Test
+    public void testWinningAppQuestionScoresAndAsksNext() throws Exception {
+        final LocalDateTime requestTime = LocalDateTime.of(2018, 10, 9, 11, 30, 33, 123456789);
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+        requestDoc.setUserId("U1");
+        requestDoc.setUsername("jimbob");
+        requestDoc.setResponseUrl("https://hooks.slack.com/commands/1");
+        requestDoc.setRequestTime(requestTime);
+
+        final OpenRound next = new OpenRound("channel", AutoHostService.AUTO_HOST_USER_ID, "https://hooks.slack.com/commands/1", LocalDateTime.now(), 60);
+        given(scoreService.getAllScoresByUser("channel")).willReturn(ImmutableMap.of(new SlackUser("U1", "jimbob"), 0L));
+        willReturn(score("U1", "jimbob", 1L))
+                .given(roundService).awardAndRotate("channel", AutoHostService.AUTO_HOST_USER_ID, "U1", AutoHostService.AUTO_HOST_USER_ID);
+        given(autoHostService.askNextQuestion(
+                "channel",
+                "https://hooks.slack.com/commands/1",
+                "<@U1> got it! The answer was \"Paris\".\n\n```Scores:\n\n@jimbob:   1```"
+        )).willReturn(next);
+
+        cut.getScores(requestDoc);
+        assertThat(cut.submitAnswer(requestDoc, "paris").getText(), is("Answer submitted."));
+
+        //The answer is graded with the time it arrived, and the round is won once it is settled
+        final ArgumentCaptor<AutoHostService.RoundWonListener> listener = ArgumentCaptor.forClass(AutoHostService.RoundWonListener.class);
+        verify(autoHostService).submitAnswer(
+                eq("channel"),
+                eq("U1"),
+                eq("paris"),
+                eq(requestTime),
+                eq("https://hooks.slack.com/commands/1"),
+                listener.capture()
+        );
+        listener.getValue().onRoundWon("channel", "U1", "Paris", "https://hooks.slack.com/commands/1");
+
+        verify(roundTimerService).onQuestionAsked(next);
+        verify(scoreService, times(1)).getAllScoresByUser("channel");
+    }
+
+    @Test
+    public void testWrongAnswerToAppQuestionLeavesRoundOpen() throws Exception {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+        requestDoc.setUserId("U1");
+        requestDoc.setUsername("jimbob");
+
+        assertThat(cut.submitAnswer(requestDoc, "Lyon").getText(), is("Answer submitted."));
+
+        verify(roundService, never()).awardAndRotate(anyString(), anyString(), anyString(), anyString());
+        verify(autoHostService, never()).askNextQuestion(any(), any(), any());
+    }
+
+    @Test
+    public void testAnyoneCanStopAppHostedGame() throws Exception {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+        requestDoc.setUserId("U1");
+        requestDoc.setCommand("/trivia");
+
+        willThrow(new WorkflowException("<@USLACKBOT> is currently hosting.")).given(workflowService).onGameStopped("channel", "U1");
+        given(autoHostService.isHosting("channel")).willReturn(true);
+
+        assertThat(cut.stop(requestDoc).getResponseType(), is(SlackResponseType.IN_CHANNEL));
+
+        verify(workflowService).onGameStopped("channel", AutoHostService.AUTO_HOST_USER_ID);
+        verify(autoHostService).onGameStopped("channel");
+        verify(roundTimerService).onRoundEnded("channel");
+    }
+
+    @Test
+    public void testStartAutoAsksFirstQuestion() throws Exception {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("channel");
+        requestDoc.setUserId("U1");
+        requestDoc.setCommand("/trivia");
+        requestDoc.setResponseUrl("https://hooks.slack.com/commands/1");
+
+        final OpenRound round = new OpenRound("channel", AutoHostService.AUTO_HOST_USER_ID, "https://hooks.slack.com/commands/1", LocalDateTime.now(), 60);
+        given(autoHostService.startGame("channel", "Science", "https://hooks.slack.com/commands/1")).willReturn(round);
+
+        final SlackResponse result = cut.startAuto(requestDoc, "Science");
+
+        assertThat(result.getText(), is("OK, I'll ask the questions about Science. The first to answer correctly with `/trivia answer` scores the point!"));
+        verify(roundTimerService).onQuestionAsked(round);
+    }
+    //endregion
+
+    private static ScoreInfo score(final String userId, final String username, final Long score) {
+        final ScoreInfo scoreInfo = new ScoreInfo();
+        scoreInfo.setChannelId("channel");
+        scoreInfo.setUserId(userId);
+        scoreInfo.setUsername(username);
+        scoreInfo.setScore(score);
+
+        return scoreInfo;
+    }
 }
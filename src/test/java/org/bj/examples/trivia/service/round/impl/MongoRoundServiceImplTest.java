@@ -0,0 +1,111 @@
+package org.bj.examples.trivia.service.round.impl;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.bj.examples.trivia.data.score.ScoreInfo;
+import org.bj.examples.trivia.data.workflow.Workflow;
+import org.bj.examples.trivia.exception.WorkflowException;
+import org.bj.examples.trivia.service.workflow.WorkflowService;
+import org.bson.Document;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@RunWith(MockitoJUnitRunner.StrictStubs.class)
+public class MongoRoundServiceImplTest {
+    @InjectMocks
+    public MongoRoundServiceImpl cut;
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Mock
+    private WorkflowService workflowService;
+
+    @Test
+    public void testAwardAndRotate() throws Exception {
+        final ScoreInfo winner = new ScoreInfo();
+        winner.setUserId("U2");
+        winner.setScore(1L);
+
+        willReturn(new Workflow()).given(mongoOperations).findAndModify(any(Query.class), any(Update.class), eq(Workflow.class));
+        willReturn(winner).given(mongoOperations).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ScoreInfo.class));
+
+        assertThat(cut.awardAndRotate("C1", "U1", "U2"), is(winner));
+
+        final ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        final ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoOperations).findAndModify(query.capture(), update.capture(), eq(Workflow.class));
+
+        //Only the host, with a question open, gets to hand the turn over
+        assertThat(query.getValue().getQueryObject().get("controllingUserId"), is("U1"));
+        assertThat(query.getValue().getQueryObject().get("stage"), is("QUESTION_ASKED"));
+
+        final Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertThat(set.get("controllingUserId"), is("U2"));
+        assertThat(set.get("question"), is(nullValue()));
+        assertThat(set.get("stage"), is("STARTED"));
+
+        //The point comes back with the write, so there is nothing left to read
+        final ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoOperations).findAndModify(any(Query.class), eq(new Update().inc("score", 1)), options.capture(), eq(ScoreInfo.class));
+        assertThat(options.getValue().isReturnNew(), is(true));
+        verify(mongoOperations, never()).find(any(Query.class), eq(ScoreInfo.class));
+        verify(mongoOperations, never()).exists(any(Query.class), eq(ScoreInfo.class));
+    }
+
+    @Test
+    public void testNoWinnerKeepsHostAndGivesNoPoint() throws Exception {
+        willReturn(new Workflow()).given(mongoOperations).findAndModify(any(Query.class), any(Update.class), eq(Workflow.class));
+
+        assertThat(cut.awardAndRotate("C1", "U1", null), is(nullValue()));
+
+        final ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoOperations).findAndModify(any(Query.class), update.capture(), eq(Workflow.class));
+        assertThat(((Document) update.getValue().getUpdateObject().get("$set")).get("controllingUserId"), is("U1"));
+        verify(mongoOperations, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ScoreInfo.class));
+    }
+
+    @Test
+    public void testNotHostReportsWhy() throws Exception {
+        willThrow(new WorkflowException("It's <@U3>'s turn; only he/she can mark an answer correct."))
+                .given(workflowService).onCorrectAnswerSelected("C1", "U1");
+
+        try {
+            cut.awardAndRotate("C1", "U1", "U2");
+            fail("Expected WorkflowException");
+        } catch (WorkflowException e) {
+            assertThat(e.getMessage(), is("It's <@U3>'s turn; only he/she can mark an answer correct."));
+        }
+
+        verify(mongoOperations, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ScoreInfo.class));
+    }
+
+    @Test
+    public void testWinnerResetMidwayEndsRoundWithoutPoint() throws Exception {
+        willReturn(new Workflow()).given(mongoOperations).findAndModify(any(Query.class), any(Update.class), eq(Workflow.class));
+
+        assertThat(cut.awardAndRotate("C1", "U1", "U2"), is(nullValue()));
+
+        //Nothing is put back; the round ended as though the reset came just after it
+        verify(mongoOperations, times(1)).findAndModify(any(Query.class), any(Update.class), eq(Workflow.class));
+        verify(mongoOperations, never()).updateFirst(any(Query.class), any(Update.class), eq(Workflow.class));
+    }
+}
@@ -0,0 +1,130 @@
+package org.bj.examples.trivia.service.round.impl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.bj.examples.trivia.data.score.ScoreInfo;
+import org.bj.examples.trivia.data.score.ScoreInfoDao;
+import org.bj.examples.trivia.data.workflow.Workflow;
+import org.bj.examples.trivia.data.workflow.WorkflowDao;
+import org.bj.examples.trivia.data.workflow.WorkflowStage;
+import org.bj.examples.trivia.exception.ScoreException;
+import org.bj.examples.trivia.exception.WorkflowException;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.cloud.datastore.Key;
+
+@RunWith(MockitoJUnitRunner.StrictStubs.class)
+public class RoundServiceImplTest {
+    @InjectMocks
+    public RoundServiceImpl cut;
+
+    @Mock
+    private WorkflowDao workflowDao;
+
+    @Mock
+    private ScoreInfoDao scoreInfoDao;
+
+    @Test
+    public void testAwardAndRotateReturnsScoreCommittedInTransaction() throws Exception {
+        final Workflow workflow = workflow("U1", WorkflowStage.QUESTION_ASKED);
+        final ScoreInfo winner = scoreInfo("U2", 4L);
+        final Key winnerKey = Key.newBuilder("demo", "ScoreInfo", "winner").build();
+
+        given(workflowDao.findByChannelId("C1")).willReturn(workflow);
+        given(scoreInfoDao.findByChannelIdAndUserId("C1", "U2")).willReturn(winner);
+        given(scoreInfoDao.keyOf(winner)).willReturn(winnerKey);
+        //Another point landed after the score was looked up for its key
+        given(workflowDao.saveRound(workflow, "U1", winnerKey)).willReturn(6L);
+
+        final ScoreInfo score = cut.awardAndRotate("C1", "U1", "U2");
+
+        assertThat(score.getUserId(), is("U2"));
+        assertThat(score.getUsername(), is("userU2"));
+        assertThat(score.getScore(), is(equalTo(6L)));
+        assertThat(workflow.getControllingUserId(), is("U2"));
+        assertThat(workflow.getQuestion(), is(nullValue()));
+        assertThat(workflow.getStage(), is(WorkflowStage.STARTED));
+    }
+
+    @Test
+    public void testNoWinnerKeepsHost() throws Exception {
+        final Workflow workflow = workflow("U1", WorkflowStage.QUESTION_ASKED);
+
+        given(workflowDao.findByChannelId("C1")).willReturn(workflow);
+        given(workflowDao.saveRound(eq(workflow), eq("U1"), isNull())).willReturn(0L);
+
+        assertThat(cut.awardAndRotate("C1", "U1", null), is(nullValue()));
+        assertThat(workflow.getControllingUserId(), is("U1"));
+    }
+
+    @Test
+    public void testNotHost() throws Exception {
+        given(workflowDao.findByChannelId("C1")).willReturn(workflow("U3", WorkflowStage.QUESTION_ASKED));
+
+        try {
+            cut.awardAndRotate("C1", "U1", "U2");
+            fail("Expected WorkflowException");
+        } catch (WorkflowException e) {
+            assertThat(e.getMessage(), is("It's <@U3>'s turn; only he/she can mark an answer correct."));
+        }
+
+        verify(workflowDao, never()).saveRound(any(), any(), any());
+    }
+
+    @Test(expected = ScoreException.class)
+    public void testUnknownWinnerSavesNothing() throws Exception {
+        given(workflowDao.findByChannelId("C1")).willReturn(workflow("U1", WorkflowStage.QUESTION_ASKED));
+        given(scoreInfoDao.findByChannelIdAndUserId("C1", "U9")).willReturn(null);
+
+        try {
+            cut.awardAndRotate("C1", "U1", "U9");
+        } finally {
+            verify(workflowDao, never()).saveRound(any(), any(), any());
+        }
+    }
+
+    @Test(expected = WorkflowException.class)
+    public void testConcurrentChangeIsReported() throws Exception {
+        final Workflow workflow = workflow("U1", WorkflowStage.QUESTION_ASKED);
+
+        given(workflowDao.findByChannelId("C1")).willReturn(workflow);
+        given(workflowDao.saveRound(eq(workflow), eq("U1"), isNull())).willReturn(null);
+
+        cut.awardAndRotate("C1", "U1", null);
+    }
+
+    private static Workflow workflow(final String hostUserId, final WorkflowStage stage) {
+        final Workflow workflow = new Workflow();
+        workflow.setId(new ObjectId());
+        workflow.setChannelId("C1");
+        workflow.setControllingUserId(hostUserId);
+        workflow.setQuestion("some question?");
+        workflow.setStage(stage);
+        return workflow;
+    }
+
+    private static ScoreInfo scoreInfo(final String userId, final long score) {
+        final ScoreInfo scoreInfo = new ScoreInfo();
+        scoreInfo.setId(new ObjectId());
+        scoreInfo.setChannelId("C1");
+        scoreInfo.setUserId(userId);
+        scoreInfo.setUsername("user" + userId);
+        scoreInfo.setScore(score);
+        return scoreInfo;
+    }
+}
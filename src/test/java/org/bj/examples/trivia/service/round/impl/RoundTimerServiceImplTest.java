@@ -0,0 +1,251 @@
+package org.bj.examples.trivia.service.round.impl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.bj.examples.trivia.dto.GameState;
+import org.bj.examples.trivia.dto.OpenRound;
+import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.dto.SlackUser;
+import org.bj.examples.trivia.service.auto.AutoHostService;
+import org.bj.examples.trivia.service.score.ScoreService;
+import org.bj.examples.trivia.service.slack.DelayedSlackService;
+import org.bj.examples.trivia.service.slack.impl.ChannelMailboxes;
+import org.bj.examples.trivia.service.slack.impl.CommandExecutor;
+import org.bj.examples.trivia.service.workflow.WorkflowService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.common.collect.ImmutableMap;
+
+@RunWith(MockitoJUnitRunner.StrictStubs.class)
+public class RoundTimerServiceImplTest {
+    private static final String CHANNEL_ID = "C12345";
+    private static final String HOST_USER_ID = "U2";
+    private static final String RESPONSE_URL = "https://hooks.slack.com/commands/1";
+
+    @Mock
+    private WorkflowService workflowService;
+
+    @Mock
+    private ScoreService scoreService;
+
+    @Mock
+    private DelayedSlackService delayedSlackService;
+
+    @Mock
+    private AutoHostService autoHostService;
+
+    private CommandExecutor commandExecutor;
+    private ChannelMailboxes mailboxes;
+
+    private RoundTimerServiceImpl cut;
+
+    @Before
+    public void setUp() {
+        commandExecutor = new CommandExecutor(1, 10, false);
+        mailboxes = new ChannelMailboxes(commandExecutor, 5000);
+        cut = new RoundTimerServiceImpl(workflowService, scoreService, delayedSlackService, autoHostService, mailboxes, 0, 10);
+    }
+
+    @After
+    public void tearDown() {
+        cut.shutdown();
+        commandExecutor.shutdown();
+    }
+
+    @Test
+    public void testClosesRoundAndPassesTurnWhenTimeIsUp() throws Exception {
+        final LocalDateTime questionDate = secondsAgo(30);
+
+        given(workflowService.getCurrentGameState(CHANNEL_ID)).willReturn(openGameState(questionDate));
+        given(scoreService.getAllScoresByUser(CHANNEL_ID)).willReturn(ImmutableMap.of(
+                new SlackUser("U1", "first"), 0L,
+                new SlackUser(HOST_USER_ID, "host"), 0L,
+                new SlackUser("U3", "next"), 0L
+        ));
+
+        cut.onQuestionAsked(new OpenRound(CHANNEL_ID, HOST_USER_ID, RESPONSE_URL, questionDate, 30));
+
+        verify(workflowService, timeout(5000)).onTurnChanged(CHANNEL_ID, HOST_USER_ID, "U3");
+
+        final ArgumentCaptor<SlackResponseDoc> responseDoc = ArgumentCaptor.forClass(SlackResponseDoc.class);
+        verify(delayedSlackService, timeout(5000)).sendResponse(eq(CHANNEL_ID), eq(RESPONSE_URL), responseDoc.capture());
+        assertThat(responseDoc.getValue().getText(), is(equalTo(
+                "Time's up! No answer was marked correct in time.\n\n*Answers:*\n\n```@jimbob: Lyon\n@joe: Paris```\n\nOK, <@U3>, it's your turn to ask a question!"
+        )));
+    }
+
+    @Test
+    public void testTurnWrapsAroundToFirstPlayer() throws Exception {
+        final LocalDateTime questionDate = secondsAgo(30);
+
+        given(workflowService.getCurrentGameState(CHANNEL_ID)).willReturn(openGameState(questionDate));
+        given(scoreService.getAllScoresByUser(CHANNEL_ID)).willReturn(ImmutableMap.of(
+                new SlackUser("U1", "first"), 0L,
+                new SlackUser(HOST_USER_ID, "host"), 0L
+        ));
+
+        cut.onQuestionAsked(new OpenRound(CHANNEL_ID, HOST_USER_ID, RESPONSE_URL, questionDate, 30));
+
+        verify(workflowService, timeout(5000)).onTurnChanged(CHANNEL_ID, HOST_USER_ID, "U1");
+    }
+
+    @Test
+    public void testHostKeepsTurnWhenPlayingAlone() throws Exception {
+        final LocalDateTime questionDate = secondsAgo(30);
+        final GameState gameState = openGameState(questionDate);
+        gameState.setAnswers(null);
+
+        given(workflowService.getCurrentGameState(CHANNEL_ID)).willReturn(gameState);
+        given(scoreService.getAllScoresByUser(CHANNEL_ID)).willReturn(ImmutableMap.of(new SlackUser(HOST_USER_ID, "host"), 0L));
+
+        cut.onQuestionAsked(new OpenRound(CHANNEL_ID, HOST_USER_ID, RESPONSE_URL, questionDate, 30));
+
+        verify(workflowService, timeout(5000)).onTurnChanged(CHANNEL_ID, HOST_USER_ID, HOST_USER_ID);
+
+        final ArgumentCaptor<SlackResponseDoc> responseDoc = ArgumentCaptor.forClass(SlackResponseDoc.class);
+        verify(delayedSlackService, timeout(5000)).sendResponse(eq(CHANNEL_ID), eq(RESPONSE_URL), responseDoc.capture());
+        assertThat(responseDoc.getValue().getText(), is(equalTo(
+                "Time's up! No answer was marked correct in time.\n\nNo one answered.\n\nOK, <@U2>, let's try another one!"
+        )));
+    }
+
+    @Test
+    public void testAppHostedRoundIsClosedByAutoHost() throws Exception {
+        final LocalDateTime questionDate = secondsAgo(30);
+        final OpenRound round = new OpenRound(CHANNEL_ID, AutoHostService.AUTO_HOST_USER_ID, RESPONSE_URL, questionDate, 30);
+        final GameState gameState = openGameState(questionDate);
+        gameState.setControllingUserId(AutoHostService.AUTO_HOST_USER_ID);
+
+        given(workflowService.getCurrentGameState(CHANNEL_ID)).willReturn(gameState);
+
+        cut.onQuestionAsked(round);
+
+        verify(autoHostService, timeout(5000)).onTimeUp(round, gameState);
+        verify(workflowService, never()).onTurnChanged(anyString(), anyString(), anyString());
+        verify(delayedSlackService, never()).sendResponse(any(), any(), any());
+    }
+
+    @Test
+    public void testEndedRoundIsNotClosed() throws Exception {
+        cut.onQuestionAsked(new OpenRound(CHANNEL_ID, HOST_USER_ID, RESPONSE_URL, LocalDateTime.now(ZoneId.of("UTC")), 1));
+        cut.onRoundEnded(CHANNEL_ID);
+
+        verify(workflowService, after(1500).never()).getCurrentGameState(anyString());
+        verify(workflowService, never()).onTurnChanged(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void testNewQuestionReplacesTimer() throws Exception {
+        final LocalDateTime questionDate = LocalDateTime.now(ZoneId.of("UTC"));
+
+        cut.onQuestionAsked(new OpenRound(CHANNEL_ID, HOST_USER_ID, RESPONSE_URL, questionDate, 1));
+        cut.onQuestionAsked(new OpenRound(CHANNEL_ID, HOST_USER_ID, RESPONSE_URL, questionDate, 0));
+
+        verify(workflowService, after(1500).never()).getCurrentGameState(anyString());
+    }
+
+    @Test
+    public void testRoundThatChangedSinceIsNotClosed() throws Exception {
+        final LocalDateTime questionDate = secondsAgo(30);
+
+        //The host has since asked another question
+        given(workflowService.getCurrentGameState(CHANNEL_ID)).willReturn(openGameState(questionDate.plusSeconds(20)));
+
+        cut.onQuestionAsked(new OpenRound(CHANNEL_ID, HOST_USER_ID, RESPONSE_URL, questionDate, 30));
+
+        verify(workflowService, timeout(5000)).getCurrentGameState(CHANNEL_ID);
+        verify(workflowService, after(200).never()).onTurnChanged(anyString(), anyString(), anyString());
+        verify(delayedSlackService, never()).sendResponse(any(), any(), any());
+    }
+
+    @Test
+    public void testTimeUpWaitsForCommandRunningInChannel() throws Exception {
+        final LocalDateTime questionDate = secondsAgo(30);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        //The host is marking an answer correct just as time runs out...
+        final CompletableFuture<Boolean> correct = mailboxes.submit(CHANNEL_ID, () -> awaitQuietly(release));
+
+        cut.onQuestionAsked(new OpenRound(CHANNEL_ID, HOST_USER_ID, RESPONSE_URL, questionDate, 30));
+
+        verify(workflowService, after(300).never()).getCurrentGameState(anyString());
+
+        //...which hands the turn to the winner before the timer gets to look
+        final GameState gameState = openGameState(questionDate);
+        gameState.setControllingUserId("U3");
+        gameState.setQuestion(null);
+        given(workflowService.getCurrentGameState(CHANNEL_ID)).willReturn(gameState);
+
+        release.countDown();
+
+        assertThat(correct.get(5, TimeUnit.SECONDS), is(true));
+        verify(workflowService, timeout(5000)).getCurrentGameState(CHANNEL_ID);
+        verify(workflowService, after(200).never()).onTurnChanged(anyString(), anyString(), anyString());
+        verify(delayedSlackService, never()).sendResponse(any(), any(), any());
+    }
+
+    @Test
+    public void testRestoresTimersOfOpenRounds() throws Exception {
+        final LocalDateTime questionDate = secondsAgo(120);
+
+        //The channel has no timeout of its own, so the default applies
+        cut = new RoundTimerServiceImpl(workflowService, scoreService, delayedSlackService, autoHostService, mailboxes, 60, 10);
+
+        given(workflowService.getOpenRounds()).willReturn(Arrays.asList(new OpenRound(CHANNEL_ID, HOST_USER_ID, RESPONSE_URL, questionDate, null)));
+        given(workflowService.getCurrentGameState(CHANNEL_ID)).willReturn(openGameState(questionDate));
+        given(scoreService.getAllScoresByUser(CHANNEL_ID)).willReturn(ImmutableMap.of(new SlackUser("U3", "next"), 0L));
+
+        cut.restoreTimers();
+
+        verify(workflowService, timeout(5000)).onTurnChanged(CHANNEL_ID, HOST_USER_ID, "U3");
+    }
+
+    private static GameState openGameState(final LocalDateTime questionDate) {
+        final GameState gameState = new GameState();
+        gameState.setControllingUserId(HOST_USER_ID);
+        gameState.setQuestion("Capital of France?");
+        gameState.setQuestionDate(questionDate);
+        gameState.setAnswers(Arrays.asList(
+                new GameState.Answer("U1", "jimbob", "Lyon", questionDate.plusSeconds(5)),
+                new GameState.Answer("U3", "joe", "Paris", questionDate.plusSeconds(10))
+        ));
+
+        return gameState;
+    }
+
+    private static LocalDateTime secondsAgo(final long seconds) {
+        return LocalDateTime.now(ZoneId.of("UTC")).minusSeconds(seconds);
+    }
+
+    private static boolean awaitQuietly(final CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
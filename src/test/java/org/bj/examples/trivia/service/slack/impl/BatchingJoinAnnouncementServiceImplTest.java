@@ -0,0 +1,110 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.util.Arrays;
+
+import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponseType;
+import org.bj.examples.trivia.service.slack.DelayedSlackService;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.StrictStubs.class)
+public class BatchingJoinAnnouncementServiceImplTest {
+    @Mock
+    private DelayedSlackService delayedSlackService;
+
+    private BatchingJoinAnnouncementServiceImpl cut;
+
+    @After
+    public void tearDown() {
+        if (cut != null) {
+            cut.shutdown();
+        }
+    }
+
+    @Test
+    public void testJoinsWithinWindowAreAnnouncedOnce() {
+        cut = new BatchingJoinAnnouncementServiceImpl(delayedSlackService, 200);
+
+        cut.announceJoin("C1", "url1", "U1");
+        cut.announceJoin("C1", "url2", "U2");
+        cut.announceJoin("C1", "url3", "U3");
+
+        final ArgumentCaptor<SlackResponseDoc> captor = ArgumentCaptor.forClass(SlackResponseDoc.class);
+        verify(delayedSlackService, timeout(5000)).sendResponse(eq("C1"), eq("url1"), captor.capture());
+        verifyNoMoreInteractions(delayedSlackService);
+
+        assertThat(captor.getValue().getResponseType(), is(equalTo(SlackResponseType.IN_CHANNEL)));
+        assertThat(captor.getValue().getText(), is(equalTo("<@U1>, <@U2> and <@U3> have joined the game!")));
+    }
+
+    @Test
+    public void testChannelsAreBatchedSeparately() {
+        cut = new BatchingJoinAnnouncementServiceImpl(delayedSlackService, 200);
+
+        cut.announceJoin("C1", "url1", "U1");
+        cut.announceJoin("C2", "url2", "U2");
+
+        verify(delayedSlackService, timeout(5000)).sendResponse(eq("C1"), eq("url1"), any());
+        verify(delayedSlackService, timeout(5000)).sendResponse(eq("C2"), eq("url2"), any());
+    }
+
+    @Test
+    public void testZeroWindowAnnouncesImmediately() {
+        cut = new BatchingJoinAnnouncementServiceImpl(delayedSlackService, 0);
+
+        cut.announceJoin("C1", "url1", "U1");
+
+        final ArgumentCaptor<SlackResponseDoc> captor = ArgumentCaptor.forClass(SlackResponseDoc.class);
+        verify(delayedSlackService).sendResponse(eq("C1"), eq("url1"), captor.capture());
+        assertThat(captor.getValue().getText(), is(equalTo("<@U1> has joined the game!")));
+    }
+
+    @Test
+    public void testShutdownFlushesPendingJoins() {
+        cut = new BatchingJoinAnnouncementServiceImpl(delayedSlackService, 60_000);
+
+        cut.announceJoin("C1", "url1", "U1");
+        cut.shutdown();
+        cut = null;
+
+        verify(delayedSlackService).sendResponse(eq("C1"), eq("url1"), any());
+    }
+
+    @Test
+    public void testAnnouncementForTwoUsers() {
+        assertThat(
+                BatchingJoinAnnouncementServiceImpl.announcement(Arrays.asList("U1", "U2")).getText(),
+                is(equalTo("<@U1> and <@U2> have joined the game!"))
+        );
+    }
+
+    @Test
+    public void testAnnouncementForFourUsersNamesEveryone() {
+        assertThat(
+                BatchingJoinAnnouncementServiceImpl.announcement(Arrays.asList("U1", "U2", "U3", "U4")).getText(),
+                is(equalTo("<@U1>, <@U2>, <@U3> and <@U4> have joined the game!"))
+        );
+    }
+
+    @Test
+    public void testAnnouncementForManyUsersCountsTheRest() {
+        assertThat(
+                BatchingJoinAnnouncementServiceImpl.announcement(Arrays.asList("U1", "U2", "U3", "U4", "U5", "U6")).getText(),
+                is(equalTo("<@U1>, <@U2>, <@U3> and 3 others have joined the game!"))
+        );
+    }
+}
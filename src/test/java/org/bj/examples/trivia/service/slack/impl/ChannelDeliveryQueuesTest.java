@@ -0,0 +1,480 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.bj.examples.trivia.dto.SlackAttachment;
+import org.bj.examples.trivia.dto.SlackResponse;
+import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponseType;
+import org.bj.examples.trivia.util.TokenBucket;
+import org.junit.After;
+import org.junit.Test;
+
+public class ChannelDeliveryQueuesTest {
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<Long> finishedIds = Collections.synchronizedList(new ArrayList<>());
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        retryScheduler.shutdownNow();
+    }
+
+    @Test
+    public void testMessagesForOneChannelAreSentInOrder() throws Exception {
+        final int messageCount = 500;
+        final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(messageCount);
+
+        final ChannelDeliveryQueues cut = queues(messageCount, DeliveryRejectionPolicy.ABORT, delivery -> {
+            sent.add(delivery.getResponseDoc().getText());
+            done.countDown();
+            return completedFuture(DeliveryResult.DELIVERED);
+        });
+
+        for (int i = 0; i < messageCount; i++) {
+            cut.submit(delivery("C1", Integer.toString(i)));
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+        awaitIdle(cut);
+
+        for (int i = 0; i < messageCount; i++) {
+            assertThat(sent.get(i), is(equalTo(Integer.toString(i))));
+        }
+
+        assertThat(cut.getCompletedCount(), is(equalTo((long)messageCount)));
+    }
+
+    @Test
+    public void testMessagesForManyChannelsKeepPerChannelOrder() throws Exception {
+        final int channelCount = 20;
+        final int messagesPerChannel = 50;
+        final Map<String, List<Integer>> sentByChannel = new ConcurrentHashMap<>();
+        final CountDownLatch done = new CountDownLatch(channelCount * messagesPerChannel);
+
+        final ChannelDeliveryQueues cut = queues(channelCount * messagesPerChannel, DeliveryRejectionPolicy.ABORT, delivery -> {
+            sentByChannel.computeIfAbsent(delivery.getChannelKey(), key -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(Integer.valueOf(delivery.getResponseDoc().getText()));
+            done.countDown();
+            return completedFuture(DeliveryResult.DELIVERED);
+        });
+
+        for (int i = 0; i < messagesPerChannel; i++) {
+            for (int channel = 0; channel < channelCount; channel++) {
+                cut.submit(delivery("C" + channel, Integer.toString(i)));
+            }
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(sentByChannel.size(), is(equalTo(channelCount)));
+
+        for (final List<Integer> sent : sentByChannel.values()) {
+            for (int i = 0; i < messagesPerChannel; i++) {
+                assertThat(sent.get(i), is(equalTo(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testSlowChannelDoesNotBlockOtherChannels() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch otherChannelSent = new CountDownLatch(1);
+
+        final ChannelDeliveryQueues cut = queues(10, DeliveryRejectionPolicy.ABORT, delivery -> {
+            if (delivery.getChannelKey().equals("slow")) {
+                await(release);
+            } else {
+                otherChannelSent.countDown();
+            }
+
+            return completedFuture(DeliveryResult.DELIVERED);
+        });
+
+        cut.submit(delivery("slow", "1"));
+        cut.submit(delivery("slow", "2"));
+        cut.submit(delivery("fast", "1"));
+
+        assertThat(otherChannelSent.await(5, TimeUnit.SECONDS), is(true));
+        awaitPending(cut, 2);
+        assertThat(cut.getPendingCount(), is(equalTo(2)));
+
+        release.countDown();
+    }
+
+    @Test
+    public void testDrainedChannelsAreForgotten() throws Exception {
+        final CountDownLatch done = new CountDownLatch(3);
+
+        final ChannelDeliveryQueues cut = queues(10, DeliveryRejectionPolicy.ABORT, delivery -> {
+            done.countDown();
+            return completedFuture(DeliveryResult.DELIVERED);
+        });
+
+        cut.submit(delivery("C1", "1"));
+        cut.submit(delivery("C2", "1"));
+        cut.submit(delivery("C3", "1"));
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertThat(cut.getActiveChannelCount(), is(equalTo(0)));
+        assertThat(cut.getPendingCount(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testDiscardPolicyDropsNewMessages() throws Exception {
+        final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        final BlockingSender sender = new BlockingSender(sent);
+        final ChannelDeliveryQueues cut = queues(2, DeliveryRejectionPolicy.DISCARD, sender);
+
+        cut.submit(delivery("C1", "1"));
+        sender.awaitStarted();
+        cut.submit(delivery("C1", "2"));
+        cut.submit(delivery("C1", "3"));
+
+        assertThat(cut.getRejectedCount(), is(equalTo(1L)));
+
+        sender.release();
+        awaitIdle(cut);
+
+        assertThat(sent, is(equalTo(list("1", "2"))));
+    }
+
+    @Test
+    public void testDiscardOldestPolicyDropsOldestWaitingMessage() throws Exception {
+        final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        final BlockingSender sender = new BlockingSender(sent);
+        final ChannelDeliveryQueues cut = queues(3, DeliveryRejectionPolicy.DISCARD_OLDEST, sender);
+
+        cut.submit(delivery("C1", "1"));
+        sender.awaitStarted();
+        cut.submit(delivery("C1", "2"));
+        cut.submit(delivery("C1", "3"));
+        cut.submit(delivery("C1", "4"));
+
+        assertThat(cut.getRejectedCount(), is(equalTo(1L)));
+
+        sender.release();
+        awaitIdle(cut);
+
+        assertThat(sent, is(equalTo(list("1", "3", "4"))));
+    }
+
+    @Test
+    public void testCallerRunsPolicySendsOnCallingThread() throws Exception {
+        final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        final Thread[] lastSender = new Thread[1];
+        final BlockingSender sender = new BlockingSender(sent) {
+            @Override
+            public CompletionStage<DeliveryResult> send(final Delivery delivery) {
+                lastSender[0] = Thread.currentThread();
+                return super.send(delivery);
+            }
+        };
+        final ChannelDeliveryQueues cut = queues(1, DeliveryRejectionPolicy.CALLER_RUNS, sender);
+
+        cut.submit(delivery("C1", "1"));
+        sender.awaitStarted();
+        sender.release();
+        cut.submit(delivery("C1", "2"));
+
+        assertThat(lastSender[0], is(equalTo(Thread.currentThread())));
+        assertThat(cut.getRejectedCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void testAbortPolicyThrows() throws Exception {
+        final BlockingSender sender = new BlockingSender(new ArrayList<>());
+        final ChannelDeliveryQueues cut = queues(1, DeliveryRejectionPolicy.ABORT, sender);
+
+        cut.submit(delivery("C1", "1"));
+        sender.awaitStarted();
+
+        Exception exception = null;
+
+        try {
+            cut.submit(delivery("C2", "1"));
+        } catch (RejectedExecutionException e) {
+            exception = e;
+        }
+
+        assertThat(exception, is(notNullValue()));
+        assertThat(cut.getRejectedCount(), is(equalTo(1L)));
+
+        sender.release();
+    }
+
+    @Test
+    public void testRetryableFailureHoldsBackChannelUntilDelivered() throws Exception {
+        final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger failuresLeft = new AtomicInteger(2);
+        final CountDownLatch done = new CountDownLatch(2);
+
+        final ChannelDeliveryQueues cut = queues(10, DeliveryRejectionPolicy.ABORT, delivery -> {
+            if (delivery.getResponseDoc().getText().equals("1") && failuresLeft.getAndDecrement() > 0) {
+                return completedFuture(DeliveryResult.RETRY);
+            }
+
+            sent.add(delivery.getResponseDoc().getText());
+            done.countDown();
+            return completedFuture(DeliveryResult.DELIVERED);
+        });
+
+        final Delivery first = delivery("C1", "1");
+        cut.submit(first);
+        cut.submit(delivery("C1", "2"));
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(sent, is(equalTo(list("1", "2"))));
+        assertThat(first.getAttempts(), is(equalTo(3)));
+        assertThat(cut.getRetriedCount(), is(equalTo(2L)));
+        assertThat(cut.getFailedCount(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void testRetriesStopAfterMaxAttempts() throws Exception {
+        final CountDownLatch done = new CountDownLatch(1);
+        final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+        final ChannelDeliveryQueues cut = queues(10, DeliveryRejectionPolicy.ABORT, delivery -> {
+            if (delivery.getResponseDoc().getText().equals("1")) {
+                return completedFuture(DeliveryResult.RETRY);
+            }
+
+            sent.add(delivery.getResponseDoc().getText());
+            done.countDown();
+            return completedFuture(DeliveryResult.DELIVERED);
+        });
+
+        final Delivery first = delivery("C1", "1");
+        cut.submit(first);
+        cut.submit(delivery("C1", "2"));
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(sent, is(equalTo(list("2"))));
+        assertThat(first.getAttempts(), is(equalTo(3)));
+        assertThat(cut.getFailedCount(), is(equalTo(1L)));
+        assertThat(finishedIds.contains(first.getId()), is(true));
+    }
+
+    @Test
+    public void testPermanentFailureIsNotRetried() throws Exception {
+        final CountDownLatch done = new CountDownLatch(1);
+
+        final ChannelDeliveryQueues cut = queues(10, DeliveryRejectionPolicy.ABORT, delivery -> {
+            done.countDown();
+            return completedFuture(DeliveryResult.FAILED);
+        });
+
+        final Delivery delivery = delivery("C1", "1");
+        cut.submit(delivery);
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        awaitIdle(cut);
+
+        assertThat(delivery.getAttempts(), is(equalTo(1)));
+        assertThat(cut.getRetriedCount(), is(equalTo(0L)));
+        assertThat(cut.getFailedCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void testThrottledChannelMessagesAreCoalesced() throws Exception {
+        final List<SlackResponse> sent = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(2);
+
+        final ChannelDeliveryQueues cut = queues(10, DeliveryRejectionPolicy.ABORT, delivery -> {
+            sent.add(delivery.getResponseDoc());
+            done.countDown();
+            return completedFuture(DeliveryResult.DELIVERED);
+        }, () -> new TokenBucket(1, 5));
+
+        final List<Delivery> deliveries = new ArrayList<>();
+
+        for (int i = 1; i <= 4; i++) {
+            final Delivery delivery = answer("C1", "U" + i, "answer " + i);
+            deliveries.add(delivery);
+            cut.submit(delivery);
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        awaitIdle(cut);
+
+        assertThat(sent.size(), is(equalTo(2)));
+        assertThat(sent.get(0).getText(), is(equalTo("<@U1> answers:")));
+
+        final SlackResponse coalesced = sent.get(1);
+        assertThat(coalesced.getText(), is(equalTo("<@U2> answers:")));
+        assertThat(coalesced.getAttachments().size(), is(equalTo(3)));
+        assertThat(coalesced.getAttachments().get(0).getText(), is(equalTo("answer 2")));
+        assertThat(coalesced.getAttachments().get(1).getPretext(), is(equalTo("<@U3> answers:")));
+        assertThat(coalesced.getAttachments().get(2).getText(), is(equalTo("answer 4")));
+
+        assertThat(cut.getCoalescedCount(), is(equalTo(2L)));
+        assertThat(cut.getCompletedCount(), is(equalTo(2L)));
+
+        for (final Delivery delivery : deliveries) {
+            assertThat(finishedIds.contains(delivery.getId()), is(true));
+        }
+    }
+
+    @Test
+    public void testEphemeralMessagesAreNotCoalesced() throws Exception {
+        final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(3);
+
+        final ChannelDeliveryQueues cut = queues(10, DeliveryRejectionPolicy.ABORT, delivery -> {
+            sent.add(delivery.getResponseDoc().getText());
+            done.countDown();
+            return completedFuture(DeliveryResult.DELIVERED);
+        }, () -> new TokenBucket(1, 20));
+
+        cut.submit(delivery("C1", "1"));
+        cut.submit(delivery("C1", "2"));
+        cut.submit(delivery("C1", "3"));
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(sent, is(equalTo(list("1", "2", "3"))));
+        assertThat(cut.getCoalescedCount(), is(equalTo(0L)));
+        assertThat(cut.getThrottledCount() > 0, is(true));
+    }
+
+    @Test
+    public void testRetryAfterIsHonoured() throws Exception {
+        final List<Long> sendTimes = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done = new CountDownLatch(1);
+
+        final ChannelDeliveryQueues cut = queues(10, DeliveryRejectionPolicy.ABORT, delivery -> {
+            sendTimes.add(System.nanoTime());
+
+            if (sendTimes.size() == 1) {
+                delivery.setRetryAfterMillis(200);
+                return completedFuture(DeliveryResult.RETRY);
+            }
+
+            done.countDown();
+            return completedFuture(DeliveryResult.DELIVERED);
+        });
+
+        cut.submit(delivery("C1", "1"));
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+
+        final long waitedMillis = TimeUnit.NANOSECONDS.toMillis(sendTimes.get(1) - sendTimes.get(0));
+        assertThat(waitedMillis >= 200, is(true));
+    }
+
+    private ChannelDeliveryQueues queues(final int capacity, final DeliveryRejectionPolicy rejectionPolicy, final DeliverySender sender) {
+        return queues(capacity, rejectionPolicy, sender, () -> new TokenBucket(capacity, 1_000_000));
+    }
+
+    private ChannelDeliveryQueues queues(
+            final int capacity,
+            final DeliveryRejectionPolicy rejectionPolicy,
+            final DeliverySender sender,
+            final Supplier<TokenBucket> bucketFactory
+    ) {
+        return new ChannelDeliveryQueues(
+                executor,
+                retryScheduler,
+                capacity,
+                rejectionPolicy,
+                new ExponentialBackoff(1, 5, 3),
+                sender,
+                delivery -> finishedIds.add(delivery.getId()),
+                bucketFactory
+        );
+    }
+
+    private static Delivery delivery(final String channelKey, final String text) {
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+        responseDoc.setText(text);
+        return new Delivery(nextId.incrementAndGet(), channelKey, "http://localhost/" + channelKey, responseDoc);
+    }
+
+    private static Delivery answer(final String channelKey, final String userId, final String answer) {
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+        responseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
+        responseDoc.setText("<@" + userId + "> answers:");
+        responseDoc.setAttachments(Collections.singletonList(new SlackAttachment(answer, false)));
+        return new Delivery(nextId.incrementAndGet(), channelKey, "http://localhost/" + channelKey, responseDoc);
+    }
+
+    private static List<String> list(final String... values) {
+        final List<String> list = new ArrayList<>();
+        Collections.addAll(list, values);
+        return list;
+    }
+
+    private static void awaitIdle(final ChannelDeliveryQueues queues) throws InterruptedException {
+        awaitPending(queues, 0);
+    }
+
+    private static void awaitPending(final ChannelDeliveryQueues queues, final int pendingCount) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+
+        while (queues.getPendingCount() > pendingCount && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Holds up the first message until released so the queue can fill up
+     */
+    private static class BlockingSender implements DeliverySender {
+        private final List<String> sent;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        BlockingSender(final List<String> sent) {
+            this.sent = sent;
+        }
+
+        @Override
+        public CompletionStage<DeliveryResult> send(final Delivery delivery) {
+            started.countDown();
+            await(release);
+            sent.add(delivery.getResponseDoc().getText());
+            return completedFuture(DeliveryResult.DELIVERED);
+        }
+
+        void awaitStarted() throws InterruptedException {
+            started.await(5, TimeUnit.SECONDS);
+        }
+
+        void release() {
+            release.countDown();
+        }
+    }
+}
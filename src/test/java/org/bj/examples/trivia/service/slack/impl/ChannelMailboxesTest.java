@@ -0,0 +1,318 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ChannelMailboxesTest {
+    private static final long WAIT_MILLIS = 5000;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void testCommandsForOneChannelNeverOverlap() throws Exception {
+        final ChannelMailboxes cut = new ChannelMailboxes(executor, WAIT_MILLIS);
+        final int[] counter = new int[1];
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final List<Future<?>> results = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            final boolean async = i % 2 == 0;
+
+            results.add(callers.submit(() -> {
+                if (async) {
+                    return cut.submit("C1", () -> increment(counter, running, overlaps)).join();
+                }
+
+                return cut.call("C1", () -> increment(counter, running, overlaps));
+            }));
+        }
+
+        for (final Future<?> result : results) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+
+        awaitIdle(cut);
+
+        assertThat(overlaps.get(), is(equalTo(0)));
+        assertThat(counter[0], is(equalTo(1000)));
+    }
+
+    @Test
+    public void testChannelsRunConcurrently() throws Exception {
+        final ChannelMailboxes cut = new ChannelMailboxes(executor, WAIT_MILLIS);
+        final CountDownLatch bothRunning = new CountDownLatch(2);
+
+        final CompletableFuture<Boolean> first = cut.submit("C1", () -> awaitQuietly(bothRunning));
+        final CompletableFuture<Boolean> second = cut.submit("C2", () -> awaitQuietly(bothRunning));
+
+        assertThat(first.get(5, TimeUnit.SECONDS), is(true));
+        assertThat(second.get(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void testIdleChannelRunsOnCallingThread() {
+        final ChannelMailboxes cut = new ChannelMailboxes(command -> fail("Should not use the executor"), WAIT_MILLIS);
+
+        final Thread thread = cut.call("C1", Thread::currentThread);
+
+        assertThat(thread, is(Thread.currentThread()));
+        assertThat(cut.getActiveChannelCount(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testFailureReachesCallerAndFreesChannel() {
+        final ChannelMailboxes cut = new ChannelMailboxes(executor, WAIT_MILLIS);
+
+        try {
+            cut.call("C1", () -> {
+                throw new IllegalStateException("down");
+            });
+            fail("Expected the command's exception");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("down"));
+        }
+
+        assertThat(cut.call("C1", () -> "next"), is("next"));
+        assertThat(cut.getActiveChannelCount(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testRejectedSubmitFreesChannel() {
+        final ChannelMailboxes cut = new ChannelMailboxes(command -> {
+            throw new RejectedExecutionException();
+        }, WAIT_MILLIS);
+
+        try {
+            cut.submit("C1", () -> "never");
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException e) {
+            assertThat(cut.getActiveChannelCount(), is(equalTo(0)));
+        }
+
+        assertThat(cut.call("C1", () -> "inline"), is("inline"));
+    }
+
+    @Test
+    public void testRejectedSubmitHandsChannelToCommandQueuedBehindIt() throws Exception {
+        final List<CompletableFuture<String>> queued = new ArrayList<>();
+        final ChannelMailboxes[] holder = new ChannelMailboxes[1];
+
+        //The first command is turned away, but only after another one has queued behind it
+        holder[0] = new ChannelMailboxes(command -> {
+            if (queued.isEmpty()) {
+                queued.add(holder[0].submit("C1", () -> "queued"));
+                throw new RejectedExecutionException();
+            }
+
+            command.run();
+        }, WAIT_MILLIS);
+
+        try {
+            holder[0].submit("C1", () -> "never");
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException e) {
+            assertThat(queued.get(0).get(5, TimeUnit.SECONDS), is("queued"));
+            assertThat(holder[0].getActiveChannelCount(), is(equalTo(0)));
+        }
+    }
+
+    @Test
+    public void testRejectedSubmitRetriesQueuedCommandsUntilPoolHasRoom() throws Exception {
+        final List<CompletableFuture<String>> queued = new ArrayList<>();
+        final AtomicInteger rejections = new AtomicInteger();
+        final ChannelMailboxes[] holder = new ChannelMailboxes[1];
+
+        holder[0] = new ChannelMailboxes(command -> {
+            if (queued.isEmpty()) {
+                queued.add(holder[0].submit("C1", () -> "queued"));
+            }
+
+            if (rejections.incrementAndGet() <= 3) {
+                throw new RejectedExecutionException();
+            }
+
+            executor.execute(command);
+        }, WAIT_MILLIS);
+
+        try {
+            holder[0].submit("C1", () -> "never");
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException e) {
+            assertThat(queued.get(0).get(5, TimeUnit.SECONDS), is("queued"));
+        }
+
+        awaitIdle(holder[0]);
+    }
+
+    @Test
+    public void testFullPoolNeverRunsQueuedCommandsOnCallingThread() throws Exception {
+        final AtomicBoolean full = new AtomicBoolean(true);
+        final ChannelMailboxes cut = new ChannelMailboxes(command -> {
+            if (full.get()) {
+                throw new RejectedExecutionException();
+            }
+
+            executor.execute(command);
+        }, WAIT_MILLIS);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread[] caller = new Thread[1];
+        final Future<Boolean> first = callers.submit(() -> cut.call("C1", () -> {
+            caller[0] = Thread.currentThread();
+            started.countDown();
+            return awaitRelease(release);
+        }));
+        final List<CompletableFuture<Thread>> queued = new ArrayList<>();
+
+        started.await();
+
+        for (int i = 0; i < 100; i++) {
+            queued.add(cut.submit("C1", Thread::currentThread));
+        }
+
+        release.countDown();
+
+        //The caller gets its own answer without working through the others first
+        assertThat(first.get(5, TimeUnit.SECONDS), is(true));
+
+        for (final CompletableFuture<Thread> command : queued) {
+            assertThat(command.isDone(), is(false));
+        }
+
+        full.set(false);
+
+        for (final CompletableFuture<Thread> command : queued) {
+            assertThat(command.get(5, TimeUnit.SECONDS) == caller[0], is(false));
+        }
+
+        awaitIdle(cut);
+    }
+
+    @Test
+    public void testQueuedCommandsKeepTheirOrderThroughRetries() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        //Turns away every other hand-off
+        final ChannelMailboxes cut = new ChannelMailboxes(command -> {
+            if (calls.incrementAndGet() % 2 == 0) {
+                throw new RejectedExecutionException();
+            }
+
+            executor.execute(command);
+        }, WAIT_MILLIS);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<Boolean> busy = cut.submit("C1", () -> awaitRelease(release));
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        final List<CompletableFuture<Boolean>> queued = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            final int value = i;
+            queued.add(cut.submit("C1", () -> order.add(value)));
+        }
+
+        release.countDown();
+
+        assertThat(busy.get(5, TimeUnit.SECONDS), is(true));
+
+        for (final CompletableFuture<Boolean> command : queued) {
+            command.get(5, TimeUnit.SECONDS);
+        }
+
+        for (int i = 0; i < order.size(); i++) {
+            assertThat(order.get(i), is(equalTo(i)));
+        }
+
+        assertThat(order.size(), is(equalTo(20)));
+        awaitIdle(cut);
+    }
+
+    @Test
+    public void testCallGivesUpWaitingForBusyChannel() throws Exception {
+        final ChannelMailboxes cut = new ChannelMailboxes(executor, 100);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger ran = new AtomicInteger();
+        final CompletableFuture<Boolean> busy = cut.submit("C1", () -> awaitRelease(release));
+
+        try {
+            cut.call("C1", ran::incrementAndGet);
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException e) {
+            release.countDown();
+        }
+
+        assertThat(busy.get(5, TimeUnit.SECONDS), is(true));
+        awaitIdle(cut);
+        assertThat(ran.get(), is(equalTo(0)));
+    }
+
+    /**
+     * A result is handed over just before its mailbox moves on, so give the
+     * last command a moment to drop the mailbox
+     */
+    private static void awaitIdle(final ChannelMailboxes cut) throws InterruptedException {
+        for (int i = 0; i < 500 && cut.getActiveChannelCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+
+        assertThat(cut.getActiveChannelCount(), is(equalTo(0)));
+    }
+
+    private static int increment(final int[] counter, final AtomicInteger running, final AtomicInteger overlaps) {
+        if (running.incrementAndGet() > 1) {
+            overlaps.incrementAndGet();
+        }
+
+        //Deliberately unsynchronized read-modify-write, as a workflow update is
+        final int value = counter[0];
+        Thread.yield();
+        counter[0] = value + 1;
+
+        running.decrementAndGet();
+        return value;
+    }
+
+    private static boolean awaitQuietly(final CountDownLatch latch) {
+        latch.countDown();
+
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean awaitRelease(final CountDownLatch release) {
+        try {
+            return release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
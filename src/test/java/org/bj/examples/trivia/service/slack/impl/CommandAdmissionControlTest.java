@@ -0,0 +1,86 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.bj.examples.trivia.dto.AdmissionStats;
+import org.junit.Test;
+
+public class CommandAdmissionControlTest {
+    @Test
+    public void testShedsPastOverallLimit() {
+        final CommandAdmissionControl cut = new CommandAdmissionControl(4, 10, 0.5);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(cut.tryAdmit("C" + i, false), is(notNullValue()));
+        }
+
+        assertThat(cut.tryAdmit("C9", false), is(nullValue()));
+
+        final AdmissionStats stats = cut.getStats();
+        assertThat(stats.getInFlight(), is(equalTo(4)));
+        assertThat(stats.getActiveChannels(), is(equalTo(4)));
+        assertThat(stats.getAdmittedCount(), is(equalTo(4L)));
+        assertThat(stats.getShedCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void testShedsPastChannelLimit() {
+        final CommandAdmissionControl cut = new CommandAdmissionControl(100, 2, 0.5);
+
+        assertThat(cut.tryAdmit("C1", false), is(notNullValue()));
+        assertThat(cut.tryAdmit("C1", false), is(notNullValue()));
+        assertThat(cut.tryAdmit("C1", false), is(nullValue()));
+        assertThat(cut.tryAdmit("C2", false), is(notNullValue()));
+
+        assertThat(cut.getStats().getInFlight(), is(equalTo(3)));
+    }
+
+    @Test
+    public void testReadOnlyCommandsAreShedFirst() {
+        final CommandAdmissionControl cut = new CommandAdmissionControl(4, 10, 0.5);
+
+        assertThat(cut.tryAdmit("C1", true), is(notNullValue()));
+        assertThat(cut.tryAdmit("C2", true), is(notNullValue()));
+        assertThat(cut.tryAdmit("C3", true), is(nullValue()));
+        assertThat(cut.tryAdmit("C3", false), is(notNullValue()));
+        assertThat(cut.tryAdmit("C4", false), is(notNullValue()));
+        assertThat(cut.tryAdmit("C5", false), is(nullValue()));
+
+        final AdmissionStats stats = cut.getStats();
+        assertThat(stats.getShedCount(), is(equalTo(2L)));
+        assertThat(stats.getShedReadOnlyCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void testReleaseFreesRoomAndForgetsIdleChannel() {
+        final CommandAdmissionControl cut = new CommandAdmissionControl(1, 1, 0.5);
+
+        final CommandAdmissionControl.Permit permit = cut.tryAdmit("C1", false);
+        assertThat(cut.tryAdmit("C1", false), is(nullValue()));
+
+        permit.release();
+
+        assertThat(cut.getStats().getInFlight(), is(equalTo(0)));
+        assertThat(cut.getStats().getActiveChannels(), is(equalTo(0)));
+        assertThat(cut.tryAdmit("C1", false), is(notNullValue()));
+    }
+
+    @Test
+    public void testRetainedPermitIsHeldUntilLastRelease() {
+        final CommandAdmissionControl cut = new CommandAdmissionControl(10, 10, 0.5);
+
+        final CommandAdmissionControl.Permit permit = cut.tryAdmit("C1", false);
+        permit.retain();
+        permit.release();
+
+        assertThat(cut.getStats().getInFlight(), is(equalTo(1)));
+
+        permit.release();
+
+        assertThat(cut.getStats().getInFlight(), is(equalTo(0)));
+    }
+}
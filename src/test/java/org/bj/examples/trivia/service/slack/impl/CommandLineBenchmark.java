@@ -0,0 +1,108 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the <code>split("\\s+")</code> and string switch that
+ * <code>SlackSlashCommandServiceImpl</code> used to do with
+ * {@link CommandLine}, over a mix of commands weighted the way a game
+ * plays out: mostly answers, a status check now and then, one question
+ * and one mark per round.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandLineBenchmark {
+    private static final String[] COMMANDS = {
+            "answer Blue skies",
+            "answer   Chris Farley",
+            "answer 1939",
+            "answer The Treaty of Versailles",
+            "answer blue",
+            "answer it was 1941 I think",
+            "answer Paris",
+            "answer  Mount Everest ",
+            "answer Jupiter",
+            "answer The Godfather",
+            "status",
+            "status",
+            "question In what year did WWII officially begin?",
+            "correct <@U2147483697> 1939",
+            "join",
+            "scores"
+    };
+
+    private int next;
+
+    @Benchmark
+    public void splitAndSwitch(final Blackhole blackhole) {
+        String commandText = nextCommand().trim();
+        final String[] commandParts = commandText.split("\\s+");
+        final String operator = commandParts[0];
+        commandText = commandText.substring(operator.length(), commandText.length()).trim();
+
+        switch (operator) {
+            case "answer":
+            case "question":
+                blackhole.consume(commandParts.length < 2 ? null : commandText);
+                return;
+            case "correct":
+                blackhole.consume(commandParts[1]);
+                blackhole.consume(commandParts.length > 2
+                        ? commandText.substring(commandParts[1].length(), commandText.length()).trim()
+                        : null);
+                return;
+            case "status":
+            case "join":
+            case "scores":
+                blackhole.consume(operator);
+                return;
+        }
+
+        blackhole.consume(null);
+    }
+
+    @Benchmark
+    public void commandLine(final Blackhole blackhole) {
+        final CommandLine line = CommandLine.parse(nextCommand());
+        final SlashCommand command = line.getCommand();
+
+        if (command == null) {
+            blackhole.consume(null);
+            return;
+        }
+
+        switch (command) {
+            case ANSWER:
+            case QUESTION:
+                blackhole.consume(line.hasArguments() ? line.getArguments() : null);
+                return;
+            case CORRECT:
+                blackhole.consume(line.getFirstArgument());
+                blackhole.consume(line.getArgumentsAfterFirst());
+                return;
+            default:
+                blackhole.consume(command);
+        }
+    }
+
+    private String nextCommand() {
+        final String command = COMMANDS[next];
+        next = (next + 1) % COMMANDS.length;
+        return command;
+    }
+}
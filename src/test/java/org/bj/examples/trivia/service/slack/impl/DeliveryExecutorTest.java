@@ -0,0 +1,134 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class DeliveryExecutorTest {
+    private DeliveryExecutor cut;
+
+    @After
+    public void tearDown() {
+        if (cut != null) {
+            cut.shutdown();
+        }
+    }
+
+    @Test
+    public void testReportsPoolSizeAndActiveWorkers() throws Exception {
+        cut = new DeliveryExecutor(1, false);
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        cut.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        started.await(5, TimeUnit.SECONDS);
+
+        cut.execute(() -> {});
+
+        assertThat(cut.getPoolSize(), is(equalTo(1)));
+        assertThat(cut.getActiveCount(), is(equalTo(1)));
+
+        release.countDown();
+    }
+
+    @Test
+    public void testQueueIsUnboundedSoNothingIsRejected() throws Exception {
+        cut = new DeliveryExecutor(1, false);
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        cut.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        started.await(5, TimeUnit.SECONDS);
+
+        final int tasks = 1000;
+        final CountDownLatch done = new CountDownLatch(tasks);
+        final AtomicInteger ranOnCaller = new AtomicInteger();
+        final Thread caller = Thread.currentThread();
+
+        for (int i = 0; i < tasks; i++) {
+            cut.execute(() -> {
+                if (Thread.currentThread() == caller) {
+                    ranOnCaller.incrementAndGet();
+                }
+
+                done.countDown();
+            });
+        }
+
+        release.countDown();
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(ranOnCaller.get(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testRetrySchedulerDoesNotWaitForWorkers() throws Exception {
+        cut = new DeliveryExecutor(1, false);
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        cut.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        started.await(5, TimeUnit.SECONDS);
+
+        final CountDownLatch retried = new CountDownLatch(1);
+        cut.getRetryScheduler().schedule(retried::countDown, 10, TimeUnit.MILLISECONDS);
+
+        assertThat(retried.await(5, TimeUnit.SECONDS), is(true));
+
+        release.countDown();
+    }
+
+    @Test
+    public void testVirtualThreadOptionStillPostsOnDeliveryThreads() throws Exception {
+        //Falls back to the pool on JVMs without virtual threads
+        cut = new DeliveryExecutor(1, true);
+
+        final CountDownLatch done = new CountDownLatch(1);
+        final String[] threadName = new String[1];
+
+        cut.execute(() -> {
+            threadName[0] = Thread.currentThread().getName();
+            done.countDown();
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(threadName[0].startsWith("slack-delivery-"), is(true));
+        assertThat(threadName[0].startsWith("slack-delivery-retry-"), is(false));
+    }
+
+    @Test
+    public void testShutdownStopsRetryScheduler() {
+        cut = new DeliveryExecutor(1, false);
+
+        cut.shutdown();
+
+        assertThat(cut.getRetryScheduler().isShutdown(), is(true));
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bj.examples.trivia.dto.SlackAttachment;
+import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponseType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class DeliveryJournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testUnacknowledgedDeliveriesAreRecoveredInOrder() throws Exception {
+        final Path path = folder.getRoot().toPath().resolve("journal");
+
+        final DeliveryJournal journal = new DeliveryJournal(path, objectMapper, Long.MAX_VALUE);
+        assertThat(journal.open().isEmpty(), is(true));
+
+        final Delivery first = journal.append("C1", "http://localhost/1", responseDoc("first"));
+        final Delivery second = journal.append("C1", "http://localhost/2", responseDoc("second"));
+        final Delivery third = journal.append("C2", "http://localhost/3", responseDoc("third"));
+        journal.acknowledge(second);
+        journal.close();
+
+        final DeliveryJournal reopened = new DeliveryJournal(path, objectMapper, Long.MAX_VALUE);
+        final List<Delivery> recovered = reopened.open();
+
+        assertThat(recovered.size(), is(equalTo(2)));
+        assertThat(recovered.get(0).getId(), is(equalTo(first.getId())));
+        assertThat(recovered.get(0).getChannelKey(), is(equalTo("C1")));
+        assertThat(recovered.get(0).getUrl(), is(equalTo("http://localhost/1")));
+        assertThat(recovered.get(0).getResponseDoc().getResponseType(), is(equalTo(SlackResponseType.IN_CHANNEL)));
+        assertThat(recovered.get(0).getResponseDoc().getText(), is(equalTo("first")));
+        assertThat(recovered.get(0).getResponseDoc().getAttachments().get(0).getText(), is(equalTo("first answer")));
+        assertThat(recovered.get(0).getResponseDoc().getAttachments().get(0).getMrkdwn_in().isEmpty(), is(true));
+        assertThat(recovered.get(1).getId(), is(equalTo(third.getId())));
+
+        //Ids keep counting up from where the last run left off
+        assertThat(reopened.append("C1", "http://localhost/4", responseDoc("fourth")).getId(), is(equalTo(third.getId() + 1)));
+        reopened.close();
+    }
+
+    @Test
+    public void testOpeningCompactsAwayAcknowledgedRecords() throws Exception {
+        final Path path = folder.getRoot().toPath().resolve("journal");
+
+        final DeliveryJournal journal = new DeliveryJournal(path, objectMapper, Long.MAX_VALUE);
+        journal.open();
+
+        for (int i = 0; i < 10; i++) {
+            journal.acknowledge(journal.append("C1", "http://localhost/" + i, responseDoc(Integer.toString(i))));
+        }
+
+        journal.append("C1", "http://localhost/pending", responseDoc("pending"));
+        journal.close();
+
+        assertThat(Files.readAllLines(path).size(), is(equalTo(21)));
+
+        new DeliveryJournal(path, objectMapper, Long.MAX_VALUE).open();
+
+        assertThat(Files.readAllLines(path).size(), is(equalTo(1)));
+    }
+
+    @Test
+    public void testJournalIsCompactedOnceThresholdIsReached() throws Exception {
+        final Path path = folder.getRoot().toPath().resolve("journal");
+
+        final DeliveryJournal journal = new DeliveryJournal(path, objectMapper, 1);
+        journal.open();
+
+        for (int i = 0; i < 10; i++) {
+            journal.acknowledge(journal.append("C1", "http://localhost/" + i, responseDoc(Integer.toString(i))));
+        }
+
+        journal.close();
+
+        assertThat(Files.readAllLines(path).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testTornRecordIsSkipped() throws Exception {
+        final Path path = folder.getRoot().toPath().resolve("journal");
+
+        final DeliveryJournal journal = new DeliveryJournal(path, objectMapper, Long.MAX_VALUE);
+        journal.open();
+        journal.append("C1", "http://localhost/1", responseDoc("first"));
+        journal.close();
+
+        Files.write(path, "{\"type\":\"SEND\",\"id\":2,\"chan".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        final List<Delivery> recovered = new DeliveryJournal(path, objectMapper, Long.MAX_VALUE).open();
+
+        assertThat(recovered.size(), is(equalTo(1)));
+        assertThat(recovered.get(0).getResponseDoc().getText(), is(equalTo("first")));
+    }
+
+    @Test
+    public void testWriterSurvivesFailureAndCatchesUp() throws Exception {
+        final Path directory = folder.newFolder("journals").toPath();
+        final Path path = directory.resolve("journal");
+
+        //Compacting after every write, which needs the directory
+        final DeliveryJournal journal = new DeliveryJournal(path, objectMapper, 1);
+        journal.open();
+
+        Files.delete(path);
+        Files.delete(directory);
+
+        final Delivery first = journal.append("C1", "http://localhost/1", responseDoc("first"));
+        awaitHealthy(journal, false);
+
+        assertThat(journal.getFailureCount() > 0, is(true));
+
+        Files.createDirectory(directory);
+        awaitHealthy(journal, true);
+
+        final Delivery second = journal.append("C1", "http://localhost/2", responseDoc("second"));
+        journal.close();
+
+        final List<Delivery> recovered = new DeliveryJournal(path, objectMapper, Long.MAX_VALUE).open();
+
+        assertThat(recovered.size(), is(equalTo(2)));
+        assertThat(recovered.get(0).getId(), is(equalTo(first.getId())));
+        assertThat(recovered.get(1).getId(), is(equalTo(second.getId())));
+    }
+
+    @Test
+    public void testDisabledJournalKeepsNothing() throws Exception {
+        final DeliveryJournal journal = new DeliveryJournal(null, objectMapper, Long.MAX_VALUE);
+
+        assertThat(journal.open().isEmpty(), is(true));
+
+        final Delivery first = journal.append("C1", "http://localhost/1", responseDoc("first"));
+        final Delivery second = journal.append("C1", "http://localhost/2", responseDoc("second"));
+        journal.acknowledge(first);
+        journal.close();
+
+        assertThat(second.getId(), is(equalTo(first.getId() + 1)));
+    }
+
+    private static void awaitHealthy(final DeliveryJournal journal, final boolean healthy) throws InterruptedException {
+        for (int i = 0; i < 500 && journal.isHealthy() != healthy; i++) {
+            Thread.sleep(10);
+        }
+
+        assertThat(journal.isHealthy(), is(healthy));
+    }
+
+    private static SlackResponseDoc responseDoc(final String text) {
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+        responseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
+        responseDoc.setText(text);
+        responseDoc.setAttachments(Arrays.asList(new SlackAttachment(text + " answer", false)));
+        return responseDoc;
+    }
+}
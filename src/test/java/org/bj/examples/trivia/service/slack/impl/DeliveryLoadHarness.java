@@ -0,0 +1,261 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.util.SlackResponseWriter;
+import org.bj.examples.trivia.dto.SlackResponseType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Drives a burst of delayed sends through a real {@link DelayedSlackServiceImpl}
+ * and a {@link FakeSlackWebhookServer}, then reports throughput, ordering
+ * violations and delivery latency. Each channel posts to its own path on
+ * the fake server, so ordering can be checked per channel.
+ * <p>
+ * Run {@link #main} for a standalone run, e.g. from the IDE or with
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dstart-class=org.bj.examples.trivia.service.slack.impl.DeliveryLoadHarness</code>
+ * (Spring Boot's parent points <code>exec:java</code> at <code>start-class</code>).
+ */
+public class DeliveryLoadHarness {
+    private int channels = 50;
+    private int messagesPerChannel = 200;
+    private int poolSize = 4;
+    private int queueCapacity = 100_000;
+    private int rateLimitBurst = 1_000_000;
+    private double rateLimitPerSecond = 1_000_000;
+    private long timeoutMillis = TimeUnit.MINUTES.toMillis(2);
+
+    public static void main(final String[] args) throws Exception {
+        try (FakeSlackWebhookServer server = new FakeSlackWebhookServer(64)) {
+            server.withLatency(20).withFailures(0.02).withRateLimiting(0.001, 1);
+            System.out.println(new DeliveryLoadHarness().run(server));
+        }
+    }
+
+    public DeliveryLoadHarness channels(final int channels) {
+        this.channels = channels;
+        return this;
+    }
+
+    public DeliveryLoadHarness messagesPerChannel(final int messagesPerChannel) {
+        this.messagesPerChannel = messagesPerChannel;
+        return this;
+    }
+
+    public DeliveryLoadHarness poolSize(final int poolSize) {
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    public DeliveryLoadHarness rateLimit(final int burst, final double perSecond) {
+        this.rateLimitBurst = burst;
+        this.rateLimitPerSecond = perSecond;
+        return this;
+    }
+
+    public DeliveryLoadHarness timeoutMillis(final long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        return this;
+    }
+
+    public Report run(final FakeSlackWebhookServer server) throws Exception {
+        final DeliveryExecutor deliveryExecutor = new DeliveryExecutor(poolSize, false);
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final SlackWebhookClient webhookClient = new SlackWebhookClient(new SlackResponseWriter(objectMapper), 1, 200, 200, 2000, 5000, 30000);
+        final DelayedSlackServiceImpl delayedSlackService = new DelayedSlackServiceImpl(
+                webhookClient,
+                objectMapper,
+                deliveryExecutor,
+                queueCapacity,
+                DeliveryRejectionPolicy.ABORT,
+                10,
+                1000,
+                10,
+                rateLimitBurst,
+                rateLimitPerSecond,
+                ""
+        );
+
+        final int total = channels * messagesPerChannel;
+        final long[][] sentNanos = new long[channels][messagesPerChannel];
+
+        try {
+            final long start = System.nanoTime();
+
+            //Interleave channels the way a busy workspace would
+            for (int seq = 0; seq < messagesPerChannel; seq++) {
+                for (int channel = 0; channel < channels; channel++) {
+                    final SlackResponseDoc responseDoc = new SlackResponseDoc();
+                    responseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
+                    responseDoc.setText(Integer.toString(seq));
+
+                    sentNanos[channel][seq] = System.nanoTime();
+                    delayedSlackService.sendResponse("C" + channel, server.url("C" + channel), responseDoc);
+                }
+            }
+
+            final long deadline = System.currentTimeMillis() + timeoutMillis;
+
+            while (receivedCount(server) < total && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            final long elapsedNanos = System.nanoTime() - start;
+            return report(server, sentNanos, elapsedNanos);
+        } finally {
+            delayedSlackService.shutdown();
+            webhookClient.close();
+        }
+    }
+
+    private int receivedCount(final FakeSlackWebhookServer server) {
+        int count = 0;
+
+        for (int channel = 0; channel < channels; channel++) {
+            count += server.getReceived("C" + channel).size();
+        }
+
+        return count;
+    }
+
+    private Report report(final FakeSlackWebhookServer server, final long[][] sentNanos, final long elapsedNanos) {
+        final long[] latencies = new long[channels * messagesPerChannel];
+        int received = 0;
+        int orderingViolations = 0;
+        int duplicates = 0;
+
+        for (int channel = 0; channel < channels; channel++) {
+            final List<FakeSlackWebhookServer.Received> messages = server.getReceived("C" + channel);
+            int previous = -1;
+
+            for (final FakeSlackWebhookServer.Received message : messages) {
+                final int seq = Integer.parseInt(message.getText());
+
+                if (seq == previous) {
+                    duplicates++;
+                    continue;
+                }
+
+                if (seq < previous) {
+                    orderingViolations++;
+                } else {
+                    previous = seq;
+                }
+
+                if (received < latencies.length) {
+                    latencies[received++] = message.getReceivedNanos() - sentNanos[channel][seq];
+                }
+            }
+        }
+
+        final long[] sorted = Arrays.copyOf(latencies, received);
+        Arrays.sort(sorted);
+
+        return new Report(
+                channels * messagesPerChannel,
+                received,
+                orderingViolations,
+                duplicates,
+                server.getRequestCount(),
+                server.getRateLimitedCount(),
+                server.getFailedCount(),
+                elapsedNanos,
+                percentileMillis(sorted, 0.50),
+                percentileMillis(sorted, 0.99),
+                percentileMillis(sorted, 0.999),
+                sorted.length == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(sorted[sorted.length - 1])
+        );
+    }
+
+    private static long percentileMillis(final long[] sorted, final double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        final int index = (int)Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(index, 0)]);
+    }
+
+    public static final class Report {
+        private final int sent;
+        private final int received;
+        private final int orderingViolations;
+        private final int duplicates;
+        private final long requests;
+        private final long rateLimited;
+        private final long failed;
+        private final long elapsedNanos;
+        private final long p50Millis;
+        private final long p99Millis;
+        private final long p999Millis;
+        private final long maxMillis;
+
+        Report(
+                final int sent,
+                final int received,
+                final int orderingViolations,
+                final int duplicates,
+                final long requests,
+                final long rateLimited,
+                final long failed,
+                final long elapsedNanos,
+                final long p50Millis,
+                final long p99Millis,
+                final long p999Millis,
+                final long maxMillis
+        ) {
+            this.sent = sent;
+            this.received = received;
+            this.orderingViolations = orderingViolations;
+            this.duplicates = duplicates;
+            this.requests = requests;
+            this.rateLimited = rateLimited;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+            this.p999Millis = p999Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        public int getSent() {
+            return sent;
+        }
+
+        public int getReceived() {
+            return received;
+        }
+
+        public int getOrderingViolations() {
+            return orderingViolations;
+        }
+
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        public double getMessagesPerSecond() {
+            return received / (elapsedNanos / 1_000_000_000d);
+        }
+
+        public long getP99Millis() {
+            return p99Millis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "sent=%d received=%d orderingViolations=%d duplicates=%d requests=%d rateLimited=%d failed=%d%n"
+                            + "elapsed=%dms throughput=%.0f msg/s latency p50=%dms p99=%dms p99.9=%dms max=%dms",
+                    sent, received, orderingViolations, duplicates, requests, rateLimited, failed,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), getMessagesPerSecond(),
+                    p50Millis, p99Millis, p999Millis, maxMillis
+            );
+        }
+    }
+}
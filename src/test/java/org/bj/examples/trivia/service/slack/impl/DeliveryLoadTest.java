@@ -0,0 +1,58 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeliveryLoadTest {
+    private static final Log log = LogFactory.getLog(DeliveryLoadTest.class);
+
+    private FakeSlackWebhookServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new FakeSlackWebhookServer();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testEveryMessageArrivesInOrder() throws Exception {
+        server.withLatency(2);
+
+        final DeliveryLoadHarness.Report report = new DeliveryLoadHarness()
+                .channels(20)
+                .messagesPerChannel(100)
+                .run(server);
+
+        log.info("Delivery load:\n" + report);
+
+        assertThat(report.getReceived(), is(equalTo(report.getSent())));
+        assertThat(report.getOrderingViolations(), is(equalTo(0)));
+        assertThat(report.getDuplicates(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testFailuresAndRateLimitsAreRetriedInOrder() throws Exception {
+        server.withFailures(0.05).withRateLimiting(0.005, 1);
+
+        final DeliveryLoadHarness.Report report = new DeliveryLoadHarness()
+                .channels(20)
+                .messagesPerChannel(100)
+                .run(server);
+
+        log.info("Delivery load with failures:\n" + report);
+
+        assertThat(report.getReceived(), is(equalTo(report.getSent())));
+        assertThat(report.getOrderingViolations(), is(equalTo(0)));
+    }
+}
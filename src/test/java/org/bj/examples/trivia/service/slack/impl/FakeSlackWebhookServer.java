@@ -0,0 +1,208 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Stand-in for Slack's <code>response_url</code> endpoint. Every path is
+ * accepted, and the messages posted to each path are recorded in the
+ * order they arrived, so a test can use one path per channel and check
+ * ordering afterwards. It can be told to answer slowly, rate-limit some
+ * posts with a 429 and <code>Retry-After</code>, or fail some with a 500.
+ * Rate-limited and failed posts are not recorded.
+ */
+public class FakeSlackWebhookServer implements AutoCloseable {
+    static {
+        //Without this the JDK server's small writes trip over delayed ACKs and every post takes ~40ms
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService handlerPool;
+    private final Map<String, List<Received>> receivedByPath = new ConcurrentHashMap<>();
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong rateLimitedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private volatile long latencyMillis;
+    private volatile double rateLimitShare;
+    private volatile int retryAfterSeconds = 1;
+    private volatile double failureShare;
+
+    public FakeSlackWebhookServer() throws IOException {
+        this(32);
+    }
+
+    /**
+     * @param handlerThreads how many posts can be in progress at once,
+     *                       which matters once latency is added
+     */
+    public FakeSlackWebhookServer(final int handlerThreads) throws IOException {
+        this.handlerPool = Executors.newFixedThreadPool(handlerThreads);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(handlerPool);
+        this.server.start();
+    }
+
+    public String url(final String path) {
+        return "http://localhost:" + server.getAddress().getPort() + "/" + path;
+    }
+
+    public FakeSlackWebhookServer withLatency(final long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    /**
+     * @param share fraction of posts, between 0 and 1, answered with 429
+     */
+    public FakeSlackWebhookServer withRateLimiting(final double share, final int retryAfterSeconds) {
+        this.rateLimitShare = share;
+        this.retryAfterSeconds = retryAfterSeconds;
+        return this;
+    }
+
+    /**
+     * @param share fraction of posts, between 0 and 1, answered with 500
+     */
+    public FakeSlackWebhookServer withFailures(final double share) {
+        this.failureShare = share;
+        return this;
+    }
+
+    /**
+     * @return the messages recorded for the path, in arrival order
+     */
+    public List<Received> getReceived(final String path) {
+        final List<Received> received = receivedByPath.get("/" + path);
+
+        if (received == null) {
+            return Collections.emptyList();
+        }
+
+        synchronized (received) {
+            return new ArrayList<>(received);
+        }
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimitedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        handlerPool.shutdownNow();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            requestCount.incrementAndGet();
+            final byte[] body = read(exchange.getRequestBody());
+
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+
+            final double roll = ThreadLocalRandom.current().nextDouble();
+
+            if (roll < rateLimitShare) {
+                rateLimitedCount.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", Integer.toString(retryAfterSeconds));
+                exchange.sendResponseHeaders(429, -1);
+                return;
+            }
+
+            if (roll < rateLimitShare + failureShare) {
+                failedCount.incrementAndGet();
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+
+            record(exchange.getRequestURI().getPath(), objectMapper.readTree(body));
+            exchange.sendResponseHeaders(200, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(503, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * A coalesced post carries several messages: the first as its text and
+     * the rest as attachments. They're recorded as separate messages.
+     */
+    private void record(final String path, final JsonNode message) {
+        final long receivedNanos = System.nanoTime();
+        final List<Received> received = receivedByPath.computeIfAbsent(path, key -> new ArrayList<>());
+
+        synchronized (received) {
+            if (message.hasNonNull("text")) {
+                received.add(new Received(message.get("text").asText(), receivedNanos));
+            }
+
+            for (final JsonNode attachment : message.path("attachments")) {
+                final JsonNode text = attachment.hasNonNull("pretext") ? attachment.get("pretext") : attachment.get("text");
+                received.add(new Received(text.asText(), receivedNanos));
+            }
+        }
+    }
+
+    private static byte[] read(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int read;
+
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+
+        return out.toByteArray();
+    }
+
+    public static final class Received {
+        private final String text;
+        private final long receivedNanos;
+
+        Received(final String text, final long receivedNanos) {
+            this.text = text;
+            this.receivedNanos = receivedNanos;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public long getReceivedNanos() {
+            return receivedNanos;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bj.examples.trivia.dto.SlackRequestDoc;
+import org.bj.examples.trivia.dto.SlackResponse;
+import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.junit.After;
+import org.junit.Test;
+
+public class RedeliveryCacheTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRedeliveryWaitsForOriginal() throws Exception {
+        final RedeliveryCache cut = new RedeliveryCache(60_000, 100);
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+        final CountDownLatch originalStarted = new CountDownLatch(1);
+        final CountDownLatch releaseOriginal = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+
+        final Future<SlackResponse> original = executor.submit(() -> cut.get(requestDoc("hello"), () -> {
+            runs.incrementAndGet();
+            originalStarted.countDown();
+            awaitQuietly(releaseOriginal);
+            return completedFuture(responseDoc);
+        }).join());
+
+        assertThat(originalStarted.await(5, TimeUnit.SECONDS), is(true));
+
+        final Future<SlackResponse> redelivery = executor.submit(() -> cut.get(requestDoc("hello"), () -> {
+            runs.incrementAndGet();
+            return completedFuture(new SlackResponseDoc());
+        }).join());
+
+        releaseOriginal.countDown();
+
+        assertThat(original.get(5, TimeUnit.SECONDS), is(responseDoc));
+        assertThat(redelivery.get(5, TimeUnit.SECONDS), is(responseDoc));
+        assertThat(runs.get(), is(equalTo(1)));
+    }
+
+    @Test
+    public void testResponsesExpire() throws Exception {
+        final RedeliveryCache cut = new RedeliveryCache(50, 100);
+        final SlackResponse first = cut.get(requestDoc("hello"), RedeliveryCacheTest::newResponse).join();
+
+        Thread.sleep(100);
+
+        assertThat(cut.get(requestDoc("hello"), RedeliveryCacheTest::newResponse).join(), is(not(first)));
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        final RedeliveryCache cut = new RedeliveryCache(60_000, 10);
+
+        for (int i = 0; i < 100; i++) {
+            cut.get(requestDoc("answer " + i), RedeliveryCacheTest::newResponse);
+        }
+
+        assertThat(cut.size() <= 10, is(true));
+    }
+
+    @Test
+    public void testPendingResponseIsShared() {
+        final RedeliveryCache cut = new RedeliveryCache(60_000, 100);
+        final CompletableFuture<SlackResponse> pending = new CompletableFuture<>();
+
+        final CompletableFuture<SlackResponse> original = cut.get(requestDoc("hello"), () -> pending);
+        final CompletableFuture<SlackResponse> redelivery = cut.get(requestDoc("hello"), RedeliveryCacheTest::newResponse);
+
+        assertThat(redelivery, is(sameInstance(original)));
+    }
+
+    @Test
+    public void testFailedResponseIsForgotten() {
+        final RedeliveryCache cut = new RedeliveryCache(60_000, 100);
+        final CompletableFuture<SlackResponse> pending = new CompletableFuture<>();
+
+        cut.get(requestDoc("hello"), () -> pending);
+        pending.completeExceptionally(new IllegalStateException("down"));
+
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+
+        assertThat(cut.get(requestDoc("hello"), () -> completedFuture(responseDoc)).join(), is(responseDoc));
+    }
+
+    @Test
+    public void testFingerprintCoversEveryField() {
+        final SlackRequestDoc requestDoc = requestDoc("answer a|b");
+
+        assertThat(RedeliveryCache.fingerprint(requestDoc), is(equalTo("TEAM|C1|U1|TRIGGER|/trivia|answer a|b")));
+    }
+
+    private static SlackRequestDoc requestDoc(final String text) {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setTeamId("TEAM");
+        requestDoc.setChannelId("C1");
+        requestDoc.setUserId("U1");
+        requestDoc.setTriggerId("TRIGGER");
+        requestDoc.setCommand("/trivia");
+        requestDoc.setText(text);
+        return requestDoc;
+    }
+
+    private static CompletableFuture<SlackResponse> newResponse() {
+        return completedFuture(new SlackResponseDoc());
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,32 +1,59 @@
 package org.bj.examples.trivia.service.slack.impl;
 
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.CoreMatchers.startsWith;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
+import java.util.concurrent.RejectedExecutionException;
+
+import org.bj.examples.trivia.dto.PreSerializedResponseDoc;
 import org.bj.examples.trivia.dto.SlackRequestDoc;
+import org.bj.examples.trivia.dto.SlackResponse;
 import org.bj.examples.trivia.dto.SlackResponseDoc;
 import org.bj.examples.trivia.dto.SlackResponseType;
 import org.bj.examples.trivia.service.game.TriviaGameService;
+import org.bj.examples.trivia.service.slack.DelayedSlackService;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 @RunWith(MockitoJUnitRunner.StrictStubs.class)
 public class SlackSlashCommandServiceImplTest {
-    @InjectMocks
     public SlackSlashCommandServiceImpl cut;
 
     @Mock
     private TriviaGameService triviaGameService;
 
+    @Mock
+    private DelayedSlackService delayedSlackService;
+
+    @Mock
+    private CommandExecutor commandExecutor;
+
+    private final CommandAdmissionControl admissionControl = new CommandAdmissionControl(100, 10, 0.5);
+
+    @Before
+    public void setUp() {
+        cut = new SlackSlashCommandServiceImpl(triviaGameService, delayedSlackService, new ChannelMailboxes(commandExecutor, 5000), admissionControl, new String[] {"correct", " scores"}, 60_000, 100);
+    }
+
     @Test
     public void testStartCommandWithNoTopic() {
         final SlackRequestDoc requestDoc = new SlackRequestDoc();
@@ -36,7 +63,7 @@ public class SlackSlashCommandServiceImplTest {
 
         given(triviaGameService.start(any(), any())).willReturn(responseDoc);
 
-        final SlackResponseDoc result = cut.processSlashCommand(requestDoc);
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
 
         assertThat(result, is(responseDoc));
 
@@ -52,7 +79,7 @@ public class SlackSlashCommandServiceImplTest {
 
         given(triviaGameService.start(any(), any())).willReturn(responseDoc);
 
-        final SlackResponseDoc result = cut.processSlashCommand(requestDoc);
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
 
         assertThat(result, is(responseDoc));
 
@@ -68,7 +95,7 @@ public class SlackSlashCommandServiceImplTest {
 
         given(triviaGameService.stop(any())).willReturn(responseDoc);
 
-        final SlackResponseDoc result = cut.processSlashCommand(requestDoc);
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
 
         assertThat(result, is(responseDoc));
 
@@ -81,7 +108,7 @@ public class SlackSlashCommandServiceImplTest {
         requestDoc.setCommand("/command");
         requestDoc.setText("question");
 
-        final SlackResponseDoc result = cut.processSlashCommand(requestDoc);
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
 
         assertThat(result, is(notNullValue()));
         assertThat(result.getResponseType(), is(SlackResponseType.EPHEMERAL));
@@ -100,7 +127,7 @@ public class SlackSlashCommandServiceImplTest {
 
         given(triviaGameService.submitQuestion(any(), any())).willReturn(responseDoc);
 
-        final SlackResponseDoc result = cut.processSlashCommand(requestDoc);
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
 
         assertThat(result, is(responseDoc));
 
@@ -113,7 +140,7 @@ public class SlackSlashCommandServiceImplTest {
         requestDoc.setCommand("/command");
         requestDoc.setText("answer");
 
-        final SlackResponseDoc result = cut.processSlashCommand(requestDoc);
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
 
         assertThat(result, is(notNullValue()));
         assertThat(result.getResponseType(), is(SlackResponseType.EPHEMERAL));
@@ -132,7 +159,7 @@ public class SlackSlashCommandServiceImplTest {
 
         given(triviaGameService.submitAnswer(any(), any())).willReturn(responseDoc);
 
-        final SlackResponseDoc result = cut.processSlashCommand(requestDoc);
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
 
         assertThat(result, is(responseDoc));
 
@@ -145,7 +172,7 @@ public class SlackSlashCommandServiceImplTest {
         requestDoc.setCommand("/command");
         requestDoc.setText("correct");
 
-        final SlackResponseDoc result = cut.processSlashCommand(requestDoc);
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
 
         assertThat(result, is(notNullValue()));
         assertThat(result.getResponseType(), is(SlackResponseType.EPHEMERAL));
@@ -166,7 +193,7 @@ public class SlackSlashCommandServiceImplTest {
 
         given(triviaGameService.markAnswerCorrect(any(), any(), any())).willReturn(responseDoc);
 
-        final SlackResponseDoc result = cut.processSlashCommand(requestDoc);
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
 
         assertThat(result, is(responseDoc));
 
@@ -182,7 +209,7 @@ public class SlackSlashCommandServiceImplTest {
 
         given(triviaGameService.markAnswerCorrect(any(), any(), any())).willReturn(responseDoc);
 
-        final SlackResponseDoc result = cut.processSlashCommand(requestDoc);
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
 
         assertThat(result, is(responseDoc));
 
@@ -198,7 +225,7 @@ public class SlackSlashCommandServiceImplTest {
 
         given(triviaGameService.getScores(any())).willReturn(responseDoc);
 
-        final SlackResponseDoc result = cut.processSlashCommand(requestDoc);
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
 
         assertThat(result, is(responseDoc));
 
@@ -214,10 +241,269 @@ public class SlackSlashCommandServiceImplTest {
 
         given(triviaGameService.resetScores(any())).willReturn(responseDoc);
 
-        final SlackResponseDoc result = cut.processSlashCommand(requestDoc);
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
 
         assertThat(result, is(responseDoc));
 
         verify(triviaGameService).resetScores(requestDoc);
     }
+
+    @Test
+    public void testEmptyTextReturnsUsage() {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setCommand("/command");
+        requestDoc.setText("   ");
+
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
+
+        assertThat(result.getResponseType(), is(SlackResponseType.EPHEMERAL));
+        assertThat(result.getText(), is("`/command` usage:"));
+        assertThat(result.getAttachments().size(), is(12));
+
+        verifyZeroInteractions(triviaGameService);
+    }
+
+    @Test
+    public void testMissingTextReturnsUsage() {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setCommand("/command");
+
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
+
+        assertThat(result.getText(), is("`/command` usage:"));
+
+        verifyZeroInteractions(triviaGameService);
+    }
+
+    @Test
+    public void testUnknownOperatorReturnsUsage() {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setCommand("/command");
+        requestDoc.setText("answers Blue skies");
+
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
+
+        assertThat(result.getText(), is("`/command` usage:"));
+
+        verifyZeroInteractions(triviaGameService);
+    }
+
+    @Test
+    public void testOperatorSeparatedByTab() {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setText("correct\t<@12345>\nChris Farley");
+
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+
+        given(triviaGameService.markAnswerCorrect(any(), any(), any())).willReturn(responseDoc);
+
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
+
+        assertThat(result, is(responseDoc));
+
+        verify(triviaGameService).markAnswerCorrect(requestDoc, "<@12345>", "Chris Farley");
+    }
+
+    @Test
+    public void testAsyncCommandIsAcknowledgedAndRespondsLater() {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("C1");
+        requestDoc.setResponseUrl("http://localhost/C1");
+        requestDoc.setText("scores");
+
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+
+        given(triviaGameService.getScores(any())).willReturn(responseDoc);
+
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
+
+        assertThat(result.getResponseType(), is(SlackResponseType.EPHEMERAL));
+        assertThat(result.getText(), is("Working on it..."));
+        verifyZeroInteractions(triviaGameService);
+
+        final ArgumentCaptor<Runnable> command = ArgumentCaptor.forClass(Runnable.class);
+        verify(commandExecutor).execute(command.capture());
+        command.getValue().run();
+
+        verify(triviaGameService).getScores(requestDoc);
+        verify(delayedSlackService).sendResponse("C1", "http://localhost/C1", responseDoc);
+    }
+
+    @Test
+    public void testAsyncCommandFailureIsReported() {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("C1");
+        requestDoc.setCommand("/command");
+        requestDoc.setResponseUrl("http://localhost/C1");
+        requestDoc.setText("correct <@12345>");
+
+        given(triviaGameService.markAnswerCorrect(any(), any(), any())).willThrow(new IllegalStateException("down"));
+
+        cut.processSlashCommand(requestDoc);
+
+        final ArgumentCaptor<Runnable> command = ArgumentCaptor.forClass(Runnable.class);
+        verify(commandExecutor).execute(command.capture());
+        command.getValue().run();
+
+        final ArgumentCaptor<SlackResponseDoc> responseDoc = ArgumentCaptor.forClass(SlackResponseDoc.class);
+        verify(delayedSlackService).sendResponse(eq("C1"), eq("http://localhost/C1"), responseDoc.capture());
+        assertThat(responseDoc.getValue().getResponseType(), is(SlackResponseType.EPHEMERAL));
+        assertThat(responseDoc.getValue().getText(), is("Sorry, `/command correct` failed. Please try again."));
+    }
+
+    @Test
+    public void testAsyncCommandRunsInlineWhenPoolIsFull() {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setResponseUrl("http://localhost/C1");
+        requestDoc.setText("scores");
+
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+
+        willThrow(new RejectedExecutionException()).given(commandExecutor).execute(any());
+        given(triviaGameService.getScores(any())).willReturn(responseDoc);
+
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
+
+        assertThat(result, is(responseDoc));
+        verifyZeroInteractions(delayedSlackService);
+    }
+
+    @Test
+    public void testAsyncCommandWithTooFewArgumentsRespondsInline() {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setCommand("/command");
+        requestDoc.setResponseUrl("http://localhost/C1");
+        requestDoc.setText("correct");
+
+        final SlackResponse result = cut.processSlashCommand(requestDoc);
+
+        assertThat(result.getText(), startsWith("To mark an answer correct"));
+        verifyZeroInteractions(commandExecutor, triviaGameService);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownAsyncOperator() {
+        new SlackSlashCommandServiceImpl(triviaGameService, delayedSlackService, new ChannelMailboxes(commandExecutor, 5000), admissionControl, new String[] {"answers"}, 60_000, 100);
+    }
+
+    @Test
+    public void testRedeliveredCommandReplaysOriginalResponse() {
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+
+        given(triviaGameService.submitAnswer(any(), any())).willReturn(responseDoc);
+
+        final SlackResponse first = cut.processSlashCommand(answerRequest("T1"));
+        final SlackResponse second = cut.processSlashCommand(answerRequest("T1"));
+
+        assertThat(first, is(responseDoc));
+        assertThat(second, is(responseDoc));
+
+        verify(triviaGameService, times(1)).submitAnswer(any(), any());
+    }
+
+    @Test
+    public void testSameAnswerInAnotherInvocationRunsAgain() {
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+
+        given(triviaGameService.submitAnswer(any(), any())).willReturn(responseDoc);
+
+        cut.processSlashCommand(answerRequest("T1"));
+        cut.processSlashCommand(answerRequest("T2"));
+
+        verify(triviaGameService, times(2)).submitAnswer(any(), any());
+    }
+
+    @Test
+    public void testFailedCommandIsNotRemembered() {
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+
+        given(triviaGameService.submitAnswer(any(), any()))
+                .willThrow(new IllegalStateException("down"))
+                .willReturn(responseDoc);
+
+        try {
+            cut.processSlashCommand(answerRequest("T1"));
+            fail("Expected the command's exception");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("down"));
+        }
+
+        assertThat(cut.processSlashCommand(answerRequest("T1")), is(responseDoc));
+    }
+
+    private static SlackRequestDoc answerRequest(final String triggerId) {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setTeamId("TEAM");
+        requestDoc.setChannelId("C1");
+        requestDoc.setUserId("U1");
+        requestDoc.setTriggerId(triggerId);
+        requestDoc.setText("answer Blue skies");
+        return requestDoc;
+    }
+
+    @Test
+    public void testHelpResponsesAreSharedPerCommand() {
+        final SlackResponse usage = cut.processSlashCommand(helpRequest("/command", "   "));
+        final SlackResponse answerFormat = cut.processSlashCommand(helpRequest("/command", "answer"));
+
+        assertThat(usage, is(instanceOf(PreSerializedResponseDoc.class)));
+        assertThat(cut.processSlashCommand(helpRequest("/command", "bogus")), is(sameInstance(usage)));
+        assertThat(cut.processSlashCommand(helpRequest("/command", "answer")), is(sameInstance(answerFormat)));
+        assertThat(cut.processSlashCommand(helpRequest("/other", "")).getText(), is("`/other` usage:"));
+
+        verifyZeroInteractions(triviaGameService);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSharedHelpResponseCannotBeChanged() {
+        cut.processSlashCommand(helpRequest("/command", "")).getAttachments().clear();
+    }
+
+    private static SlackRequestDoc helpRequest(final String command, final String text) {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setCommand(command);
+        requestDoc.setText(text);
+        return requestDoc;
+    }
+
+    @Test
+    public void testBusyChannelIsToldToTryAgain() {
+        final CommandAdmissionControl.Permit held = admissionControl.tryAdmit("C1", false);
+
+        for (int i = 1; i < 10; i++) {
+            admissionControl.tryAdmit("C1", false);
+        }
+
+        final SlackResponse result = cut.processSlashCommand(answerRequest("T1"));
+
+        assertThat(result.getResponseType(), is(SlackResponseType.EPHEMERAL));
+        assertThat(result.getText(), is("Trivia is busy right now. Please try again in a moment."));
+        verifyZeroInteractions(triviaGameService);
+
+        //A busy response must not be replayed to the retry
+        held.release();
+        given(triviaGameService.submitAnswer(any(), any())).willReturn(new SlackResponseDoc());
+
+        assertThat(cut.processSlashCommand(answerRequest("T1")).getText(), is(nullValue()));
+    }
+
+    @Test
+    public void testAsyncCommandStaysInFlightUntilDone() {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        requestDoc.setChannelId("C1");
+        requestDoc.setResponseUrl("http://localhost/C1");
+        requestDoc.setText("scores");
+
+        given(triviaGameService.getScores(any())).willReturn(new SlackResponseDoc());
+
+        cut.processSlashCommand(requestDoc);
+
+        assertThat(cut.getAdmissionStats().getInFlight(), is(equalTo(1)));
+
+        final ArgumentCaptor<Runnable> command = ArgumentCaptor.forClass(Runnable.class);
+        verify(commandExecutor).execute(command.capture());
+        command.getValue().run();
+
+        assertThat(cut.getAdmissionStats().getInFlight(), is(equalTo(0)));
+    }
 }
@@ -0,0 +1,128 @@
+package org.bj.examples.trivia.service.slack.impl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.util.SlackResponseWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+public class SlackWebhookClientTest {
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicReference<String> lastBody = new AtomicReference<>();
+    private final AtomicReference<String> retryAfter = new AtomicReference<>();
+
+    private HttpServer server;
+    private SlackWebhookClient cut;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            lastBody.set(read(exchange.getRequestBody()));
+
+            if (retryAfter.get() != null) {
+                exchange.getResponseHeaders().add("Retry-After", retryAfter.get());
+            }
+
+            exchange.sendResponseHeaders(status.get(), -1);
+            exchange.close();
+        });
+        server.start();
+
+        cut = new SlackWebhookClient(new SlackResponseWriter(new ObjectMapper()), 1, 10, 10, 1000, 1000, 1000);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        cut.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testPostSendsJsonAndReportsDelivered() throws Exception {
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+        responseDoc.setText("Hello");
+
+        assertThat(post(responseDoc), is(equalTo(DeliveryResult.DELIVERED)));
+        assertThat(new ObjectMapper().readTree(lastBody.get()).get("text").asText(), is(equalTo("Hello")));
+    }
+
+    @Test
+    public void testTooManyRequestsIsRetried() throws Exception {
+        status.set(429);
+
+        assertThat(post(new SlackResponseDoc()), is(equalTo(DeliveryResult.RETRY)));
+    }
+
+    @Test
+    public void testTooManyRequestsRecordsRetryAfter() throws Exception {
+        status.set(429);
+        retryAfter.set("7");
+
+        final Delivery delivery = delivery(new SlackResponseDoc());
+
+        assertThat(cut.post(delivery).get(5, TimeUnit.SECONDS), is(equalTo(DeliveryResult.RETRY)));
+        assertThat(delivery.getRetryAfterMillis(), is(equalTo(7000L)));
+    }
+
+    @Test
+    public void testServerErrorIsRetried() throws Exception {
+        status.set(503);
+
+        assertThat(post(new SlackResponseDoc()), is(equalTo(DeliveryResult.RETRY)));
+    }
+
+    @Test
+    public void testClientErrorFails() throws Exception {
+        status.set(404);
+
+        assertThat(post(new SlackResponseDoc()), is(equalTo(DeliveryResult.FAILED)));
+    }
+
+    @Test
+    public void testConnectionFailureIsRetried() throws Exception {
+        final int port = server.getAddress().getPort();
+        server.stop(0);
+
+        final Delivery delivery = new Delivery(1, "C1", "http://localhost:" + port + "/hook", new SlackResponseDoc());
+        final DeliveryResult result = cut.post(delivery).get(5, TimeUnit.SECONDS);
+
+        assertThat(result, is(equalTo(DeliveryResult.RETRY)));
+    }
+
+    private DeliveryResult post(final SlackResponseDoc responseDoc) throws Exception {
+        return cut.post(delivery(responseDoc)).get(5, TimeUnit.SECONDS);
+    }
+
+    private Delivery delivery(final SlackResponseDoc responseDoc) {
+        return new Delivery(1, "C1", "http://localhost:" + server.getAddress().getPort() + "/hook", responseDoc);
+    }
+
+    private static String read(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int read;
+
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
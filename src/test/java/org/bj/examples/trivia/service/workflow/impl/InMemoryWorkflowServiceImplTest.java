@@ -10,6 +10,7 @@ import static org.junit.Assert.assertThat;
 import java.lang.reflect.Field;
 
 import org.bj.examples.trivia.dto.SlackUser;
+import org.bj.examples.trivia.exception.GameNotStartedException;
 import org.bj.examples.trivia.exception.WorkflowException;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -126,6 +127,74 @@ public class InMemoryWorkflowServiceImplTest {
     }
     //endregion
 
+    //region onGameStopped
+    @Test
+    public void testOnGameStoppedWithGameNotStarted() {
+        final String channelId = "C12345";
+        final String userId = "U6789";
+
+        setCurrentHost(null);
+        setQuestion(null);
+
+        Exception exception = null;
+
+        try {
+            cut.onGameStopped(channelId, userId);
+        } catch (Exception e) {
+            exception = e;
+        }
+
+        assertThat(exception, is(notNullValue()));
+        assertThat(exception, is(instanceOf(GameNotStartedException.class)));
+    }
+
+    @Test
+    public void testOnGameStoppedWithCurrentUserAsHost() {
+        final String channelId = "C12345";
+        final String userId = "U6789";
+
+        setCurrentHost(new SlackUser(userId, null));
+        setQuestion("What is the answer?");
+
+        Exception exception = null;
+
+        try {
+            cut.onGameStopped(channelId, userId);
+        } catch (Exception e) {
+            exception = e;
+        }
+
+        assertThat(exception, is(nullValue()));
+        assertThat(getCurrentHost(), is(nullValue()));
+        assertThat(getQuestion(), is(nullValue()));
+    }
+
+    @Test
+    public void testOnGameStoppedWithDifferentHost() {
+        final String channelId = "C12345";
+        final String userId = "U6789";
+        final String controllingUserId = "U1346";
+        final String question = "What is the answer?";
+
+        setCurrentHost(new SlackUser(controllingUserId, null));
+        setQuestion(question);
+
+        Exception exception = null;
+
+        try {
+            cut.onGameStopped(channelId, userId);
+        } catch (Exception e) {
+            exception = e;
+        }
+
+        assertThat(exception, is(notNullValue()));
+        assertThat(exception, is(instanceOf(WorkflowException.class)));
+        assertThat(exception.getMessage(), is(equalTo("<@" + controllingUserId + "> is currently hosting.")));
+        assertThat(getCurrentHost(), is(equalTo(new SlackUser(controllingUserId, null))));
+        assertThat(getQuestion(), is(equalTo(question)));
+    }
+    //endregion
+
     private SlackUser getCurrentHost() {
         final Field currentHostField = ReflectionUtils.findField(InMemoryWorkflowServiceImpl.class, "currentHost");
         ReflectionUtils.makeAccessible(currentHostField);
@@ -14,12 +14,14 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 
 import org.bj.examples.trivia.data.workflow.Answer;
 import org.bj.examples.trivia.data.workflow.Workflow;
 import org.bj.examples.trivia.data.workflow.WorkflowRepo;
 import org.bj.examples.trivia.data.workflow.WorkflowStage;
+import org.bj.examples.trivia.dto.OpenRound;
 import org.bj.examples.trivia.exception.GameNotStartedException;
 import org.bj.examples.trivia.exception.WorkflowException;
 import org.bson.types.ObjectId;
@@ -277,7 +279,7 @@ public class MongoWorkflowServiceImplTest {
         Exception exception = null;
 
         try {
-            cut.onQuestionSubmitted(null, "12345", "test question");
+            cut.onQuestionSubmitted(null, "12345", "test question", null, null);
         } catch (Exception e) {
             exception = e;
         }
@@ -292,7 +294,7 @@ public class MongoWorkflowServiceImplTest {
         Exception exception = null;
 
         try {
-            cut.onQuestionSubmitted("12345", null, "test question");
+            cut.onQuestionSubmitted("12345", null, "test question", null, null);
         } catch (Exception e) {
             exception = e;
         }
@@ -313,7 +315,7 @@ public class MongoWorkflowServiceImplTest {
         Exception exception = null;
 
         try {
-            cut.onQuestionSubmitted(channelId, userId, question);
+            cut.onQuestionSubmitted(channelId, userId, question, null, null);
         } catch (Exception e) {
             exception = e;
         }
@@ -343,7 +345,7 @@ public class MongoWorkflowServiceImplTest {
         Exception exception = null;
 
         try {
-            cut.onQuestionSubmitted(channelId, userId, question);
+            cut.onQuestionSubmitted(channelId, userId, question, null, null);
         } catch (Exception e) {
             exception = e;
         }
@@ -374,7 +376,7 @@ public class MongoWorkflowServiceImplTest {
         Exception exception = null;
 
         try {
-            cut.onQuestionSubmitted(channelId, userId, question);
+            cut.onQuestionSubmitted(channelId, userId, question, null, null);
         } catch (Exception e) {
             exception = e;
         }
@@ -404,7 +406,7 @@ public class MongoWorkflowServiceImplTest {
         Exception exception = null;
 
         try {
-            cut.onQuestionSubmitted(channelId, userId, question);
+            cut.onQuestionSubmitted(channelId, userId, question, null, null);
         } catch (Exception e) {
             exception = e;
         }
@@ -423,6 +425,8 @@ public class MongoWorkflowServiceImplTest {
         final String channelId = "C12345";
         final String userId = "U6789";
         final String question = "test question";
+        final String responseUrl = "https://hooks.slack.com/commands/1";
+        final LocalDateTime questionDate = LocalDateTime.of(2018, 10, 9, 11, 30, 33);
 
         final Workflow workflow = new Workflow();
         workflow.setId(id);
@@ -432,10 +436,11 @@ public class MongoWorkflowServiceImplTest {
 
         given(workflowRepo.findByChannelId(anyString())).willReturn(workflow);
 
+        OpenRound round = null;
         Exception exception = null;
 
         try {
-            cut.onQuestionSubmitted(channelId, userId, question);
+            round = cut.onQuestionSubmitted(channelId, userId, question, responseUrl, questionDate);
         } catch (Exception e) {
             exception = e;
         }
@@ -453,6 +458,15 @@ public class MongoWorkflowServiceImplTest {
         assertThat(workflowCaptor.getValue().getControllingUserId(), is(equalTo(userId)));
         assertThat(workflowCaptor.getValue().getQuestion(), is(equalTo(question)));
         assertThat(workflowCaptor.getValue().getStage(), is(equalTo(WorkflowStage.QUESTION_ASKED)));
+        assertThat(workflowCaptor.getValue().getQuestionDate(), is(equalTo(questionDate)));
+        assertThat(workflowCaptor.getValue().getResponseUrl(), is(equalTo(responseUrl)));
+
+        assertThat(round, is(notNullValue()));
+        assertThat(round.getChannelId(), is(equalTo(channelId)));
+        assertThat(round.getHostUserId(), is(equalTo(userId)));
+        assertThat(round.getResponseUrl(), is(equalTo(responseUrl)));
+        assertThat(round.getQuestionDate(), is(equalTo(questionDate)));
+        assertThat(round.getTimeoutSeconds(), is(nullValue()));
     }
     //endregion
 
@@ -948,4 +962,82 @@ public class MongoWorkflowServiceImplTest {
         assertThat(workflowCaptor.getValue().getStage(), is(equalTo(WorkflowStage.STARTED)));
     }
     //endregion
+
+    //region onRoundTimeoutChanged
+    @Test
+    public void testOnRoundTimeoutChangedWithDifferentHost() {
+        final String channelId = "C12345";
+        final String userId = "U6789";
+        final String controllingUserId = "U1346";
+
+        final Workflow workflow = new Workflow();
+        workflow.setId(new ObjectId());
+        workflow.setChannelId(channelId);
+        workflow.setControllingUserId(controllingUserId);
+        workflow.setStage(WorkflowStage.STARTED);
+
+        given(workflowRepo.findByChannelId(anyString())).willReturn(workflow);
+
+        Exception exception = null;
+
+        try {
+            cut.onRoundTimeoutChanged(channelId, userId, 60);
+        } catch (Exception e) {
+            exception = e;
+        }
+
+        assertThat(exception, is(instanceOf(WorkflowException.class)));
+        assertThat(exception.getMessage(), is(equalTo("It's <@" + controllingUserId + ">'s turn; only he/she can change the timer.")));
+
+        verify(workflowRepo, never()).save(any());
+    }
+
+    @Test
+    public void testOnRoundTimeoutChangedWithSameHost() throws Exception {
+        final String channelId = "C12345";
+        final String userId = "U6789";
+
+        final Workflow workflow = new Workflow();
+        workflow.setId(new ObjectId());
+        workflow.setChannelId(channelId);
+        workflow.setControllingUserId(userId);
+        workflow.setStage(WorkflowStage.STARTED);
+
+        given(workflowRepo.findByChannelId(anyString())).willReturn(workflow);
+
+        cut.onRoundTimeoutChanged(channelId, userId, 60);
+
+        ArgumentCaptor<Workflow> workflowCaptor = ArgumentCaptor.forClass(Workflow.class);
+        verify(workflowRepo).save(workflowCaptor.capture());
+
+        assertThat(workflowCaptor.getValue().getRoundTimeoutSeconds(), is(equalTo(60)));
+    }
+    //endregion
+
+    //region getOpenRounds
+    @Test
+    public void testGetOpenRounds() {
+        final LocalDateTime questionDate = LocalDateTime.of(2018, 10, 9, 11, 30, 33);
+
+        final Workflow workflow = new Workflow();
+        workflow.setId(new ObjectId());
+        workflow.setChannelId("C12345");
+        workflow.setControllingUserId("U6789");
+        workflow.setStage(WorkflowStage.QUESTION_ASKED);
+        workflow.setQuestionDate(questionDate);
+        workflow.setResponseUrl("https://hooks.slack.com/commands/1");
+        workflow.setRoundTimeoutSeconds(30);
+
+        given(workflowRepo.findByStage(WorkflowStage.QUESTION_ASKED)).willReturn(Arrays.asList(workflow));
+
+        final List<OpenRound> openRounds = cut.getOpenRounds();
+
+        assertThat(openRounds.size(), is(1));
+        assertThat(openRounds.get(0).getChannelId(), is(equalTo("C12345")));
+        assertThat(openRounds.get(0).getHostUserId(), is(equalTo("U6789")));
+        assertThat(openRounds.get(0).getQuestionDate(), is(equalTo(questionDate)));
+        assertThat(openRounds.get(0).getResponseUrl(), is(equalTo("https://hooks.slack.com/commands/1")));
+        assertThat(openRounds.get(0).getTimeoutSeconds(), is(equalTo(30)));
+    }
+    //endregion
 }
@@ -0,0 +1,85 @@
+package org.bj.examples.trivia.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link AnswerGrader} with the straightforward way of doing the
+ * same thing: normalizing both answers into new strings with regular
+ * expressions and <code>Normalizer</code>, then working out the full edit
+ * distance between them. Run with the <code>benchmark</code> profile; the
+ * <code>gc.alloc.rate.norm</code> line is the bytes allocated per answer
+ * graded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnswerGraderBenchmark {
+    private static final String ANSWER = "The Mississippi River";
+
+    @Param({ "Misisipi river!", "the Missouri", "I think it might be the Amazon, or maybe the Nile" })
+    public String given;
+
+    private final AnswerGrader grader = new AnswerGrader(ANSWER);
+    private final String normalizedAnswer = normalize(ANSWER);
+
+    @Benchmark
+    public boolean grader() {
+        return grader.isCorrect(given);
+    }
+
+    @Benchmark
+    public boolean normalizeAndCompare() {
+        final String normalized = normalize(given);
+        return distance(normalizedAnswer, normalized) <= Math.min(3, normalizedAnswer.length() / 4);
+    }
+
+    private static String normalize(final String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .replaceAll("\\b(a|an|the)\\b", " ")
+                .trim()
+                .replaceAll(" +", " ");
+    }
+
+    private static int distance(final String a, final String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+
+            for (int j = 1; j <= b.length(); j++) {
+                final int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+
+            final int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,146 @@
+package org.bj.examples.trivia.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+public class AnswerGraderTest {
+    @Test
+    public void testIgnoresCasePunctuationAndSpacing() {
+        final AnswerGrader grader = new AnswerGrader("Paris");
+
+        assertThat(grader.isCorrect("paris"), is(true));
+        assertThat(grader.isCorrect("  PARIS!! "), is(true));
+        assertThat(grader.isCorrect("Lyon"), is(false));
+        assertThat(grader.isCorrect(""), is(false));
+        assertThat(grader.isCorrect(null), is(false));
+    }
+
+    @Test
+    public void testIgnoresArticles() {
+        final AnswerGrader grader = new AnswerGrader("The Beatles");
+
+        assertThat(grader.isCorrect("beatles"), is(true));
+        assertThat(grader.isCorrect("the beatles"), is(true));
+        assertThat(grader.isCorrect("A Beatles"), is(true));
+        assertThat(grader.isCorrect("Rolling Stones"), is(false));
+    }
+
+    @Test
+    public void testAnswerOfOnlyArticlesKeepsThem() {
+        final AnswerGrader grader = new AnswerGrader("The The");
+
+        assertThat(grader.isCorrect("the the"), is(true));
+        assertThat(grader.isCorrect("the"), is(false));
+    }
+
+    @Test
+    public void testIgnoresAccents() {
+        assertThat(new AnswerGrader("Beyoncé").isCorrect("beyonce"), is(true));
+        assertThat(new AnswerGrader("Zurich").isCorrect("Zürich"), is(true));
+        assertThat(new AnswerGrader("Łódź").isCorrect("lodz"), is(true));
+    }
+
+    @Test
+    public void testForgivesTyposInLongerAnswers() {
+        final AnswerGrader grader = new AnswerGrader("Mississippi River");
+
+        assertThat(grader.getMaxDistance(), is(equalTo(3)));
+        assertThat(grader.isCorrect("missisippi river"), is(true));
+        assertThat(grader.isCorrect("Misisipi River"), is(true));
+        assertThat(grader.isCorrect("Missouri River"), is(false));
+
+        //Short answers must be spelled right
+        assertThat(new AnswerGrader("Ohio").getMaxDistance(), is(equalTo(1)));
+        assertThat(new AnswerGrader("Ohio").isCorrect("Iowa"), is(false));
+        assertThat(new AnswerGrader("Oz").isCorrect("Ox"), is(false));
+    }
+
+    @Test
+    public void testForgivesMissingOrExtraSpace() {
+        final AnswerGrader grader = new AnswerGrader("New York");
+
+        assertThat(grader.isCorrect("newyork"), is(true));
+        assertThat(grader.isCorrect("new-york"), is(true));
+    }
+
+    @Test
+    public void testNumbersMustMatchExactly() {
+        final AnswerGrader grader = new AnswerGrader("1984");
+
+        assertThat(grader.getMaxDistance(), is(equalTo(0)));
+        assertThat(grader.isCorrect("1984."), is(true));
+        assertThat(grader.isCorrect("1985"), is(false));
+    }
+
+    @Test
+    public void testGradingAllocatesNothing() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+
+        final com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        Assume.assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+
+        final AnswerGrader grader = new AnswerGrader("The Mississippi River");
+        final String[] answers = { "mississippi river", "Misisipi river!", "the Missouri", "Nile" };
+
+        //Warm up, so that any one-off allocation by the JIT or the JVM is out of the way
+        for (int i = 0; i < 20_000; i++) {
+            grader.isCorrect(answers[i % answers.length]);
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long before = allocations.getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < 10_000; i++) {
+            grader.isCorrect(answers[i % answers.length]);
+        }
+
+        final long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+        //Some JVMs charge the measurement itself to the thread, so allow a little slack
+        assertThat(allocated < 1024, is(true));
+    }
+
+    @Test
+    public void testGradingOnFreshThreadAllocatesNothing() throws Exception {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+
+        final com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        Assume.assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+
+        //Long enough that setting aside rows for it on each new thread would show
+        final String quotation = String.join(" ", Collections.nCopies(40, "It was the best of times"));
+        final AnswerGrader grader = new AnswerGrader(quotation);
+
+        for (int i = 0; i < 20_000; i++) {
+            grader.isCorrect(i % 2 == 0 ? quotation : "It was the worst of times");
+        }
+
+        //Each command gets a thread of its own when virtual threads are on
+        final long[] allocated = new long[1];
+        final Thread thread = new Thread(() -> {
+            final long threadId = Thread.currentThread().getId();
+            final long before = allocations.getThreadAllocatedBytes(threadId);
+
+            for (int i = 0; i < 100; i++) {
+                grader.isCorrect(quotation);
+            }
+
+            allocated[0] = allocations.getThreadAllocatedBytes(threadId) - before;
+        });
+
+        thread.start();
+        thread.join();
+
+        assertThat(allocated[0] < 1024, is(true));
+    }
+}
@@ -0,0 +1,69 @@
+package org.bj.examples.trivia.util;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.bj.examples.trivia.dto.SlackRequestDoc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.ServletRequestDataBinder;
+
+/**
+ * Compares the reflective binding Spring MVC used to do for
+ * <code>SlackRequestDoc</code> with {@link SlackFormParser}. The data
+ * binder gets the parameters already parsed, as the container would hand
+ * them over, while the parser starts from the raw body.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlackFormParserBenchmark {
+    private static final String BODY = "token=gIkuvaNzQIHg97ATvDxqgjtO&team_id=T0001&team_domain=example"
+            + "&channel_id=C2147483705&channel_name=test&user_id=U2147483697&user_name=Steve"
+            + "&command=%2Ftrivia&text=answer+Blue+skies"
+            + "&response_url=https%3A%2F%2Fhooks.slack.com%2Fcommands%2F1234%2F5678"
+            + "&trigger_id=13345224609.738474920.8088930838d88f008e0";
+
+    private final byte[] body = BODY.getBytes(StandardCharsets.US_ASCII);
+    private final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/slack/slash");
+
+    public SlackFormParserBenchmark() {
+        for (final String pair : BODY.split("&")) {
+            final String[] keyValue = pair.split("=", 2);
+            request.addParameter(keyValue[0], decode(keyValue[1]));
+        }
+    }
+
+    @Benchmark
+    public SlackRequestDoc webDataBinder() {
+        final SlackRequestDoc requestDoc = new SlackRequestDoc();
+        new ServletRequestDataBinder(requestDoc).bind(request);
+        return requestDoc;
+    }
+
+    @Benchmark
+    public SlackRequestDoc formParser() {
+        return SlackFormParser.parse(body, body.length);
+    }
+
+    private static String decode(final String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.bj.examples.trivia.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bj.examples.trivia.dto.SlackRequestDoc;
+import org.junit.Test;
+
+public class SlackFormParserTest {
+    private static final String BODY = "token=gIkuvaNzQIHg97ATvDxqgjtO"
+            + "&team_id=T0001"
+            + "&team_domain=example"
+            + "&enterprise_id=E0001"
+            + "&enterprise_name=Globular%20Construct%20Inc"
+            + "&channel_id=C2147483705"
+            + "&channel_name=test"
+            + "&user_id=U2147483697"
+            + "&user_name=Steve"
+            + "&command=%2Ftrivia"
+            + "&text=answer+Blue+skies"
+            + "&response_url=https%3A%2F%2Fhooks.slack.com%2Fcommands%2F1234%2F5678"
+            + "&trigger_id=13345224609.738474920.8088930838d88f008e0";
+
+    @Test
+    public void testParseAllFields() {
+        final SlackRequestDoc requestDoc = parse(BODY);
+
+        assertThat(requestDoc.getToken(), is(equalTo("gIkuvaNzQIHg97ATvDxqgjtO")));
+        assertThat(requestDoc.getTeamId(), is(equalTo("T0001")));
+        assertThat(requestDoc.getTeamDomain(), is(equalTo("example")));
+        assertThat(requestDoc.getEnterpriseId(), is(equalTo("E0001")));
+        assertThat(requestDoc.getEnterpriseName(), is(equalTo("Globular Construct Inc")));
+        assertThat(requestDoc.getChannelId(), is(equalTo("C2147483705")));
+        assertThat(requestDoc.getChannelName(), is(equalTo("test")));
+        assertThat(requestDoc.getUserId(), is(equalTo("U2147483697")));
+        assertThat(requestDoc.getUsername(), is(equalTo("Steve")));
+        assertThat(requestDoc.getCommand(), is(equalTo("/trivia")));
+        assertThat(requestDoc.getText(), is(equalTo("answer Blue skies")));
+        assertThat(requestDoc.getResponseUrl(), is(equalTo("https://hooks.slack.com/commands/1234/5678")));
+        assertThat(requestDoc.getTriggerId(), is(equalTo("13345224609.738474920.8088930838d88f008e0")));
+    }
+
+    @Test
+    public void testParseDecodesUtf8() {
+        assertThat(parse("text=answer+caf%C3%A9+%E2%9C%93").getText(), is(equalTo("answer café ✓")));
+    }
+
+    @Test
+    public void testParseDecodesRawUtf8LikeEscapedUtf8() {
+        final byte[] raw = "text=café✓".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(SlackFormParser.parse(raw, raw.length).getText(), is(equalTo(parse("text=caf%C3%A9%E2%9C%93").getText())));
+        assertThat(SlackFormParser.parse(raw, raw.length).getText(), is(equalTo("café✓")));
+    }
+
+    @Test
+    public void testParseKeepsMalformedEscapes() {
+        assertThat(parse("text=100%+sure%2").getText(), is(equalTo("100% sure%2")));
+    }
+
+    @Test
+    public void testParseIgnoresUnknownAndEmptyPairs() {
+        final SlackRequestDoc requestDoc = parse("&api_app_id=A123&&=x&text=&channel_id=C1&");
+
+        assertThat(requestDoc.getText(), is(equalTo("")));
+        assertThat(requestDoc.getChannelId(), is(equalTo("C1")));
+        assertThat(requestDoc.getUserId(), is(nullValue()));
+    }
+
+    @Test
+    public void testParseKeyWithoutValue() {
+        assertThat(parse("text").getText(), is(nullValue()));
+    }
+
+    @Test
+    public void testFromParameters() {
+        final Map<String, String[]> parameters = new HashMap<>();
+        parameters.put("channel_id", new String[] {"C1"});
+        parameters.put("text", new String[] {"answer Blue skies"});
+        parameters.put("api_app_id", new String[] {"A123"});
+
+        final SlackRequestDoc requestDoc = SlackFormParser.fromParameters(parameters);
+
+        assertThat(requestDoc.getChannelId(), is(equalTo("C1")));
+        assertThat(requestDoc.getText(), is(equalTo("answer Blue skies")));
+        assertThat(requestDoc.getUserId(), is(nullValue()));
+    }
+
+    private static SlackRequestDoc parse(final String body) {
+        final byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+        return SlackFormParser.parse(bytes, bytes.length);
+    }
+}
@@ -0,0 +1,78 @@
+package org.bj.examples.trivia.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.bj.examples.trivia.dto.PreSerializedResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponseType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares writing a constant response the old way, building the doc and
+ * running it through an <code>ObjectMapper</code>, with writing the shared
+ * pre-serialized copy. Run with the <code>benchmark</code> profile; the
+ * <code>gc.alloc.rate.norm</code> line is the bytes allocated per response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlackResponseWriterBenchmark {
+    private static final PreSerializedResponseDoc ANSWER_SUBMITTED =
+            PreSerializedResponseDoc.of(SlackResponseType.EPHEMERAL, "Answer submitted.");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SlackResponseWriter responseWriter = new SlackResponseWriter(objectMapper);
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+    @Setup
+    public void setUp() throws IOException {
+        //Make sure the mapper has its serializers cached before measuring
+        objectMapper.writeValue(out, ANSWER_SUBMITTED);
+        responseWriter.write(ANSWER_SUBMITTED, out);
+    }
+
+    @Benchmark
+    public int objectMapper() throws IOException {
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+        responseDoc.setResponseType(SlackResponseType.EPHEMERAL);
+        responseDoc.setText("Answer submitted.");
+
+        out.reset();
+        objectMapper.writeValue(out, responseDoc);
+        return out.size();
+    }
+
+    @Benchmark
+    public int dynamicThroughSharedWriter() throws IOException {
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+        responseDoc.setResponseType(SlackResponseType.EPHEMERAL);
+        responseDoc.setText("Answer submitted.");
+
+        out.reset();
+        responseWriter.write(responseDoc, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int preSerialized() throws IOException {
+        out.reset();
+        responseWriter.write(ANSWER_SUBMITTED, out);
+        return out.size();
+    }
+}
@@ -0,0 +1,136 @@
+package org.bj.examples.trivia.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.bj.examples.trivia.dto.PreSerializedResponseDoc;
+import org.bj.examples.trivia.dto.SlackAttachment;
+import org.bj.examples.trivia.dto.SlackResponse;
+import org.bj.examples.trivia.dto.SlackResponseDoc;
+import org.bj.examples.trivia.dto.SlackResponseType;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+public class SlackResponseWriterTest {
+    private final SlackResponseWriter cut = new SlackResponseWriter(new ObjectMapper());
+
+    @Test
+    public void testPreSerializedMatchesJackson() throws Exception {
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+        responseDoc.setResponseType(SlackResponseType.IN_CHANNEL);
+        responseDoc.setText("Scores have been reset!");
+        responseDoc.setAttachments(Arrays.asList(new SlackAttachment("```Scores:```"), new SlackAttachment("plain", false)));
+
+        final String expected = new ObjectMapper().writeValueAsString(responseDoc);
+
+        assertThat(new String(cut.toBytes(responseDoc), StandardCharsets.UTF_8), is(equalTo(expected)));
+        assertThat(new String(cut.toBytes(PreSerializedResponseDoc.of(responseDoc)), StandardCharsets.UTF_8), is(equalTo(expected)));
+        //As the delivery journal writes it
+        assertThat(new ObjectMapper().writeValueAsString(PreSerializedResponseDoc.of(responseDoc)), is(equalTo(expected)));
+    }
+
+    @Test
+    public void testPreSerializedBytesAreReused() {
+        final PreSerializedResponseDoc responseDoc = PreSerializedResponseDoc.of(SlackResponseType.EPHEMERAL, "Answer submitted.");
+
+        assertThat(cut.toBytes(responseDoc), is(sameInstance(cut.toBytes(responseDoc))));
+    }
+
+    @Test
+    public void testWriteStreamsResponse() throws Exception {
+        final PreSerializedResponseDoc responseDoc = PreSerializedResponseDoc.of(SlackResponseType.EPHEMERAL, "Question posted.");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        cut.write(responseDoc, out);
+
+        final JsonNode json = new ObjectMapper().readTree(out.toByteArray());
+        assertThat(json.get("response_type").asText(), is(equalTo("ephemeral")));
+        assertThat(json.get("text").asText(), is(equalTo("Question posted.")));
+    }
+
+    @Test
+    public void testPreSerializedDoesNotFollowChangesToItsSource() {
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+        responseDoc.setResponseType(SlackResponseType.EPHEMERAL);
+        responseDoc.setText("Score updated.");
+        responseDoc.setAttachments(new ArrayList<>(Arrays.asList(new SlackAttachment("first"))));
+
+        final PreSerializedResponseDoc preSerialized = PreSerializedResponseDoc.of(responseDoc);
+
+        responseDoc.setText("Something else");
+        responseDoc.getAttachments().add(new SlackAttachment("second"));
+
+        assertThat(preSerialized.getText(), is(equalTo("Score updated.")));
+        assertThat(preSerialized.getAttachments().size(), is(equalTo(1)));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPreSerializedAttachmentsCannotBeChanged() {
+        final SlackResponseDoc responseDoc = new SlackResponseDoc();
+        responseDoc.setAttachments(Arrays.asList(new SlackAttachment("first")));
+
+        PreSerializedResponseDoc.of(responseDoc).getAttachments().add(new SlackAttachment("second"));
+    }
+
+    @Test
+    public void testUsesTheGivenObjectMapper() throws Exception {
+        final SlackResponseWriter indenting = new SlackResponseWriter(new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT));
+        final PreSerializedResponseDoc responseDoc = PreSerializedResponseDoc.of(SlackResponseType.EPHEMERAL, "Joining game.");
+
+        assertThat(new String(indenting.toBytes(responseDoc), StandardCharsets.UTF_8).contains("\n"), is(true));
+        assertThat(new String(cut.toBytes(responseDoc), StandardCharsets.UTF_8).contains("\n"), is(false));
+    }
+
+    @Test
+    public void testCommandResponseCacheRendersOncePerCommand() {
+        final int[] calls = new int[1];
+        final CommandResponseCache cache = new CommandResponseCache(command -> {
+            calls[0]++;
+            return SlackResponseDoc.failure("Try `" + command + " start`");
+        });
+
+        final SlackResponse first = cache.get("/trivia");
+
+        assertThat(cache.get("/trivia"), is(sameInstance(first)));
+        assertThat(first.getText(), is(equalTo("Try `/trivia start`")));
+        assertThat(cache.get("/quiz").getText(), is(equalTo("Try `/quiz start`")));
+        assertThat(calls[0], is(equalTo(2)));
+    }
+
+    @Test
+    public void testCommandResponseCacheKeepsCommandInUseThroughJunk() {
+        final int[] calls = new int[1];
+        final CommandResponseCache cache = new CommandResponseCache(command -> {
+            if (command.equals("/trivia")) {
+                calls[0]++;
+            }
+
+            return SlackResponseDoc.failure("Try `" + command + " start`");
+        });
+
+        //Made-up commands straight from request bodies, some before the real one is ever used
+        for (int i = 0; i < 100; i++) {
+            cache.get("/early" + i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            if (i % 5 == 0) {
+                assertThat(cache.get("/trivia").getText(), is(equalTo("Try `/trivia start`")));
+            }
+
+            cache.get("/junk" + i);
+        }
+
+        assertThat(calls[0], is(equalTo(1)));
+    }
+}
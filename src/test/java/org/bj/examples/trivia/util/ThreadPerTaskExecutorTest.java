@@ -0,0 +1,115 @@
+package org.bj.examples.trivia.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ThreadPerTaskExecutorTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ThreadPerTaskExecutor cut;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+
+        if (cut != null) {
+            cut.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEachTaskGetsItsOwnThread() throws Exception {
+        cut = new ThreadPerTaskExecutor(Thread::new, 10);
+
+        final Future<Thread> first = cut.submit(Thread::currentThread);
+        final Future<Thread> second = cut.submit(Thread::currentThread);
+
+        assertThat(first.get(5, TimeUnit.SECONDS), is(not(second.get(5, TimeUnit.SECONDS))));
+        assertThat(first.get(), is(not(Thread.currentThread())));
+    }
+
+    @Test
+    public void testRejectsPastMaxConcurrency() throws Exception {
+        cut = new ThreadPerTaskExecutor(Thread::new, 2);
+
+        cut.execute(this::awaitRelease);
+        cut.execute(this::awaitRelease);
+
+        try {
+            cut.execute(this::awaitRelease);
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException e) {
+            assertThat(cut.getActiveCount(), is(equalTo(2)));
+        }
+
+        release.countDown();
+        cut.shutdown();
+
+        assertThat(cut.awaitTermination(5, TimeUnit.SECONDS), is(true));
+        assertThat(cut.isTerminated(), is(true));
+        assertThat(cut.getActiveCount(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testRejectsAfterShutdown() {
+        cut = new ThreadPerTaskExecutor(Thread::new, 10);
+        cut.shutdown();
+
+        try {
+            cut.execute(() -> { });
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException e) {
+            assertThat(cut.getActiveCount(), is(equalTo(0)));
+        }
+    }
+
+    @Test
+    public void testShutdownNowInterruptsRunningTasks() throws Exception {
+        cut = new ThreadPerTaskExecutor(Thread::new, Integer.MAX_VALUE);
+
+        cut.execute(this::awaitRelease);
+        cut.shutdownNow();
+
+        assertThat(cut.awaitTermination(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void testRunsOnVirtualThreadsWhenAvailable() throws Exception {
+        assumeTrue(VirtualThreads.isAvailable());
+
+        cut = new ThreadPerTaskExecutor(VirtualThreads.factory("test-"), 10);
+
+        final Thread thread = cut.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+        assertThat(Thread.class.getMethod("isVirtual").invoke(thread), is(true));
+        assertThat(thread.getName(), is("test-0"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testVirtualThreadsUnsupportedOnOlderJvm() {
+        assumeFalse(VirtualThreads.isAvailable());
+
+        VirtualThreads.factory("test-");
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.bj.examples.trivia.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class TimingWheelTest {
+    private final TimingWheel cut = new TimingWheel(Thread::new, 5, 8);
+
+    @After
+    public void tearDown() {
+        cut.stop();
+    }
+
+    @Test
+    public void testRunsTaskOnceDueAndNotBefore() throws Exception {
+        final CountDownLatch ran = new CountDownLatch(1);
+        final long start = System.nanoTime();
+
+        final TimingWheel.Timeout timeout = cut.schedule(ran::countDown, 50, TimeUnit.MILLISECONDS);
+
+        assertThat(ran.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50, is(true));
+        assertThat(timeout.isExpired(), is(true));
+        assertThat(cut.getPendingCount(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testRunsTaskDueAfterSeveralTurnsOfTheWheel() throws Exception {
+        final CountDownLatch ran = new CountDownLatch(1);
+        final long start = System.nanoTime();
+
+        //The wheel turns once every 8 ticks of 5ms, so this is a few turns away
+        cut.schedule(ran::countDown, 150, TimeUnit.MILLISECONDS);
+
+        assertThat(ran.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150, is(true));
+    }
+
+    @Test
+    public void testCancelledTaskNeverRuns() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch later = new CountDownLatch(1);
+
+        final TimingWheel.Timeout timeout = cut.schedule(runs::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+        cut.schedule(later::countDown, 100, TimeUnit.MILLISECONDS);
+
+        assertThat(timeout.cancel(), is(true));
+        assertThat(timeout.cancel(), is(false));
+        assertThat(later.await(5, TimeUnit.SECONDS), is(true));
+
+        assertThat(runs.get(), is(equalTo(0)));
+        assertThat(timeout.isCancelled(), is(true));
+        assertThat(cut.getPendingCount(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testRunsManyTasks() throws Exception {
+        final int count = 10000;
+        final CountDownLatch ran = new CountDownLatch(count);
+
+        for (int i = 0; i < count; i++) {
+            cut.schedule(ran::countDown, i % 100, TimeUnit.MILLISECONDS);
+        }
+
+        assertThat(ran.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(cut.getPendingCount(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testFailingTaskDoesNotStopTheWheel() throws Exception {
+        final CountDownLatch ran = new CountDownLatch(1);
+
+        cut.schedule(() -> {
+            throw new IllegalStateException("test");
+        }, 0, TimeUnit.MILLISECONDS);
+        cut.schedule(ran::countDown, 20, TimeUnit.MILLISECONDS);
+
+        assertThat(ran.await(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void testRejectsTasksOnceStopped() {
+        cut.stop();
+
+        try {
+            cut.schedule(() -> { }, 0, TimeUnit.MILLISECONDS);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertThat(cut.getPendingCount(), is(equalTo(0)));
+        }
+    }
+}
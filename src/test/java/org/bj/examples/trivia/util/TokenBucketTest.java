@@ -0,0 +1,78 @@
+package org.bj.examples.trivia.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class TokenBucketTest {
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void testBurstUpToCapacity() {
+        final TokenBucket cut = new TokenBucket(3, 1, now::get);
+
+        assertThat(cut.tryAcquire(), is(equalTo(0L)));
+        assertThat(cut.tryAcquire(), is(equalTo(0L)));
+        assertThat(cut.tryAcquire(), is(equalTo(0L)));
+        assertThat(cut.tryAcquire(), is(equalTo(1000L)));
+    }
+
+    @Test
+    public void testRefillsAtRate() {
+        final TokenBucket cut = new TokenBucket(1, 2, now::get);
+
+        assertThat(cut.tryAcquire(), is(equalTo(0L)));
+        advance(250);
+        assertThat(cut.tryAcquire(), is(equalTo(250L)));
+        advance(250);
+        assertThat(cut.tryAcquire(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void testRefillIsCappedAtCapacity() {
+        final TokenBucket cut = new TokenBucket(2, 1, now::get);
+
+        advance(60_000);
+
+        assertThat(cut.tryAcquire(), is(equalTo(0L)));
+        assertThat(cut.tryAcquire(), is(equalTo(0L)));
+        assertThat(cut.tryAcquire(), is(equalTo(1000L)));
+    }
+
+    @Test
+    public void testPauseEmptiesAndHoldsBucket() {
+        final TokenBucket cut = new TokenBucket(5, 1, now::get);
+
+        cut.pause(3000);
+
+        assertThat(cut.tryAcquire(), is(equalTo(4000L)));
+        advance(3000);
+        assertThat(cut.tryAcquire(), is(equalTo(1000L)));
+        advance(1000);
+        assertThat(cut.tryAcquire(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void testMillisUntilFull() {
+        final TokenBucket cut = new TokenBucket(2, 1, now::get);
+
+        assertThat(cut.millisUntilFull(), is(equalTo(0L)));
+        cut.tryAcquire();
+        cut.tryAcquire();
+        assertThat(cut.millisUntilFull(), is(equalTo(2000L)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsZeroRate() {
+        new TokenBucket(1, 0);
+    }
+
+    private void advance(final long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}